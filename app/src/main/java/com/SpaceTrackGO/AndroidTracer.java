@@ -0,0 +1,20 @@
+package com.SpaceTrackGO;
+
+import android.os.Trace;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Forwards timed sections from PerfMetrics to android.os.Trace, so they appear in system traces.
+ */
+public class AndroidTracer implements PerfMetrics.Tracer {
+  @Override
+  public void beginSection(@NonNull String name) {
+    Trace.beginSection(name);
+  }
+
+  @Override
+  public void endSection() {
+    Trace.endSection();
+  }
+}
@@ -0,0 +1,72 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.StringRes;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Registers the resources each data type is shown with: the heading of its events, the name of
+ * the button that lists them and their icon. Screens look these up here rather than switching on
+ * the type, so adding a type to SpaceData.DataType only needs a line here as well.
+ */
+public final class DataTypeResources {
+  private static final Map<SpaceData.DataType, DataTypeResources> REGISTRY =
+      new EnumMap<>(SpaceData.DataType.class);
+
+  static {
+    register(SpaceData.DataType.CME, R.string.CME_heading, R.string.CME_button_name,
+        R.drawable.cme_icon);
+    register(SpaceData.DataType.GST, R.string.GST_heading, R.string.GST_button_name,
+        R.drawable.gst_icon);
+    register(SpaceData.DataType.FLR, R.string.FLR_heading, R.string.FLR_button_name,
+        R.drawable.flr_icon);
+    // Types without a picture of their own share a neutral icon rather than another type's
+    register(SpaceData.DataType.SEP, R.string.SEP_heading, R.string.SEP_button_name,
+        R.drawable.event_icon);
+    register(SpaceData.DataType.IPS, R.string.IPS_heading, R.string.IPS_button_name,
+        R.drawable.event_icon);
+    register(SpaceData.DataType.HSS, R.string.HSS_heading, R.string.HSS_button_name,
+        R.drawable.event_icon);
+    register(SpaceData.DataType.RBE, R.string.RBE_heading, R.string.RBE_button_name,
+        R.drawable.event_icon);
+    register(SpaceData.DataType.MPC, R.string.MPC_heading, R.string.MPC_button_name,
+        R.drawable.event_icon);
+    register(SpaceData.DataType.WSA_ENLIL, R.string.WSA_ENLIL_heading,
+        R.string.WSA_ENLIL_button_name, R.drawable.event_icon);
+
+    for (SpaceData.DataType dataType : SpaceData.DataType.values()) {
+      if (!REGISTRY.containsKey(dataType)) {
+        throw new IllegalStateException("No resources registered for " + dataType);
+      }
+    }
+  }
+
+  @StringRes public final int heading;
+  @StringRes public final int buttonName;
+  @DrawableRes public final int icon;
+
+  private DataTypeResources(@StringRes int heading, @StringRes int buttonName,
+                            @DrawableRes int icon) {
+    this.heading = heading;
+    this.buttonName = buttonName;
+    this.icon = icon;
+  }
+
+  private static void register(SpaceData.DataType dataType, @StringRes int heading,
+                               @StringRes int buttonName, @DrawableRes int icon) {
+    REGISTRY.put(dataType, new DataTypeResources(heading, buttonName, icon));
+  }
+
+  /**
+   * Returns the resources registered for a data type.
+   * @param dataType the type of space data
+   * @return the resources of the type
+   */
+  @NonNull
+  public static DataTypeResources of(@NonNull SpaceData.DataType dataType) {
+    return REGISTRY.get(dataType);
+  }
+}
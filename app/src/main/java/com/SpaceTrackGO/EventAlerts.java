@@ -0,0 +1,145 @@
+package com.SpaceTrackGO;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import java.util.List;
+
+/**
+ * Posts a local notification for each newly arrived event that crosses a threshold the user has
+ * chosen: a geomagnetic storm reaching a Kp-index, or an X-class flare. The thresholds are kept in
+ * the app's shared preferences and turned into an EventFilter, and only the events that are new
+ * to a refresh are checked against it.
+ */
+public class EventAlerts {
+  static final String CHANNEL_ID = "event_alerts";
+  static final int DEFAULT_MIN_KP_INDEX = 7;
+  /**
+   * The minimum Kp-index that turns storm alerts off.
+   */
+  public static final int DISABLED = -1;
+  private static final String KEY_MIN_KP_INDEX = "alert_min_kp_index";
+  private static final String KEY_X_CLASS_FLARES = "alert_x_class_flares";
+
+  private final Context context;
+  private final SharedPreferences prefs;
+  private boolean channelCreated; // Guarded by this
+
+  /**
+   * Constructs the EventAlerts.
+   * @param context any context, used to reach the preferences and post notifications
+   */
+  EventAlerts(@NonNull Context context) {
+    this.context = context.getApplicationContext();
+    prefs = this.context.getSharedPreferences(this.context.getString(R.string.prefs_name),
+        Context.MODE_PRIVATE);
+  }
+
+  /**
+   * Returns the Kp-index at or above which a new geomagnetic storm is alerted.
+   * @return the minimum Kp-index, or DISABLED if storms are not alerted
+   */
+  public int getMinKpIndex() {
+    return prefs.getInt(KEY_MIN_KP_INDEX, DEFAULT_MIN_KP_INDEX);
+  }
+
+  /**
+   * Sets the Kp-index at or above which a new geomagnetic storm is alerted.
+   * @param minKpIndex the minimum Kp-index, or DISABLED to not alert storms
+   */
+  public void setMinKpIndex(int minKpIndex) {
+    prefs.edit().putInt(KEY_MIN_KP_INDEX, minKpIndex).apply();
+  }
+
+  /**
+   * Returns whether a new X-class solar flare is alerted.
+   * @return true if X-class flares are alerted
+   */
+  public boolean isAlertingXClassFlares() {
+    return prefs.getBoolean(KEY_X_CLASS_FLARES, true);
+  }
+
+  /**
+   * Sets whether a new X-class solar flare is alerted.
+   * @param alerting true to alert X-class flares
+   */
+  public void setAlertingXClassFlares(boolean alerting) {
+    prefs.edit().putBoolean(KEY_X_CLASS_FLARES, alerting).apply();
+  }
+
+  /**
+   * Builds the filter matching the events to alert, from the thresholds currently set.
+   * @return the filter, or null if no alerts are turned on
+   */
+  @Nullable
+  EventFilter filter() {
+    EventFilter filter = EventFilter.NONE;
+    int minKpIndex = getMinKpIndex();
+    if (minKpIndex != DISABLED) {
+      filter = filter.atLeast(SpaceData.DataType.GST, EventColumns.kpMagnitude(minKpIndex));
+    }
+    if (isAlertingXClassFlares()) {
+      filter = filter.atLeast(SpaceData.DataType.FLR, EventColumns.flareMagnitude("X1.0"));
+    }
+    return filter.matchesEverything() ? null : filter;
+  }
+
+  /**
+   * Posts a notification for each of the events that arrived with a refresh and crosses a
+   * threshold. An event that is alerted again replaces its earlier notification.
+   * @param newEvents events whose IDs were not held before the refresh
+   */
+  void onNewEvents(@NonNull List<SpaceData> newEvents) {
+    EventFilter filter = filter();
+    if (filter == null) return;
+    NotificationManagerCompat notifications = NotificationManagerCompat.from(context);
+    for (SpaceData item : newEvents) {
+      if (!filter.matches(item)) continue;
+      createChannel();
+      notifications.notify(item.getId(), 0, build(item));
+    }
+  }
+
+  private Notification build(SpaceData item) {
+    Intent open = new Intent(context, MainActivity.class)
+        .setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+    int flags = PendingIntent.FLAG_UPDATE_CURRENT;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) flags |= PendingIntent.FLAG_IMMUTABLE;
+    PendingIntent contentIntent = PendingIntent.getActivity(context, 0, open, flags);
+
+    return new NotificationCompat.Builder(context, CHANNEL_ID)
+        .setSmallIcon(R.mipmap.ic_launcher)
+        .setLargeIcon(IconCache.getInstance(context).get(item.getDataType()))
+        .setContentTitle(context.getString(DataTypeResources.of(item.getDataType()).heading))
+        .setContentText(item.getDescription())
+        .setStyle(new NotificationCompat.BigTextStyle().bigText(item.getDescription()))
+        .setWhen(item.getEpochMillis())
+        .setShowWhen(item.getEpochMillis() != EventTime.UNKNOWN)
+        .setContentIntent(contentIntent)
+        .setAutoCancel(true)
+        .build();
+  }
+
+  /**
+   * Creates the notification channel the alerts are posted on, which Android 8 and later require.
+   */
+  private synchronized void createChannel() {
+    if (channelCreated || Build.VERSION.SDK_INT < Build.VERSION_CODES.O) return;
+    NotificationChannel channel = new NotificationChannel(CHANNEL_ID,
+        context.getString(R.string.alerts_channel), NotificationManager.IMPORTANCE_DEFAULT);
+    channel.setDescription(context.getString(R.string.alerts_channel_description));
+    context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+    channelCreated = true;
+  }
+}
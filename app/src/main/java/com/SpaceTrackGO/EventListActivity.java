@@ -1,7 +1,11 @@
 package com.SpaceTrackGO;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SearchView;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -14,20 +18,32 @@ import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
+import android.widget.CompoundButton;
 import android.widget.Toast;
 
-import java.util.ArrayList;
-import java.util.List;
+import com.google.android.material.chip.Chip;
+
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Creates the Event List activity that displays a list of data fetched from a selected API service.
  */
 public class EventListActivity extends AppCompatActivity {
+  // Age of the oldest events the recent chip shows, which paged lists can reach by scrolling
+  private static final long RECENT_DAYS = 90;
+
   SharedPreferences prefs;
   private SpaceDataViewModel viewModel;
-  List<SpaceData> spaceDataList;
   RecyclerView recyclerView;
   SpaceData.DataType dataTypeSelection;
+  boolean allActivitySelected;
+  private Chip recentChip;
+  private Chip strongStormChip;
+  private Chip mClassChip;
+  private Chip xClassChip;
 
   @Override
   protected void onCreate(Bundle savedInstanceState) {
@@ -40,52 +56,138 @@ public class EventListActivity extends AppCompatActivity {
     viewModel = new ViewModelProvider(this).get(SpaceDataViewModel.class);
 
     recyclerView = (RecyclerView) findViewById(R.id.dataRecyclerView);
-    spaceDataList = new ArrayList<>();  // Initial empty list to avoid NPE
-    SpaceDataAdapter adapter = new SpaceDataAdapter(spaceDataList);
+    SpaceDataAdapter adapter = new SpaceDataAdapter();
     recyclerView.setAdapter(adapter);
     recyclerView.setLayoutManager(new LinearLayoutManager(this));
 
-    viewModel.getSpaceData().observe(this, new Observer<List<SpaceData>>() {
+    // Single types page back through older months, all activity shows the recent timeline
+    LiveData<EventView> events = allActivitySelected || dataTypeSelection == null
+        ? viewModel.getEvents()
+        : viewModel.getPagedEvents(dataTypeSelection);
+    LiveData<EventView> shownEvents = viewModel.getSearchResults(events);
+    shownEvents.observe(this, new Observer<EventView>() {
+      /**
+       * Passes the new view of events to the RecyclerView's adapter, which works out which items
+       * changed in the background and only updates those.
+       * @param events view of the events to be displayed
+       */
+      @Override
+      public void onChanged(EventView events) {
+        PerfMetrics.markDelivered();
+        adapter.submitEvents(events);
+      }
+    });
+
+    viewModel.getErrors().observe(this, new Observer<String>() {
       /**
-       * Updates the list of space data objects and alerts the RecyclerView's adapter to the change.
-       * @param spaceData list of space data objects to be displayed
+       * Tells the user why a load or an older month failed, showing each failure once.
+       * @param message the message of the failure, or null once it has been shown
        */
       @Override
-      public void onChanged(List<SpaceData> spaceData) {
-        spaceDataList.clear();
-        spaceDataList.addAll(spaceData);
-        // Extent of changes to data are unknown so update everything
-        recyclerView.getAdapter().notifyDataSetChanged();
+      public void onChanged(String message) {
+        if (message == null) return;
+        Toast.makeText(EventListActivity.this, message, Toast.LENGTH_LONG).show();
+        viewModel.clearError();
       }
     });
 
+    recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+      /**
+       * Reports the times of the events on screen so older months can be paged in.
+       * @param recyclerView the RecyclerView that scrolled
+       * @param dx horizontal scroll distance
+       * @param dy vertical scroll distance
+       */
+      @Override
+      public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        EventView shown = adapter.getEvents();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION || last >= shown.size()) return;
+        viewModel.onVisibleRange(shown.epochMillis(first), shown.epochMillis(last));
+      }
+    });
+
+    setUpFilterChips();
+
     // Allow listed items to have a context menu
     registerForContextMenu(recyclerView);
 
-    // Load data for first time
-    refresh();
+    // Load data for first time, from storage if it is recent enough
+    if (dataTypeSelection != null || allActivitySelected) load(false);
   }
 
   private void setDataType() {
     String selection = prefs.getString("selection", "");
-    switch (selection) {
-      case "CME":
-        dataTypeSelection = SpaceData.DataType.CME;
-        break;
-      case "GST":
-        dataTypeSelection = SpaceData.DataType.GST;
-        break;
-      case "FLR":
-        dataTypeSelection = SpaceData.DataType.FLR;
-        break;
-      default:
-        Toast.makeText(this, "An error occurred, please try again.", Toast.LENGTH_SHORT)
-            .show();
+    if (selection.equals("ALL")) {
+      allActivitySelected = true;
+      return;
     }
+    try {
+      dataTypeSelection = SpaceData.DataType.valueOf(selection);
+    } catch (IllegalArgumentException e) {
+      Toast.makeText(this, "An error occurred, please try again.", Toast.LENGTH_SHORT)
+          .show();
+    }
+  }
+
+  /**
+   * Shows the filter chips that apply to the selected type, and makes checking them filter the
+   * list. Chips keep their checked state when the activity is recreated, and restoring it sets the
+   * filter again.
+   */
+  private void setUpFilterChips() {
+    recentChip = findViewById(R.id.recent_chip);
+    strongStormChip = findViewById(R.id.strong_storm_chip);
+    mClassChip = findViewById(R.id.m_class_chip);
+    xClassChip = findViewById(R.id.x_class_chip);
+    boolean showsStorms = allActivitySelected || dataTypeSelection == SpaceData.DataType.GST;
+    boolean showsFlares = allActivitySelected || dataTypeSelection == SpaceData.DataType.FLR;
+    strongStormChip.setVisibility(showsStorms ? View.VISIBLE : View.GONE);
+    mClassChip.setVisibility(showsFlares ? View.VISIBLE : View.GONE);
+    xClassChip.setVisibility(showsFlares ? View.VISIBLE : View.GONE);
+
+    CompoundButton.OnCheckedChangeListener listener = (chip, isChecked) -> {
+      // M-class and above already includes X-class, so only one of them can be checked
+      if (isChecked && chip == mClassChip) xClassChip.setChecked(false);
+      if (isChecked && chip == xClassChip) mClassChip.setChecked(false);
+      viewModel.setFilter(checkedFilter());
+    };
+    recentChip.setOnCheckedChangeListener(listener);
+    strongStormChip.setOnCheckedChangeListener(listener);
+    mClassChip.setOnCheckedChangeListener(listener);
+    xClassChip.setOnCheckedChangeListener(listener);
   }
 
-  private void refresh() {
-    SpaceDataRepository.getInstance().loadSpaceData(dataTypeSelection);
+  /**
+   * Builds the filter described by the checked chips.
+   * @return the filter, which is EventFilter.NONE if no chips are checked
+   */
+  private EventFilter checkedFilter() {
+    EventFilter filter = EventFilter.NONE;
+    if (recentChip.isChecked()) {
+      // Relative to when the filter is applied, so it keeps up while the list stays open
+      filter = filter.withinLast(TimeUnit.DAYS.toMillis(RECENT_DAYS));
+    }
+    if (strongStormChip.isChecked()) {
+      filter = filter.atLeast(SpaceData.DataType.GST, EventColumns.kpMagnitude(7));
+    }
+    if (mClassChip.isChecked()) {
+      filter = filter.atLeast(SpaceData.DataType.FLR, EventColumns.flareMagnitude("M1.0"));
+    } else if (xClassChip.isChecked()) {
+      filter = filter.atLeast(SpaceData.DataType.FLR, EventColumns.flareMagnitude("X1.0"));
+    }
+    return filter;
+  }
+
+  /**
+   * Loads the space data of the selected type, or of every type if all activity was selected, into
+   * the list. The view model cancels the load if it is replaced or the activity is finished.
+   * @param forceRefresh true to fetch from the API even if stored data is still recent
+   */
+  private void load(boolean forceRefresh) {
+    viewModel.load(allActivitySelected ? null : dataTypeSelection, forceRefresh);
   }
 
   /**
@@ -97,9 +199,51 @@ public class EventListActivity extends AppCompatActivity {
   public boolean onCreateOptionsMenu(Menu menu) {
     MenuInflater inflater = getMenuInflater();
     inflater.inflate(R.menu.event_list_menu, menu);
+    menu.findItem(R.id.perf_stats).setVisible(BuildConfig.DEBUG);
+    setUpSearch(menu.findItem(R.id.search));
     return true;
   }
 
+  /**
+   * Makes the search action filter the list as the user types, restoring the query the view model
+   * kept if the activity was recreated.
+   * @param searchItem the search menu item, whose action view is a SearchView
+   */
+  private void setUpSearch(MenuItem searchItem) {
+    SearchView searchView = (SearchView) searchItem.getActionView();
+    searchView.setQueryHint(getString(R.string.search_hint));
+    String query = viewModel.getSearchQuery();
+    if (!query.isEmpty()) {
+      searchItem.expandActionView();
+      searchView.setQuery(query, false);
+    }
+    searchItem.setOnActionExpandListener(new MenuItem.OnActionExpandListener() {
+      @Override
+      public boolean onMenuItemActionExpand(MenuItem item) {
+        return true;
+      }
+
+      @Override
+      public boolean onMenuItemActionCollapse(MenuItem item) {
+        viewModel.setSearchQuery("");
+        return true;
+      }
+    });
+    searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+      @Override
+      public boolean onQueryTextSubmit(String query) {
+        searchView.clearFocus();
+        return true;
+      }
+
+      @Override
+      public boolean onQueryTextChange(String newText) {
+        viewModel.setSearchQuery(newText);
+        return true;
+      }
+    });
+  }
+
   /**
    * Checks if the user selected the refresh option and refreshes the space data if so.
    * @param item menu item selected by the user
@@ -109,13 +253,46 @@ public class EventListActivity extends AppCompatActivity {
   public boolean onOptionsItemSelected(@NonNull MenuItem item) {
     switch (item.getItemId()) {
       case R.id.refresh:
-        if (dataTypeSelection != null) refresh(); // Avoid refreshing before selection stored
+        // Avoid refreshing before selection stored
+        if (dataTypeSelection != null || allActivitySelected) load(true);
+        return true;
+      case R.id.perf_stats:
+        showPerfStats();
         return true;
       default:
         return super.onOptionsItemSelected(item);
     }
   }
 
+  /**
+   * Shows the recorded performance timings and counters in a dialog. Only offered in debug builds.
+   */
+  private void showPerfStats() {
+    StringWriter report = new StringWriter();
+    PerfMetrics.dump("", new PrintWriter(report));
+    new AlertDialog.Builder(this)
+        .setTitle(R.string.perf_stats)
+        .setMessage(report.toString())
+        .setPositiveButton(android.R.string.ok, null)
+        .setNeutralButton(R.string.perf_stats_reset, (dialog, which) -> PerfMetrics.reset())
+        .show();
+  }
+
+  /**
+   * Adds the recorded performance timings and counters to the activity's dump, so they can be read
+   * with "adb shell dumpsys activity com.SpaceTrackGO/.EventListActivity".
+   * @param prefix text to start each line with
+   * @param fd raw file descriptor of the dump
+   * @param writer where to write the dump
+   * @param args extra arguments passed to dumpsys
+   */
+  @Override
+  public void dump(@NonNull String prefix, @Nullable FileDescriptor fd, @NonNull PrintWriter writer,
+                   @Nullable String[] args) {
+    super.dump(prefix, fd, writer, args);
+    PerfMetrics.dump(prefix, writer);
+  }
+
   /**
    * Inflates the event list options menu into the passed menu object.
    * @param menu object to load context menu into
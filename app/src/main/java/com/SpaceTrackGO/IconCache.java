@@ -0,0 +1,118 @@
+package com.SpaceTrackGO;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.SparseArray;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Holds the icon shown beside each type of space event, decoded once and downsampled to the height
+ * of the icon in an event row, so that every row showing a type shares one small bitmap. Types
+ * registered with the same image share its bitmap as well.
+ *
+ * <p>The icons are large images kept in the default density folder, so loading them as drawables
+ * decodes them at full size and then scales them up for the screen density on every call.
+ * Decoding here skips density scaling, samples the image down by a power of two, scales it to the
+ * exact row height, and keeps it without an alpha channel since the images are opaque.
+ */
+public class IconCache {
+  private static IconCache instance;
+
+  private final Resources resources;
+  private final int iconHeight;
+  private final SparseArray<Bitmap> icons = new SparseArray<>(); // By drawable resource ID
+  private boolean preloadStarted;
+
+  private IconCache(Context context) {
+    resources = context.getApplicationContext().getResources();
+    iconHeight = resources.getDimensionPixelSize(R.dimen.item_icon_height);
+  }
+
+  /**
+   * Gets the single instance of the IconCache class. This won't be instantiated until called for
+   * the first time.
+   * @param context any context, used to load the icons from the app's resources
+   * @return the singleton instance of IconCache
+   */
+  public static IconCache getInstance(@NonNull Context context) {
+    if (instance == null) {
+      synchronized (IconCache.class) {
+        if (instance == null) instance = new IconCache(context);
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Starts decoding the icon of every data type on a background thread, so the first rows bound
+   * do not wait for it. Only the first call has any effect.
+   */
+  public synchronized void preload() {
+    if (preloadStarted) return;
+    preloadStarted = true;
+    Thread thread = new Thread(() -> {
+      for (SpaceData.DataType dataType : SpaceData.DataType.values()) get(dataType);
+    }, "IconCache-preload");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Returns the icon for a data type, decoding it the first time it is asked for.
+   * @param dataType the type of space data to get the icon of
+   * @return the shared icon bitmap, or null if the image could not be decoded
+   */
+  @Nullable
+  public synchronized Bitmap get(@NonNull SpaceData.DataType dataType) {
+    int resId = DataTypeResources.of(dataType).icon;
+    Bitmap icon = icons.get(resId);
+    if (icon == null) {
+      icon = decode(resId);
+      if (icon != null) icons.put(resId, icon);
+    }
+    return icon;
+  }
+
+  /**
+   * Decodes an image resource to the icon height, keeping its aspect ratio.
+   */
+  private Bitmap decode(@DrawableRes int resId) {
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inScaled = false; // Sizing is done here rather than by the resource's density
+    options.inJustDecodeBounds = true;
+    BitmapFactory.decodeResource(resources, resId, options);
+    if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+
+    options.inJustDecodeBounds = false;
+    options.inSampleSize = sampleSizeFor(options.outHeight, iconHeight);
+    options.inPreferredConfig = Bitmap.Config.RGB_565;
+    Bitmap sampled = BitmapFactory.decodeResource(resources, resId, options);
+    if (sampled == null || sampled.getHeight() <= iconHeight) return sampled;
+
+    int width = Math.max(1, Math.round(
+        sampled.getWidth() * (float) iconHeight / sampled.getHeight()));
+    Bitmap scaled = Bitmap.createScaledBitmap(sampled, width, iconHeight, true);
+    if (scaled != sampled) sampled.recycle();
+    return scaled;
+  }
+
+  /**
+   * Returns the largest power of two that the image can be sampled down by while staying at least
+   * as tall as the target, since the decoder only samples by powers of two.
+   * @param height height of the image in pixels
+   * @param targetHeight height the image will be shown at in pixels
+   * @return the sample size to decode the image with
+   */
+  static int sampleSizeFor(int height, int targetHeight) {
+    int sampleSize = 1;
+    while (targetHeight > 0 && height / (sampleSize * 2) >= targetHeight) {
+      sampleSize *= 2;
+    }
+    return sampleSize;
+  }
+}
@@ -2,16 +2,25 @@ package com.SpaceTrackGO;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import android.annotation.SuppressLint;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.view.MotionEvent;
 import android.view.View;
+import android.widget.Button;
+import android.widget.LinearLayout;
 
 /**
  * Creates the main activity of the app where users can choose a type of space data to read about.
+ * The data the user is most likely to choose is fetched while they choose, and the data they touch
+ * is fetched while the list opens, so the list rarely waits on the network.
  */
 public class MainActivity extends AppCompatActivity {
+  private static final String HISTORY_KEY = "selection_history";
+
   SharedPreferences prefs;
+  private SelectionHistory history;
 
   @Override
   protected void onCreate(Bundle savedInstanceState) {
@@ -19,40 +28,89 @@ public class MainActivity extends AppCompatActivity {
     setContentView(R.layout.activity_main);
 
     prefs = this.getSharedPreferences(getString(R.string.prefs_name), MODE_PRIVATE);
+    history = SelectionHistory.decode(prefs.getString(HISTORY_KEY, null));
+
+    // Every registered data type gets a button, in the order the types are declared
+    LinearLayout typeButtons = findViewById(R.id.type_buttons);
+    for (SpaceData.DataType dataType : SpaceData.DataType.values()) {
+      Button button = (Button) getLayoutInflater()
+          .inflate(R.layout.item_type_button, typeButtons, false);
+      button.setText(DataTypeResources.of(dataType).buttonName);
+      typeButtons.addView(button);
+      setUpButton(button, dataType.name());
+    }
+    setUpButton(findViewById(R.id.ALL_button), "ALL");
+  }
 
-    findViewById(R.id.CME_button).setOnClickListener(new View.OnClickListener() {
+  /**
+   * Starts fetching the data the user is most likely to choose, based on their past selections.
+   */
+  @Override
+  protected void onResume() {
+    super.onResume();
+    String likely = history.mostLikely(System.currentTimeMillis());
+    if (likely != null) prefetch(likely, RateLimitScheduler.Priority.BACKGROUND);
+  }
+
+  /**
+   * Makes a button open the event list for a selection. Its data starts being fetched as soon as
+   * the button is touched, so the request overlaps with the press and the activity transition.
+   * @param button the button
+   * @param selection name of the data type the button selects
+   */
+  @SuppressLint("ClickableViewAccessibility") // Clicks are still handled by the click listener
+  private void setUpButton(View button, final String selection) {
+    button.setOnTouchListener(new View.OnTouchListener() {
       @Override
-      public void onClick(View view) {
-        setSelection("CME");
-        Intent listEvents = new Intent(MainActivity.this, EventListActivity.class);
-        startActivity(listEvents);
+      public boolean onTouch(View view, MotionEvent event) {
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+          prefetch(selection, RateLimitScheduler.Priority.USER);
+        }
+        return false;
       }
     });
-    findViewById(R.id.GST_button).setOnClickListener(new View.OnClickListener() {
+    button.setOnClickListener(new View.OnClickListener() {
       @Override
       public void onClick(View view) {
-        setSelection("GST");
+        setSelection(selection);
         Intent listEvents = new Intent(MainActivity.this, EventListActivity.class);
         startActivity(listEvents);
       }
     });
-    findViewById(R.id.FLR_button).setOnClickListener(new View.OnClickListener() {
-      @Override
-      public void onClick(View view) {
-        setSelection("FLR");
-        Intent listEvents = new Intent(MainActivity.this, EventListActivity.class);
-        startActivity(listEvents);
+  }
+
+  /**
+   * Warms the repository with the space data of a selection. A USER prefetch of a selection that
+   * is already being prefetched in the background joins that fetch and raises it to USER
+   * priority, so it is hedged and may use the quota kept in reserve for the user.
+   * @param selection name of the data type, or ALL for every type
+   * @param priority whether the user has chosen the selection or it is a guess
+   */
+  private void prefetch(String selection, RateLimitScheduler.Priority priority) {
+    SpaceDataRepository repo = SpaceDataRepository.getInstance(this);
+    if (selection.equals("ALL")) {
+      for (SpaceData.DataType dataType : SpaceData.DataType.values()) {
+        repo.prefetch(dataType, priority);
       }
-    });
+      return;
+    }
+    try {
+      repo.prefetch(SpaceData.DataType.valueOf(selection), priority);
+    } catch (IllegalArgumentException e) {
+      // Selections from an older version of the app are not prefetched
+    }
   }
 
   /**
-   * Stores the selection of the user's button press in SharedPreferences.
+   * Stores the selection of the user's button press in SharedPreferences, and records it in the
+   * selection history.
    * @param selection name of user's selected data type
    */
   private void setSelection(String selection) {
+    history.record(selection, System.currentTimeMillis());
     SharedPreferences.Editor editor = prefs.edit();
     editor.putString("selection",selection);
+    editor.putString(HISTORY_KEY, history.encode());
     editor.apply();
   }
-}
\ No newline at end of file
+}
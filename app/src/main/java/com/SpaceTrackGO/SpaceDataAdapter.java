@@ -3,6 +3,8 @@ package com.SpaceTrackGO;
 import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.format.DateFormat;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -11,23 +13,61 @@ import android.view.View.OnLongClickListener;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
-import android.widget.Toast;
 
 import androidx.annotation.NonNull;
-import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.net.URL;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
- * Holds the data that the Event List activity's RecyclerView shows, and keeps it updated when
- * changes occur such as the user pressing refresh or selecting a different data type.
+ * Holds the events that the Event List activity's RecyclerView shows, and keeps them updated when
+ * changes occur such as the user pressing refresh or selecting a different data type. Rows are
+ * bound straight from an EventView over columns of events, without SpaceData objects. New views
+ * are diffed against the current one off the main thread so only changed items are rebound.
  */
 public class SpaceDataAdapter extends RecyclerView.Adapter<SpaceDataAdapter.ViewHolder> {
+  private static final ExecutorService DIFF_EXECUTOR = Executors.newSingleThreadExecutor(
+      runnable -> {
+        Thread thread = new Thread(runnable, "SpaceDataAdapter-diff");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  /**
+   * Compares two views of events by their stable IDs, and their content field by field.
+   */
+  private static class EventDiffCallback extends DiffUtil.Callback {
+    private final EventView oldEvents;
+    private final EventView newEvents;
+
+    EventDiffCallback(EventView oldEvents, EventView newEvents) {
+      this.oldEvents = oldEvents;
+      this.newEvents = newEvents;
+    }
+
+    @Override
+    public int getOldListSize() {
+      return oldEvents.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+      return newEvents.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+      return oldEvents.stableId(oldItemPosition) == newEvents.stableId(newItemPosition);
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+      return oldEvents.sameContents(oldItemPosition, newEvents, newItemPosition);
+    }
+  }
+
   /**
    * Holds a view containing data on a space event while it is within the user's focus.
    */
@@ -35,6 +75,8 @@ public class SpaceDataAdapter extends RecyclerView.Adapter<SpaceDataAdapter.View
     public ImageView spaceImage;
     public TextView itemHeading;
     public TextView itemDesc;
+    // Type whose icon the image view is showing, so rebinding the same type leaves it alone
+    SpaceData.DataType iconType;
 
     /**
      * Constructs the ViewHolder by setting its access to the different layout components of a data
@@ -57,8 +99,9 @@ public class SpaceDataAdapter extends RecyclerView.Adapter<SpaceDataAdapter.View
     @Override
     public void onClick(final View view) {
       int itemPosition = recyclerView.getChildLayoutPosition(view);
-      SpaceData item = spaceDataItems.get(itemPosition);
-      openWebPage(item.getHyperlink());
+      if (itemPosition == RecyclerView.NO_POSITION) return;
+      String link = events.link(itemPosition);
+      if (link != null) openWebPage(link);
     }
   }
 
@@ -76,16 +119,72 @@ public class SpaceDataAdapter extends RecyclerView.Adapter<SpaceDataAdapter.View
 
   private final OnClickListener onClickListener = new ItemOnClickListener();
   private final OnLongClickListener onLongClickListener = new ItemOnLongClickListener();
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private EventView events = EventView.EMPTY;
+  private int submitGeneration = 0;
   private RecyclerView recyclerView;
-  private List<SpaceData> spaceDataItems;
+  private DateDisplayFormatter dateFormatter;
+  private IconCache iconCache;
   private int longClickPosition;
 
   /**
-   * Constructs the SpaceDataAdapter by assigning the space data items that it initially holds.
-   * @param spaceDataItems
+   * Constructs the SpaceDataAdapter with no items. Items are provided with submitEvents().
+   */
+  public SpaceDataAdapter() {
+    setHasStableIds(true);
+  }
+
+  /**
+   * Replaces the events shown. The differences from the current events are worked out on a
+   * background thread, then only the changed rows are updated. Must be called on the main thread.
+   * @param newEvents the events to show
+   */
+  public void submitEvents(@NonNull EventView newEvents) {
+    if (newEvents == events) return;
+    final int generation = ++submitGeneration;
+    final EventView oldEvents = events;
+    if (oldEvents.isEmpty() || newEvents.isEmpty()) {
+      events = newEvents;
+      if (!oldEvents.isEmpty()) notifyItemRangeRemoved(0, oldEvents.size());
+      if (!newEvents.isEmpty()) notifyItemRangeInserted(0, newEvents.size());
+      return;
+    }
+
+    DIFF_EXECUTOR.execute(() -> {
+      // Events are kept in time order, so there are no moves to detect
+      DiffUtil.DiffResult diff =
+          DiffUtil.calculateDiff(new EventDiffCallback(oldEvents, newEvents), false);
+      mainHandler.post(() -> {
+        if (generation != submitGeneration) return; // Newer events were submitted since
+        events = newEvents;
+        diff.dispatchUpdatesTo(SpaceDataAdapter.this);
+      });
+    });
+  }
+
+  /**
+   * Returns the events currently shown.
+   * @return the view of the shown events
+   */
+  @NonNull
+  public EventView getEvents() {
+    return events;
+  }
+
+  @Override
+  public int getItemCount() {
+    return events.size();
+  }
+
+  /**
+   * Returns the stable ID of the item at a position, derived from its API ID so it stays the same
+   * across refreshes.
+   * @param position the position of the item
+   * @return the stable ID of the item
    */
-  public SpaceDataAdapter(List<SpaceData> spaceDataItems) {
-    this.spaceDataItems = spaceDataItems;
+  @Override
+  public long getItemId(int position) {
+    return events.stableId(position);
   }
 
   /**
@@ -95,24 +194,11 @@ public class SpaceDataAdapter extends RecyclerView.Adapter<SpaceDataAdapter.View
    * @param context the application context
    */
   public void shareItem(Context context) {
-    SpaceData spaceDataItem = spaceDataItems.get(longClickPosition);
-    String heading;
-    SpaceData.DataType dataType = spaceDataItem.getDataType();
-    switch (dataType) {
-      case CME:
-        heading = context.getString(R.string.CME_heading);
-        break;
-      case GST:
-        heading = context.getString(R.string.GST_heading);
-        break;
-      case FLR:
-        heading = context.getString(R.string.FLR_heading);
-        break;
-      default:
-        heading = "space data";
-    }
+    if (longClickPosition >= getItemCount()) return; // List changed since the long click
+    SpaceData.DataType dataType = events.dataType(longClickPosition);
+    String heading = context.getString(DataTypeResources.of(dataType).heading);
     String shareText = "Look at this " + heading + " I found on SpaceTrackGO! Here's the"
-        + " official report: " + spaceDataItem.getHyperlink();
+        + " official report: " + events.link(longClickPosition);
 
     // Send share intent
     Intent sendIntent = new Intent(Intent.ACTION_SEND);
@@ -129,9 +215,9 @@ public class SpaceDataAdapter extends RecyclerView.Adapter<SpaceDataAdapter.View
    * device in most cases.
    * @param url uniform resource locator (URL) to be viewed
    */
-  public void openWebPage(URL url) {
+  public void openWebPage(String url) {
     Uri webpage;
-    webpage = Uri.parse(url.toString());
+    webpage = Uri.parse(url);
     Intent intent = new Intent(Intent.ACTION_VIEW, webpage);
     Context context = recyclerView.getContext();
     if (intent.resolveActivity(context.getPackageManager()) != null) {
@@ -147,6 +233,10 @@ public class SpaceDataAdapter extends RecyclerView.Adapter<SpaceDataAdapter.View
   public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
     super.onAttachedToRecyclerView(recyclerView);
     this.recyclerView = recyclerView; // Obtain reference to the RecyclerView
+    // Get locale specific date representation once rather than on every bind, shown in UTC
+    dateFormatter = new DateDisplayFormatter(DateFormat.getDateFormat(recyclerView.getContext()));
+    iconCache = IconCache.getInstance(recyclerView.getContext());
+    iconCache.preload();
   }
 
   /**
@@ -176,7 +266,8 @@ public class SpaceDataAdapter extends RecyclerView.Adapter<SpaceDataAdapter.View
    */
   @Override
   public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-    SpaceData spaceDataItem = spaceDataItems.get(position);
+    long bindStart = PerfMetrics.begin(PerfMetrics.Section.BIND);
+    PerfMetrics.count(PerfMetrics.Counter.BINDS, 1);
 
     ImageView spaceImage = holder.spaceImage;
     TextView itemHeading = holder.itemHeading;
@@ -184,54 +275,19 @@ public class SpaceDataAdapter extends RecyclerView.Adapter<SpaceDataAdapter.View
 
     Context context = spaceImage.getContext();
 
-    int img;
-    String heading;
-    SpaceData.DataType dataType = spaceDataItem.getDataType();
-    switch (dataType) {
-      case CME:
-        img = R.drawable.cme_icon;
-        heading = context.getString(R.string.CME_heading);
-        break;
-      case GST:
-        img = R.drawable.gst_icon;
-        heading = context.getString(R.string.GST_heading);
-        break;
-      case FLR:
-        img = R.drawable.flr_icon;
-        heading = context.getString(R.string.FLR_heading);
-        break;
-      default:
-        img = R.drawable.cme_icon;  // Not possible
-        heading = context.getString(R.string.CME_heading);
-    }
-    spaceImage.setImageDrawable(
-        ContextCompat.getDrawable(context, img));
-
-    String dateString;
-    try {
-      SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm'Z'");
-      Date date = simpleDateFormat.parse(spaceDataItem.getDateAndTime());
-      if (date == null) throw new ParseException("Date is null", 0);
-      // Get locale specific date and time representation
-      java.text.DateFormat dateFormat = DateFormat.getDateFormat(context);
-      dateString = dateFormat.format(date);
-    } catch (ParseException e) {
-      e.printStackTrace();
-      dateString = "";
-      Toast.makeText(context, "A problem occurred when getting the date and time information.",
-          Toast.LENGTH_SHORT).show();
+    SpaceData.DataType dataType = events.dataType(position);
+    String heading = context.getString(DataTypeResources.of(dataType).heading);
+    if (holder.iconType != dataType) {
+      // Icons are decoded once at row size and shared by every row of the same type
+      spaceImage.setImageBitmap(iconCache.get(dataType));
+      holder.iconType = dataType;
     }
+
+    // Time was parsed when the item was formed, and recently shown days are cached
+    String dateString = dateFormatter.format(events.epochMillis(position));
     String fullHeading = dateString + " " + heading;
     itemHeading.setText(fullHeading);
-    itemDesc.setText(spaceDataItem.getDescription());
-  }
-
-  /**
-   * Returns the number of space data items the adapter is holding.
-   * @return the count of items within the spaceDataItems list
-   */
-  @Override
-  public int getItemCount() {
-    return spaceDataItems.size();
+    itemDesc.setText(events.description(position));
+    PerfMetrics.end(PerfMetrics.Section.BIND, bindStart);
   }
 }
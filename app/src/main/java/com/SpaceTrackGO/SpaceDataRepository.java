@@ -1,37 +1,134 @@
 package com.SpaceTrackGO;
 
 import android.content.Context;
-import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import org.json.JSONException;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Keeps mutable access to the live space data list and handles the asynchronous calls to load new
- * data and change what is being stored.
+ * data and change what is being stored. Fetched data is kept on disk so it can be shown straight
+ * away next time, and is only fetched again from the API once it is older than the cache TTL.
+ * Work runs on a small shared thread pool, and identical fetches that overlap share one request.
+ * Once a list is held, refreshes only request the days since its newest event and merge them in.
+ * Each data type is published on its own stream, and the merged timeline on another, so a late
+ * response for one type can never replace the list shown for another. The events that each
+ * refresh adds are published on a stream of their own and checked against the user's alerts.
+ * Failures of fetches the user is waiting on are published on an error stream for the list to show.
  */
 public class SpaceDataRepository {
+  static final long DEFAULT_CACHE_TTL = TimeUnit.MINUTES.toMillis(30);
+  // Enough to fetch every data type at once and still serve stored data
+  private static final int FETCH_THREADS = SpaceData.DataType.values().length + 1;
+
   private static SpaceDataRepository instance;
 
-  private MutableLiveData<List<SpaceData>> liveSpaceData;
+  private final Map<SpaceData.DataType, MutableLiveData<List<SpaceData>>> liveSpaceData =
+      new EnumMap<>(SpaceData.DataType.class);
+  private final MutableLiveData<List<SpaceData>> liveTimeline = new MutableLiveData<>();
+  private final MutableLiveData<List<SpaceData>> liveNewEvents = new MutableLiveData<>();
+  private final MutableLiveData<String> liveErrors = new MutableLiveData<>();
+  private final EventAlerts alerts;
+  private final SpaceDataStore store;
+  private final Map<SpaceData.DataType, SpaceDataStore.Snapshot> snapshots =
+      new EnumMap<>(SpaceData.DataType.class);
+  // Held while a fetched list is merged into the snapshot of its type and stored
+  private final Map<SpaceData.DataType, Object> storeLocks =
+      new EnumMap<>(SpaceData.DataType.class);
+  private volatile long cacheTtl = DEFAULT_CACHE_TTL;
+
+  private final ExecutorService executor =
+      Executors.newFixedThreadPool(FETCH_THREADS, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "SpaceData-fetch-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+  private final FetchCoalescer<FetchKey, List<SpaceData>> fetcher = new FetchCoalescer<>(executor);
+
+  /**
+   * Lets a load be cancelled once nobody is waiting for it. Cancelling detaches the load from its
+   * fetches, which are aborted unless other callers are still attached to them, and stops it from
+   * publishing anything more.
+   */
+  public static final class Load {
+    private final List<Future<List<SpaceData>>> fetches = new ArrayList<>(); // Guarded by this
+    private boolean canceled = false; // Guarded by this
+
+    /**
+     * Cancels the load and every fetch it started that no other caller shares.
+     */
+    public void cancel() {
+      List<Future<List<SpaceData>>> started;
+      synchronized (this) {
+        if (canceled) return;
+        canceled = true;
+        started = new ArrayList<>(fetches);
+        fetches.clear();
+      }
+      for (Future<List<SpaceData>> fetch : started) fetch.cancel(true);
+    }
+
+    public synchronized boolean isCanceled() {
+      return canceled;
+    }
+
+    private void add(Future<List<SpaceData>> fetch) {
+      if (fetch == null) return;
+      synchronized (this) {
+        if (!canceled) {
+          fetches.add(fetch);
+          return;
+        }
+      }
+      fetch.cancel(true);
+    }
+  }
+
+  private SpaceDataRepository(File storeDirectory, EventAlerts alerts) {
+    store = new SpaceDataStore(storeDirectory);
+    this.alerts = alerts;
+    for (SpaceData.DataType dataType : SpaceData.DataType.values()) {
+      liveSpaceData.put(dataType, new MutableLiveData<>());
+      storeLocks.put(dataType, new Object());
+    }
+  }
 
   /**
    * Gets the single instance of the SpaceDataRepository class. This won't be instantiated until
    * called for the first time.
+   * @param context any context, used to locate the app's cache directory on first call
    * @return the singleton instance of SpaceDataRepository
    */
-  public static SpaceDataRepository getInstance() {
+  public static SpaceDataRepository getInstance(@NonNull Context context) {
     if (instance == null) {
       synchronized (SpaceDataRepository.class) {
         if (instance == null) {
-          instance = new SpaceDataRepository();
+          File storeDirectory = new File(context.getApplicationContext().getCacheDir(),
+              "space_data");
+          instance = new SpaceDataRepository(storeDirectory, new EventAlerts(context));
         }
       }
     }
@@ -39,29 +136,365 @@ public class SpaceDataRepository {
   }
 
   /**
-   * Returns the liveSpaceData list in an immutable state for reading the latest space data that
-   * has been obtained.
-   * @return an immutable list of SpaceData objects
+   * Returns the stream of the latest space data of a type in an immutable state, published by
+   * loadSpaceData().
+   * @param dataType the type of SpaceData
+   * @return the LiveData list of SpaceData objects of the type
+   */
+  public LiveData<List<SpaceData>> getSpaceData(@NonNull SpaceData.DataType dataType) {
+    return liveSpaceData.get(dataType);
+  }
+
+  /**
+   * Returns the stream of the latest merged timeline of every type in an immutable state,
+   * published by loadAllSpaceData().
+   * @return the LiveData list of SpaceData objects in reverse chronological order
+   */
+  public LiveData<List<SpaceData>> getTimeline() {
+    return liveTimeline;
+  }
+
+  /**
+   * Returns the stream of events that arrived with a refresh, of any type. Each value holds only
+   * the events whose IDs were not in the list held before that refresh, so nothing is published
+   * for the first list fetched of a type.
+   * @return the LiveData list of newly arrived SpaceData objects
+   */
+  public LiveData<List<SpaceData>> getNewEvents() {
+    return liveNewEvents;
+  }
+
+  /**
+   * Returns the alerts posted for newly arrived events, for changing their thresholds.
+   * @return the EventAlerts of the app
+   */
+  public EventAlerts getAlerts() {
+    return alerts;
+  }
+
+  /**
+   * Sets how old stored space data can be before it is fetched again from the API.
+   * @param ttl maximum age of stored data
+   * @param unit unit of the ttl value
+   */
+  public void setCacheTtl(long ttl, @NonNull TimeUnit unit) {
+    cacheTtl = unit.toMillis(ttl);
+  }
+
+  /**
+   * Asynchronously loads space data of the selected dataType. Any stored data is published first,
+   * then new data is fetched from the API if the stored data is missing or older than the cache
+   * TTL.
+   * @param dataType the type of SpaceData to load
+   * @param forceRefresh true to fetch from the API even if the stored data is still fresh
+   * @return the load, which can be cancelled once its data is no longer wanted
+   */
+  public Load loadSpaceData(@NonNull SpaceData.DataType dataType, boolean forceRefresh) {
+    Load load = new Load();
+    executor.execute(() -> {
+      if (load.isCanceled()) return;
+      SpaceDataStore.Snapshot snapshot = getSnapshot(dataType);
+      if (snapshot != null) post(liveSpaceData.get(dataType), snapshot.spaceData);
+      load.add(refreshIfStale(dataType, snapshot, forceRefresh, RateLimitScheduler.Priority.USER,
+          spaceData -> post(liveSpaceData.get(dataType), spaceData)));
+    });
+    return load;
+  }
+
+  /**
+   * Asynchronously loads space data of every type and publishes them merged into one timeline in
+   * reverse chronological order. Stored data is published first, then every type that needs
+   * fetching is fetched at the same time, and the timeline is published again as each arrives.
+   * @param forceRefresh true to fetch from the API even if the stored data is still fresh
+   * @return the load, which can be cancelled once its data is no longer wanted
+   */
+  public Load loadAllSpaceData(boolean forceRefresh) {
+    Load load = new Load();
+    executor.execute(() -> {
+      if (load.isCanceled()) return;
+      SpaceData.DataType[] dataTypes = SpaceData.DataType.values();
+      SpaceDataStore.Snapshot[] stored = new SpaceDataStore.Snapshot[dataTypes.length];
+      for (int i = 0; i < dataTypes.length; i++) stored[i] = getSnapshot(dataTypes[i]);
+      postTimeline();
+
+      for (int i = 0; i < dataTypes.length; i++) {
+        load.add(refreshIfStale(dataTypes[i], stored[i], forceRefresh,
+            RateLimitScheduler.Priority.USER, spaceData -> postTimeline()));
+      }
+    });
+    return load;
+  }
+
+  /**
+   * Asynchronously fetches the space data of a date window from the API without storing it, for
+   * browsing history that is older than the stored list.
+   * @param key the data type and date window to fetch
+   * @param callback receives the list of space data if the fetch succeeds
+   * @return future holding the result of the fetch, which detaches the callback when cancelled
+   */
+  public Future<List<SpaceData>> loadWindow(@NonNull FetchKey key,
+                                            @NonNull FetchCoalescer.Callback<List<SpaceData>>
+                                                callback) {
+    return fetcher.fetch(key, RateLimitScheduler.Priority.USER, handle -> {
+      try {
+        return SpaceData.getApiData(key.dataType, key.startDate, key.endDate,
+            handle.getPriority(), handle);
+      } catch (FetchCanceledException e) {
+        throw e; // Nobody is waiting for it
+      } catch (JSONException | IOException e) {
+        e.printStackTrace();
+        publishError(handle, e.getMessage());
+        throw e;
+      }
+    }, callback);
+  }
+
+  /**
+   * Asynchronously warms the space data of a type ahead of it being loaded, reading its stored data
+   * into memory and fetching from the API if that is older than the cache TTL. Nothing is
+   * published, and a later load of the type attaches to the fetch if it is still in flight.
+   * @param dataType the type of SpaceData to warm
+   * @param priority USER if the user has asked for the type, or BACKGROUND if it is a guess
+   */
+  public void prefetch(@NonNull SpaceData.DataType dataType,
+                       @NonNull RateLimitScheduler.Priority priority) {
+    executor.execute(() -> refreshIfStale(dataType, getSnapshot(dataType), false, priority, null));
+  }
+
+  /**
+   * Refreshes the stored space data of a type if it is older than its sync interval, and waits for
+   * the refresh to finish. Meant for background work, so the request ranks below requests the user
+   * is waiting on. The refreshed data is published on the type's own stream, so an open list of
+   * the type shows it.
+   * @param dataType the type of SpaceData to sync
+   * @throws RateLimitedException if the request was held back to leave quota for the user
+   * @throws IOException if the data could not be fetched
+   * @throws InterruptedException if the thread was interrupted while waiting for the fetch, which
+   *                              is then cancelled
+   */
+  public void syncSpaceData(@NonNull SpaceData.DataType dataType)
+      throws IOException, InterruptedException {
+    SpaceDataStore.Snapshot snapshot = getSnapshot(dataType);
+    if (!SyncSchedule.isDue(snapshot, System.currentTimeMillis())) return;
+    Future<List<SpaceData>> fetch =
+        refreshIfStale(dataType, snapshot, true, RateLimitScheduler.Priority.BACKGROUND,
+            spaceData -> post(liveSpaceData.get(dataType), spaceData));
+    try {
+      fetch.get();
+    } catch (InterruptedException e) {
+      fetch.cancel(true);
+      throw e;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) throw (IOException) cause;
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * Publishes the merged timeline of the current space data of every type.
    */
-  public LiveData<List<SpaceData>> getSpaceData() {
-    if (liveSpaceData == null) {
-      liveSpaceData = new MutableLiveData<List<SpaceData>>();
+  private void postTimeline() {
+    List<List<SpaceData>> lists = new ArrayList<>();
+    for (SpaceData.DataType dataType : SpaceData.DataType.values()) {
+      SpaceDataStore.Snapshot snapshot = getSnapshot(dataType);
+      if (snapshot != null) lists.add(snapshot.spaceData);
     }
-    return liveSpaceData;
+    post(liveTimeline, SpaceDataLists.mergeNewestFirst(lists));
+  }
+
+  /**
+   * Publishes a list of space data to the observers of a stream, marking the time it was posted
+   * so its delivery to the main thread can be measured.
+   */
+  private void post(MutableLiveData<List<SpaceData>> stream, List<SpaceData> spaceData) {
+    PerfMetrics.markPosted();
+    stream.postValue(spaceData);
   }
 
   /**
-   * Asynchronously loads new space data from the API corresponding to the selected dataType.
-   * @param dataType the type of SpaceData to load from an API
+   * Fetches space data from the API if the snapshot is missing or older than the cache TTL. If the
+   * snapshot has events within the retained window, only the days since its newest event are
+   * requested and merged in. The request is conditional on the response having changed since the
+   * type was last fetched, and if it has not, the held list is kept and only its fetch time is
+   * updated. The validators are kept per type rather than per window, since the window moves with
+   * each refresh. Fetches of different windows of a type can overlap, so each merges into the
+   * snapshot held when it finishes, one at a time, rather than the one held when it started.
+   * @param dataType the type of SpaceData to fetch
+   * @param snapshot the snapshot currently held for the type, or null if there is none
+   * @param forceRefresh true to fetch even if the snapshot is still fresh
+   * @param priority whether the user is waiting on the fetch or it is background work
+   * @param callback receives the new list of space data if a fetch succeeds, or null
+   * @return future holding the result of the fetch, or null if no fetch was needed
    */
-  public void loadSpaceData(SpaceData.DataType dataType) {
-    new Thread(() -> {
-      // Update liveSpaceData from API
+  private Future<List<SpaceData>> refreshIfStale(SpaceData.DataType dataType,
+                                                 SpaceDataStore.Snapshot snapshot,
+                                                 boolean forceRefresh,
+                                                 RateLimitScheduler.Priority priority,
+                                                 FetchCoalescer.Callback<List<SpaceData>>
+                                                     callback) {
+    boolean stale = snapshot == null
+        || System.currentTimeMillis() - snapshot.fetchedAt >= cacheTtl;
+    if (!forceRefresh && !stale) return null;
+
+    // Only request the days since the newest held event, if that is within the window
+    long now = System.currentTimeMillis();
+    long oldestRetained = now - FetchKey.DEFAULT_WINDOW;
+    long newest = snapshot == null
+        ? EventTime.UNKNOWN
+        : SpaceDataLists.newestTime(snapshot.spaceData);
+    FetchKey key = newest == EventTime.UNKNOWN || newest < oldestRetained
+        ? new FetchKey(dataType)
+        : new FetchKey(dataType, EventTime.formatDate(newest), EventTime.formatDate(now));
+
+    // Join a fetch of the same data if one is in flight, raising it to USER priority if needed
+    return fetcher.fetch(key, priority, handle -> {
       try {
-        liveSpaceData.postValue(SpaceData.getApiData(dataType));
+        SpaceDataStore.Snapshot started = getSnapshot(dataType);
+        HttpValidators previous = started == null ? null : started.validators;
+        SpaceData.ApiResult result = SpaceData.fetchApiData(dataType, key.startDate, key.endDate,
+            handle.getPriority(), handle, previous);
+
+        List<SpaceData> spaceData;
+        List<SpaceData> newEvents;
+        synchronized (storeLocks.get(dataType)) {
+          SpaceDataStore.Snapshot current = getSnapshot(dataType);
+          if (result.isNotModified()) {
+            // Validators are only sent along with a snapshot, and a later one is at least as new
+            //noinspection ConstantConditions
+            touchSnapshot(dataType, current);
+            return current.spaceData;
+          }
+
+          // A whole window replaces the list, unless another fetch stored events meanwhile
+          spaceData = result.spaceData;
+          if (current != null && (key.startDate != null || current != started)) {
+            spaceData = SpaceDataLists.mergeById(current.spaceData, spaceData, oldestRetained);
+          }
+          storeSnapshot(dataType, spaceData, result.validators, handle);
+          newEvents = current == null
+              ? Collections.<SpaceData>emptyList()
+              : SpaceDataLists.newSince(current.spaceData, spaceData);
+        }
+        publishNewEvents(newEvents);
+        return spaceData;
+      } catch (FetchCanceledException e) {
+        throw e; // Nobody is waiting for it
       } catch (JSONException | IOException e) {
         e.printStackTrace();
+        publishError(handle, e.getMessage());
+        throw e;
       }
-    }).start();
+    }, callback);
+  }
+
+  /**
+   * Returns the stream of messages describing the latest failure of a fetch the user was waiting
+   * on, published by loads and page fetches as they fail. The message is held until clearError()
+   * is called, so a list that is recreated before showing it still does.
+   * @return the LiveData message of the latest failure, or null if there is none to show
+   */
+  public LiveData<String> getErrors() {
+    return liveErrors;
+  }
+
+  /**
+   * Clears the latest failure once it has been shown. Must be called on the main thread.
+   */
+  public void clearError() {
+    liveErrors.setValue(null);
+  }
+
+  /**
+   * Publishes the message of a failure if the user is waiting on the fetch it happened in. Failures
+   * of background work are left to be retried quietly.
+   */
+  private void publishError(FetchHandle handle, String message) {
+    if (handle.getPriority() == RateLimitScheduler.Priority.USER) liveErrors.postValue(message);
+  }
+
+  /**
+   * Publishes the events that arrived with a refresh and posts any alerts they cross.
+   */
+  private void publishNewEvents(List<SpaceData> newEvents) {
+    if (newEvents.isEmpty()) return;
+    liveNewEvents.postValue(Collections.unmodifiableList(newEvents));
+    alerts.onNewEvents(newEvents);
+  }
+
+  /**
+   * Returns how many requests for space data have been sent to the API.
+   * @return count of issued requests
+   */
+  public long getRequestsIssued() {
+    return fetcher.getRequestsIssued();
+  }
+
+  /**
+   * Returns how many loads were attached to an identical request already in flight instead of
+   * sending their own.
+   * @return count of coalesced requests
+   */
+  public long getRequestsCoalesced() {
+    return fetcher.getRequestsCoalesced();
+  }
+
+  /**
+   * Returns how many requests were aborted because every load waiting for them was cancelled.
+   * @return count of cancelled requests
+   */
+  public long getRequestsCanceled() {
+    return fetcher.getRequestsCanceled();
+  }
+
+  /**
+   * Returns the snapshot for a data type from memory, reading it from disk the first time.
+   */
+  private SpaceDataStore.Snapshot getSnapshot(SpaceData.DataType dataType) {
+    synchronized (snapshots) {
+      if (snapshots.containsKey(dataType)) return snapshots.get(dataType);
+    }
+    SpaceDataStore.Snapshot snapshot = store.read(dataType);
+    synchronized (snapshots) {
+      if (!snapshots.containsKey(dataType)) snapshots.put(dataType, snapshot);
+      return snapshots.get(dataType);
+    }
+  }
+
+  /**
+   * Marks the held snapshot of a data type as fetched now, after the API said it has not changed.
+   */
+  private void touchSnapshot(SpaceData.DataType dataType, SpaceDataStore.Snapshot current) {
+    long now = System.currentTimeMillis();
+    try {
+      store.touch(dataType, now);
+    } catch (IOException e) {
+      e.printStackTrace(); // Costs a refetch next session at worst
+    }
+    SpaceDataStore.Snapshot snapshot =
+        new SpaceDataStore.Snapshot(now, current.spaceData, current.validators);
+    synchronized (snapshots) {
+      snapshots.put(dataType, snapshot);
+    }
+  }
+
+  /**
+   * Writes the fetched space data of a type to disk and holds it in memory, reporting a failed
+   * write to the user if they are waiting on the fetch, since the data will not be there offline.
+   */
+  private void storeSnapshot(SpaceData.DataType dataType, List<SpaceData> spaceData,
+                             HttpValidators validators, FetchHandle handle) {
+    SpaceDataStore.Snapshot snapshot;
+    try {
+      snapshot = store.write(dataType, spaceData, System.currentTimeMillis(), validators);
+    } catch (IOException e) {
+      e.printStackTrace();
+      publishError(handle, "A problem occurred. The events could not be saved for viewing offline");
+      // Still avoid refetching for the rest of this session
+      snapshot = new SpaceDataStore.Snapshot(System.currentTimeMillis(), spaceData, validators);
+    }
+    synchronized (snapshots) {
+      snapshots.put(dataType, snapshot);
+    }
   }
 }
@@ -0,0 +1,71 @@
+package com.SpaceTrackGO;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refreshes the stored space data of every type in the background, so the event list opens with
+ * recent data already on the device. The work runs every hour while the device is online and its
+ * battery is not low, and each type is only fetched once its stored data is older than the
+ * interval its recent events call for, from SyncSchedule.
+ */
+public class SpaceDataSyncWorker extends Worker {
+  private static final String WORK_NAME = "space_data_sync";
+
+  public SpaceDataSyncWorker(@NonNull Context context, @NonNull WorkerParameters parameters) {
+    super(context, parameters);
+  }
+
+  /**
+   * Schedules the periodic sync, keeping the existing schedule if it is already scheduled.
+   * @param context any context, used to reach the WorkManager
+   */
+  public static void schedule(@NonNull Context context) {
+    Constraints constraints = new Constraints.Builder()
+        .setRequiredNetworkType(NetworkType.CONNECTED)
+        .setRequiresBatteryNotLow(true)
+        .build();
+    // Runs as often as the shortest sync interval, and skips types that are not due yet
+    PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(SpaceDataSyncWorker.class,
+        SyncSchedule.MIN_INTERVAL, TimeUnit.MILLISECONDS)
+        .setConstraints(constraints)
+        .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 5, TimeUnit.MINUTES)
+        .build();
+    WorkManager.getInstance(context).enqueueUniquePeriodicWork(WORK_NAME,
+        ExistingPeriodicWorkPolicy.KEEP, request);
+  }
+
+  @NonNull
+  @Override
+  public Result doWork() {
+    SpaceDataRepository repo = SpaceDataRepository.getInstance(getApplicationContext());
+    boolean failed = false;
+    for (SpaceData.DataType dataType : SpaceData.DataType.values()) {
+      if (isStopped()) break;
+      try {
+        repo.syncSpaceData(dataType);
+      } catch (RateLimitedException e) {
+        break; // The remaining quota is left for the user, so wait for the next run
+      } catch (IOException e) {
+        e.printStackTrace();
+        failed = true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return Result.retry();
+      }
+    }
+    return failed ? Result.retry() : Result.success();
+  }
+}
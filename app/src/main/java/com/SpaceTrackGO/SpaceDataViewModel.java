@@ -1,39 +1,269 @@
 package com.SpaceTrackGO;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Holds access to the list of SpaceData objects in a lifecycle conscious way, ensuring that
- * configuration changes do not impact the loading and storage of this data.
+ * configuration changes do not impact the loading and storage of this data. Each data type and the
+ * merged timeline have their own stream and their own load, and a load is cancelled when a newer
+ * load of the same stream replaces it or when the view model is cleared.
+ *
+ * <p>Events are turned into columns, paged and searched on a background thread, and only the
+ * finished views are posted to the main thread.
  */
 public class SpaceDataViewModel extends AndroidViewModel {
-  private SpaceDataRepository repo = SpaceDataRepository.getInstance();
+  private static final ExecutorService BACKGROUND_EXECUTOR = Executors.newSingleThreadExecutor(
+      runnable -> {
+        Thread thread = new Thread(runnable, "SpaceDataViewModel-background");
+        thread.setDaemon(true);
+        return thread;
+      });
 
-  private LiveData<List<SpaceData>> liveSpaceData;
+  private SpaceDataRepository repo;
+
+  private final Map<SpaceData.DataType, LiveData<EventView>> typeEvents =
+      new EnumMap<>(SpaceData.DataType.class);
+  private final Map<SpaceData.DataType, SpaceDataRepository.Load> typeLoads =
+      new EnumMap<>(SpaceData.DataType.class);
+  private LiveData<EventView> events;
+  private SpaceDataRepository.Load timelineLoad;
+  private MediatorLiveData<EventView> pagedEvents;
+  private HistoryPager pager;
+  private long newestVisibleTime = EventTime.UNKNOWN;
+  private long oldestVisibleTime = EventTime.UNKNOWN;
+  private final AtomicReference<long[]> visibleRange = new AtomicReference<>();
+  private MediatorLiveData<EventView> searchResults;
+  private EventView searchSource;
+  private String searchQuery = "";
+  private EventFilter filter = EventFilter.NONE;
+  private final AtomicInteger searchGeneration = new AtomicInteger();
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
   /**
-   * Constructs the SpaceDataViewModel and obtains a reference to the LiveData held in the
-   * SpaceDataRepository.
+   * Constructs the SpaceDataViewModel and obtains a reference to the SpaceDataRepository.
    * @param application global application state
    */
   public SpaceDataViewModel(@NonNull Application application) {
     super(application);
-    // Obtain LiveData reference
-    liveSpaceData = repo.getSpaceData();
+    repo = SpaceDataRepository.getInstance(application);
+  }
+
+  /**
+   * Returns the LiveData view of the latest merged timeline of every type held by the repository,
+   * stored as columns of events. This will be populated once loaded with load(null, ...).
+   * @return the LiveData view of the latest events of every type
+   */
+  public LiveData<EventView> getEvents() {
+    if (events == null) events = viewsOf(repo.getTimeline());
+    return events;
+  }
+
+  /**
+   * Returns the LiveData view of the latest space data of one type held by the repository, stored
+   * as columns of events. This will be populated once loaded with load().
+   * @param dataType the type of space data
+   * @return the LiveData view of the latest events of the type
+   */
+  public LiveData<EventView> getEvents(@NonNull SpaceData.DataType dataType) {
+    LiveData<EventView> stream = typeEvents.get(dataType);
+    if (stream == null) {
+      stream = viewsOf(repo.getSpaceData(dataType));
+      typeEvents.put(dataType, stream);
+    }
+    return stream;
+  }
+
+  /**
+   * Builds the columns of each list a stream publishes in the background, only adding the events
+   * the previous list did not hold. If several lists arrive while one is being built, only the
+   * newest of them is built next.
+   */
+  private static LiveData<EventView> viewsOf(@NonNull LiveData<List<SpaceData>> spaceData) {
+    MediatorLiveData<EventView> views = new MediatorLiveData<>();
+    AtomicReference<List<SpaceData>> latest = new AtomicReference<>();
+    EventViewBuilder builder = new EventViewBuilder(); // Only used on the background thread
+    views.addSource(spaceData, list -> {
+      if (list == null || latest.getAndSet(list) != null) return; // Already waiting to build
+      BACKGROUND_EXECUTOR.execute(
+          () -> views.postValue(builder.viewOf(latest.getAndSet(null))));
+    });
+    return views;
+  }
+
+  /**
+   * Returns the LiveData message of the latest fetch the user was waiting on that failed, which is
+   * held until clearError() is called once it has been shown.
+   * @return the LiveData message of the latest failure, or null if there is none to show
+   */
+  public LiveData<String> getErrors() {
+    return repo.getErrors();
+  }
+
+  /**
+   * Clears the latest failure once it has been shown. Must be called on the main thread.
+   */
+  public void clearError() {
+    repo.clearError();
+  }
+
+  /**
+   * Loads the space data of a type, or the timeline of every type, cancelling any earlier load of
+   * the same stream that is still fetching. A load that is not forced is skipped if the stream has
+   * been loaded already, as happens when the activity is recreated. Must be called on the main
+   * thread.
+   * @param dataType the type of space data to load, or null for the timeline of every type
+   * @param forceRefresh true to fetch from the API even if stored data is still recent
+   */
+  public void load(@Nullable SpaceData.DataType dataType, boolean forceRefresh) {
+    if (dataType == null) {
+      if (timelineLoad != null && !forceRefresh) return;
+      if (timelineLoad != null) timelineLoad.cancel();
+      timelineLoad = repo.loadAllSpaceData(forceRefresh);
+      return;
+    }
+    if (typeLoads.containsKey(dataType) && !forceRefresh) return;
+    SpaceDataRepository.Load previous = typeLoads.put(dataType,
+        repo.loadSpaceData(dataType, forceRefresh));
+    if (previous != null) previous.cancel();
+  }
+
+  /**
+   * Returns the LiveData view of the events of a type, starting with the recent list held by the
+   * repository and followed by older months that are paged in as the user scrolls with
+   * onVisibleRange().
+   * @param dataType the type of space data to page through
+   * @return the LiveData view of the events from the currently held pages
+   */
+  public LiveData<EventView> getPagedEvents(@NonNull SpaceData.DataType dataType) {
+    if (pagedEvents == null) {
+      pagedEvents = new MediatorLiveData<>();
+      pager = new HistoryPager(dataType, System.currentTimeMillis(), repo::loadWindow,
+          pagedEvents::postValue);
+      pagedEvents.addSource(repo.getSpaceData(dataType),
+          latest -> BACKGROUND_EXECUTOR.execute(() -> pager.setLatest(latest)));
+    }
+    return pagedEvents;
+  }
+
+  /**
+   * Tells the history pager which events are on screen, so it can load the months around them
+   * and drop months that are far away. The pager works on the background thread, since it waits
+   * for merges there and may rebuild its columns, and if several ranges arrive while one is
+   * waiting to be handled only the newest of them is. Must be called on the main thread.
+   * @param newestTime time of the most recent event on screen
+   * @param oldestTime time of the oldest event on screen
+   */
+  public void onVisibleRange(long newestTime, long oldestTime) {
+    if (pager == null) return;
+    if (newestTime == newestVisibleTime && oldestTime == oldestVisibleTime) return;
+    newestVisibleTime = newestTime;
+    oldestVisibleTime = oldestTime;
+    if (visibleRange.getAndSet(new long[] {newestTime, oldestTime}) != null) return;
+    HistoryPager shownPager = pager;
+    BACKGROUND_EXECUTOR.execute(() -> {
+      long[] range = visibleRange.getAndSet(null);
+      shownPager.onVisibleRange(range[0], range[1]);
+    });
+  }
+
+  /**
+   * Returns the LiveData view of the events from a source that pass the filter set with setFilter()
+   * and match the search query set with setSearchQuery(), or every event while neither is set.
+   * Filters and searches run on a background thread, and results of a filter or query that has
+   * since changed are dropped.
+   * @param events the LiveData view of the events to search, from getEvents() or getPagedEvents()
+   * @return the LiveData view of the matching events
+   */
+  public LiveData<EventView> getSearchResults(@NonNull LiveData<EventView> events) {
+    if (searchResults == null) {
+      searchResults = new MediatorLiveData<>();
+      searchResults.addSource(events, shown -> {
+        searchSource = shown;
+        search();
+      });
+    }
+    return searchResults;
+  }
+
+  /**
+   * Changes the search query, updating the search results. Must be called on the main thread.
+   * @param query the words to search for, or an empty query to show every event
+   */
+  public void setSearchQuery(@NonNull String query) {
+    String trimmed = query.trim();
+    if (trimmed.equals(searchQuery)) return;
+    searchQuery = trimmed;
+    search();
+  }
+
+  public String getSearchQuery() {
+    return searchQuery;
+  }
+
+  /**
+   * Changes which events are shown by time and magnitude, updating the search results. Age limits
+   * are measured from the time the filter is applied to each new view. Must be called on the main
+   * thread.
+   * @param newFilter the events to show, or EventFilter.NONE to show every event
+   */
+  public void setFilter(@NonNull EventFilter newFilter) {
+    if (newFilter.equals(filter)) return;
+    filter = newFilter;
+    search();
+  }
+
+  public EventFilter getFilter() {
+    return filter;
+  }
+
+  private void search() {
+    EventView source = searchSource;
+    if (source == null) return;
+    String query = searchQuery;
+    EventFilter shownFilter = filter.at(System.currentTimeMillis()); // Moves recent ranges on
+    int generation = searchGeneration.incrementAndGet();
+    if (query.isEmpty() && shownFilter.matchesEverything()) {
+      searchResults.setValue(source);
+      return;
+    }
+    BACKGROUND_EXECUTOR.execute(() -> {
+      if (generation != searchGeneration.get()) return; // Superseded while waiting to run
+      EventView results = source;
+      if (!shownFilter.matchesEverything()) {
+        int[] positions = new int[results.size()];
+        results = results.select(positions, results.query(shownFilter, positions));
+      }
+      if (!query.isEmpty()) results = results.search(query);
+      mainHandler.post(() -> {
+        if (generation == searchGeneration.get()) searchResults.setValue(results);
+      });
+    });
   }
 
   /**
-   * Returns the immutable LiveData list of SpaceData objects. This will be populated with items
-   * once data from an API has been collected with SpaceData.getApiData().
-   * @return the LiveData list of SpaceData objects
+   * Cancels the loads and page fetches nobody is waiting for once the activity is finished.
    */
-  public LiveData<List<SpaceData>> getSpaceData() {
-    return liveSpaceData;
+  @Override
+  protected void onCleared() {
+    if (timelineLoad != null) timelineLoad.cancel();
+    for (SpaceDataRepository.Load load : typeLoads.values()) load.cancel();
+    if (pager != null) pager.cancel();
+    searchGeneration.incrementAndGet(); // Drops any search still waiting to run
   }
 }
@@ -0,0 +1,33 @@
+package com.SpaceTrackGO;
+
+import android.app.Application;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sets up app-wide state when the app's process starts, before any activity is created.
+ */
+public class SpaceTrackGOApplication extends Application {
+  @Override
+  public void onCreate() {
+    super.onCreate();
+    // Before anything opens a connection, as the platform sizes its pool only once
+    UrlConnectionTransport.configureConnectionPool(
+        UrlConnectionTransport.DEFAULT_MAX_IDLE_CONNECTIONS);
+
+    // Performance instrumentation is only recorded in debug builds
+    PerfMetrics.setTracer(new AndroidTracer());
+    PerfMetrics.setEnabled(BuildConfig.DEBUG);
+
+    // Share requests between every configured API key, within each key's rate limit
+    List<String> apiKeys = new ArrayList<>();
+    for (String apiKey : BuildConfig.DONKI_API_KEYS.split(",")) {
+      if (!apiKey.trim().isEmpty()) apiKeys.add(apiKey.trim());
+    }
+    if (!apiKeys.isEmpty()) SpaceData.setRateLimitScheduler(new RateLimitScheduler(apiKeys));
+
+    // Keep stored space data fresh so the event list rarely has to wait on the network
+    SpaceDataSyncWorker.schedule(this);
+  }
+}
@@ -0,0 +1,134 @@
+package com.SpaceTrackGO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the work done on cached lists of space data: merging refreshes in, merging the types
+ * into one timeline, storing and reading lists on disk, formatting dates for display, and
+ * filtering, querying and searching the timeline once stored as columns. Each list holds 100 to 100,000
+ * events per type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CacheBenchmark {
+  // Number of events returned by a typical refresh of the days since the newest held event
+  private static final int DELTA_EVENTS = 8;
+
+  @Param({"100", "1000", "10000", "100000"})
+  public int events;
+
+  private List<SpaceData> flares;
+  private List<SpaceData> refreshedFlares;
+  private List<List<SpaceData>> allTypes;
+  private File directory;
+  private SpaceDataStore store;
+  private DateDisplayFormatter dateFormatter;
+  private EventView timeline;
+  private int[] positions;
+  private EventFilter strongEvents;
+
+  @Setup
+  public void setUp() throws IOException {
+    // A refresh returns events newer than the held list along with some it already holds
+    List<SpaceData> latest = DonkiPayloads.spaceData(SpaceData.DataType.FLR, events + DELTA_EVENTS);
+    flares = new ArrayList<>(latest.subList(DELTA_EVENTS, latest.size()));
+    refreshedFlares = new ArrayList<>(latest.subList(0, 2 * DELTA_EVENTS));
+    allTypes = Arrays.asList(
+        DonkiPayloads.spaceData(SpaceData.DataType.CME, events),
+        DonkiPayloads.spaceData(SpaceData.DataType.GST, events),
+        flares);
+
+    directory = Files.createTempDirectory("space-data-bench").toFile();
+    store = new SpaceDataStore(directory);
+    store.write(SpaceData.DataType.FLR, flares, System.currentTimeMillis());
+
+    DateFormat dateFormat = DateFormat.getDateInstance(DateFormat.SHORT, Locale.US);
+    dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+    dateFormatter = new DateDisplayFormatter(dateFormat);
+
+    timeline = EventColumns.viewOf(SpaceDataLists.mergeNewestFirst(allTypes));
+    positions = new int[timeline.size()];
+    long newest = timeline.size() > 0 ? timeline.epochMillis(0) : 0;
+    strongEvents = EventFilter.NONE.between(newest - TimeUnit.DAYS.toMillis(90), Long.MAX_VALUE)
+        .atLeast(SpaceData.DataType.GST, EventColumns.kpMagnitude(7))
+        .atLeast(SpaceData.DataType.FLR, EventColumns.flareMagnitude("X1.0"));
+    timeline.query(strongEvents, positions); // Builds the sorted indexes, done once per view
+  }
+
+  @TearDown
+  public void tearDown() {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+      }
+    }
+    //noinspection ResultOfMethodCallIgnored
+    directory.delete();
+  }
+
+  @Benchmark
+  public List<SpaceData> mergeRefresh() {
+    return SpaceDataLists.mergeById(flares, refreshedFlares, EventTime.UNKNOWN);
+  }
+
+  @Benchmark
+  public List<SpaceData> mergeTimeline() {
+    return SpaceDataLists.mergeNewestFirst(allTypes);
+  }
+
+  @Benchmark
+  public SpaceDataStore.Snapshot storeWrite() throws IOException {
+    return store.write(SpaceData.DataType.GST, flares, System.currentTimeMillis());
+  }
+
+  @Benchmark
+  public SpaceDataStore.Snapshot storeRead() {
+    return store.read(SpaceData.DataType.FLR);
+  }
+
+  @Benchmark
+  public void formatDates(Blackhole blackhole) {
+    for (SpaceData item : flares) {
+      blackhole.consume(dateFormatter.format(item.getEpochMillis()));
+    }
+  }
+
+  @Benchmark
+  public int filterTimeline() {
+    return timeline.filter(Long.MIN_VALUE, Long.MAX_VALUE, EventView.allTypes(),
+        EventColumns.flareMagnitude("M1.0"), positions);
+  }
+
+  @Benchmark
+  public int queryTimeline() {
+    return timeline.query(strongEvents, positions);
+  }
+
+  @Benchmark
+  public int searchTimeline() {
+    return timeline.search("class m2", positions);
+  }
+}
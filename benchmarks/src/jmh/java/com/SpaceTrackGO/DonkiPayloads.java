@@ -0,0 +1,168 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Builds synthetic DONKI API responses shaped like the real ones, including the nested fields the
+ * parser has to skip over. Payloads are deterministic for a given type and size so that results
+ * can be compared between runs.
+ */
+final class DonkiPayloads {
+  // Newest event in every payload
+  private static final long NEWEST = EventTime.parse("2022-03-31T12:00Z");
+  // Time between events, close to the real rate of flares in an active month
+  private static final long SPACING = 3 * 60 * 60 * 1000L;
+  private static final String[] FLARE_CLASSES = {"C1.2", "C5.8", "M1.0", "M2.4", "X1.3"};
+
+  private DonkiPayloads() {}
+
+  /**
+   * Builds the UTF-8 body of an API response holding a number of events of a type, oldest first as
+   * the API returns them.
+   * @param dataType type of the events
+   * @param events number of events
+   * @return the response body
+   */
+  static byte[] body(@NonNull SpaceData.DataType dataType, int events) {
+    StringBuilder json = new StringBuilder(events * 600).append('[');
+    for (int i = 0; i < events; i++) {
+      if (i > 0) json.append(",\n");
+      long time = NEWEST - (long) (events - 1 - i) * SPACING;
+      // Derive each event from its time, so payloads of different sizes agree on shared events
+      int serial = (int) (time / SPACING);
+      Random random = new Random(serial * 31L + dataType.ordinal());
+      switch (dataType) {
+        case CME:
+          appendCme(json, time, serial, random);
+          break;
+        case GST:
+          appendGst(json, time, serial, random);
+          break;
+        case FLR:
+          appendFlr(json, time, serial, random);
+          break;
+        case IPS:
+          appendIps(json, time, serial, random);
+          break;
+        default:
+          throw new IllegalArgumentException("No synthetic payload for " + dataType);
+      }
+    }
+    return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Parses the space data of a synthetic response, for benchmarks that start from parsed lists.
+   * @return the space data, newest first as SpaceData.getApiData() returns it
+   */
+  static List<SpaceData> spaceData(@NonNull SpaceData.DataType dataType, int events) {
+    try {
+      List<SpaceData> spaceData = SpaceData.formSpaceData(dataType, new InputStreamReader(
+          new ByteArrayInputStream(body(dataType, events)), StandardCharsets.UTF_8));
+      Collections.reverse(spaceData);
+      return spaceData;
+    } catch (JSONException | IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static final String[] SHOCK_LOCATIONS = {"Earth", "STEREO A", "STEREO B"};
+
+  private static String timestamp(long time) {
+    long minutes = Math.floorMod(time, EventTime.MILLIS_PER_DAY) / 60_000;
+    return String.format(Locale.US, "%sT%02d:%02dZ", EventTime.formatDate(time), minutes / 60,
+        minutes % 60);
+  }
+
+  private static String id(long time, String type, int serial) {
+    return timestamp(time).replace("Z", String.format(Locale.US, ":00-%s-%03d", type, serial % 1000));
+  }
+
+  private static void appendLink(StringBuilder json, String type, int serial) {
+    json.append(", \"link\": \"https://webtools.ccmc.gsfc.nasa.gov/DONKI/view/").append(type)
+        .append('/').append(serial).append("/-1\"");
+  }
+
+  private static void appendCme(StringBuilder json, long time, int serial, Random random) {
+    json.append("{\"activityID\": \"").append(id(time, "CME", serial))
+        .append("\", \"catalog\": \"M2M_CATALOG\", \"startTime\": \"").append(timestamp(time))
+        .append("\", \"sourceLocation\": \"S").append(random.nextInt(40)).append('W')
+        .append(random.nextInt(90)).append("\", \"activeRegionNum\": ")
+        .append(random.nextBoolean() ? "null" : String.valueOf(12900 + random.nextInt(100)))
+        .append(", \"note\": \"CME seen to the ").append(random.nextBoolean() ? "SW" : "NE")
+        .append(" in SOHO LASCO C2/C3 and STEREO A COR2. \\\"Faint\\\" leading edge, speed")
+        .append(" estimated at ").append(300 + random.nextInt(900)).append(" km/s.\"")
+        .append(", \"instruments\": [{\"displayName\": \"SOHO: LASCO/C2\"},")
+        .append(" {\"displayName\": \"SOHO: LASCO/C3\"},")
+        .append(" {\"displayName\": \"STEREO A: SECCHI/COR2\"}]")
+        .append(", \"cmeAnalyses\": [");
+    int analyses = 1 + random.nextInt(3);
+    for (int a = 0; a < analyses; a++) {
+      if (a > 0) json.append(", ");
+      json.append("{\"time21_5\": \"").append(timestamp(time + 4 * 60 * 60 * 1000L))
+          .append("\", \"latitude\": ").append(random.nextInt(60) - 30).append(".0")
+          .append(", \"longitude\": ").append(random.nextInt(180) - 90).append(".0")
+          .append(", \"halfAngle\": ").append(10 + random.nextInt(40)).append(".0")
+          .append(", \"speed\": ").append(300 + random.nextInt(900)).append(".0")
+          .append(", \"type\": \"S\", \"isMostAccurate\": ").append(a == analyses - 1)
+          .append(", \"note\": \"\", \"levelOfData\": 0, \"enlilList\": null}");
+    }
+    json.append("], \"linkedEvents\": null");
+    appendLink(json, "CME", serial);
+    json.append('}');
+  }
+
+  private static void appendGst(StringBuilder json, long time, int serial, Random random) {
+    json.append("{\"gstID\": \"").append(id(time, "GST", serial))
+        .append("\", \"startTime\": \"").append(timestamp(time)).append("\", \"allKpIndex\": [");
+    int readings = random.nextInt(5);
+    for (int r = 0; r < readings; r++) {
+      if (r > 0) json.append(", ");
+      json.append("{\"observedTime\": \"").append(timestamp(time + r * SPACING))
+          .append("\", \"kpIndex\": ").append(5 + random.nextInt(4)).append('.')
+          .append(random.nextInt(3) * 33).append(", \"source\": \"NOAA\"}");
+    }
+    json.append("], \"linkedEvents\": [{\"activityID\": \"").append(id(time - SPACING, "CME", serial))
+        .append("\"}]");
+    appendLink(json, "GST", serial);
+    json.append('}');
+  }
+
+  private static void appendFlr(StringBuilder json, long time, int serial, Random random) {
+    json.append("{\"flrID\": \"").append(id(time, "FLR", serial))
+        .append("\", \"instruments\": [{\"displayName\": \"GOES-P: EXIS 1.0-8.0\"}]")
+        .append(", \"beginTime\": \"").append(timestamp(time))
+        .append("\", \"peakTime\": \"").append(timestamp(time + 15 * 60 * 1000L))
+        .append("\", \"endTime\": null, \"classType\": \"")
+        .append(FLARE_CLASSES[random.nextInt(FLARE_CLASSES.length)])
+        .append("\", \"sourceLocation\": \"N").append(random.nextInt(40)).append('E')
+        .append(random.nextInt(90)).append("\", \"activeRegionNum\": ")
+        .append(12900 + random.nextInt(100)).append(", \"linkedEvents\": null");
+    appendLink(json, "FLR", serial);
+    json.append('}');
+  }
+
+  private static void appendIps(StringBuilder json, long time, int serial, Random random) {
+    json.append("{\"catalog\": \"M2M_CATALOG\", \"activityID\": \"").append(id(time, "IPS", serial))
+        .append("\", \"location\": \"")
+        .append(SHOCK_LOCATIONS[random.nextInt(SHOCK_LOCATIONS.length)])
+        .append("\", \"eventTime\": \"").append(timestamp(time))
+        .append("\", \"instruments\": [{\"displayName\": \"ACE: SWEPAM\"},")
+        .append(" {\"displayName\": \"DSCOVR: PLASMAG\"}]")
+        .append(", \"linkedEvents\": [{\"activityID\": \"")
+        .append(id(time - SPACING, "CME", serial)).append("\"}]");
+    appendLink(json, "IPS", serial);
+    json.append('}');
+  }
+}
@@ -0,0 +1,46 @@
+package com.SpaceTrackGO;
+
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing a whole API response body into space data, including decoding UTF-8, for each
+ * data type over responses of 100 to 100,000 events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParseBenchmark {
+  @Param({"CME", "GST", "FLR", "IPS"})
+  public SpaceData.DataType dataType;
+
+  @Param({"100", "1000", "10000", "100000"})
+  public int events;
+
+  private byte[] body;
+
+  @Setup
+  public void setUp() {
+    body = DonkiPayloads.body(dataType, events);
+  }
+
+  @Benchmark
+  public List<SpaceData> formSpaceData() throws JSONException, IOException {
+    return SpaceData.formSpaceData(dataType,
+        new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,33 @@
+package com.SpaceTrackGO;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thrown instead of sending a request to an API endpoint whose recent requests have kept failing,
+ * so the caller falls back to stored data straight away rather than waiting on an API that is
+ * down.
+ */
+public class ApiUnavailableException extends IOException {
+  private static final long serialVersionUID = 1L;
+
+  private final long retryAfterMillis;
+
+  /**
+   * Constructs the exception with how long until requests to the endpoint are tried again.
+   * @param retryAfterMillis milliseconds until a request will be sent again
+   */
+  public ApiUnavailableException(long retryAfterMillis) {
+    super("The API is not responding. Try again in "
+        + Math.max(1, TimeUnit.MILLISECONDS.toMinutes(retryAfterMillis + 59_999)) + " minutes");
+    this.retryAfterMillis = retryAfterMillis;
+  }
+
+  /**
+   * Returns how long until requests to the endpoint are tried again.
+   * @return milliseconds until a request will be sent again
+   */
+  public long getRetryAfterMillis() {
+    return retryAfterMillis;
+  }
+}
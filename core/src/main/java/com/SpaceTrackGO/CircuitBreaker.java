@@ -0,0 +1,78 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Stops requests to an endpoint that keeps failing, so callers fall back to stored data straight
+ * away instead of waiting on an API that is down. After FAILURE_THRESHOLD failures in a row the
+ * breaker opens and refuses requests for a cool-down. Then one trial request is let through: if
+ * it succeeds the breaker closes, and if it fails the breaker opens again for twice as long, up
+ * to 32 times the first cool-down. Thread-safe.
+ */
+final class CircuitBreaker {
+  static final int FAILURE_THRESHOLD = 5;
+  private static final int MAX_COOL_DOWN_DOUBLINGS = 5;
+
+  private final RateLimitScheduler.Clock clock;
+  private final long baseCoolDown;
+  private int failures = 0; // Failures in a row, guarded by this
+  private int openings = 0; // Openings in a row without a success, guarded by this
+  private long openUntil = 0; // Guarded by this
+  private boolean trialInFlight = false; // Guarded by this
+
+  /**
+   * Constructs the CircuitBreaker.
+   * @param clock supplies the current time
+   * @param baseCoolDown milliseconds the breaker first stays open for
+   */
+  CircuitBreaker(@NonNull RateLimitScheduler.Clock clock, long baseCoolDown) {
+    this.clock = clock;
+    this.baseCoolDown = baseCoolDown;
+  }
+
+  /**
+   * Asks to send a request. Once a cool-down has passed only one trial request is allowed until
+   * its outcome is reported.
+   * @throws ApiUnavailableException if the breaker is open
+   */
+  synchronized void acquire() throws ApiUnavailableException {
+    if (failures < FAILURE_THRESHOLD) return;
+    long now = clock.currentTimeMillis();
+    if (now < openUntil) throw new ApiUnavailableException(openUntil - now);
+    if (trialInFlight) throw new ApiUnavailableException(baseCoolDown);
+    trialInFlight = true;
+  }
+
+  /**
+   * Reports that a request succeeded, closing the breaker.
+   */
+  synchronized void onSuccess() {
+    failures = 0;
+    openings = 0;
+    trialInFlight = false;
+  }
+
+  /**
+   * Reports that a request failed, opening the breaker if enough have failed in a row.
+   */
+  synchronized void onFailure() {
+    trialInFlight = false;
+    failures = Math.min(failures + 1, FAILURE_THRESHOLD);
+    if (failures < FAILURE_THRESHOLD) return;
+    openUntil = clock.currentTimeMillis()
+        + (baseCoolDown << Math.min(openings, MAX_COOL_DOWN_DOUBLINGS));
+    openings++;
+  }
+
+  /**
+   * Reports that a request ended without showing whether the endpoint works, for example because
+   * it was cancelled, so another trial can be sent.
+   */
+  synchronized void onAbandoned() {
+    trialInFlight = false;
+  }
+
+  synchronized boolean isOpen() {
+    return failures >= FAILURE_THRESHOLD && clock.currentTimeMillis() < openUntil;
+  }
+}
@@ -0,0 +1,52 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Formats event times for display with a locale specific date format, remembering recently
+ * formatted days so that showing the same day again allocates nothing. Events show their UTC
+ * calendar date, as the API reports them, whatever the device's time zone. It is safe to share
+ * between threads.
+ */
+public final class DateDisplayFormatter {
+  private static final int CACHE_SIZE = 64; // Must be a power of two
+
+  private final DateFormat dateFormat;
+  private final long[] cachedDays = new long[CACHE_SIZE];
+  private final String[] cachedText = new String[CACHE_SIZE];
+
+  /**
+   * Constructs the DateDisplayFormatter around a date format, which must only show the date. The
+   * format is switched to UTC, since formats such as Android's DateFormat.getDateFormat() use the
+   * device's time zone and would show the day before for events early in the UTC day west of it.
+   * @param dateFormat format used to produce display strings, owned by this formatter from now on
+   */
+  public DateDisplayFormatter(@NonNull DateFormat dateFormat) {
+    dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+    this.dateFormat = dateFormat;
+  }
+
+  /**
+   * Returns the display date for an event time.
+   * @param epochMillis time of the event in milliseconds since the epoch, or EventTime.UNKNOWN
+   * @return the formatted date, or an empty string if the time is unknown
+   */
+  @NonNull
+  public synchronized String format(long epochMillis) {
+    if (epochMillis == EventTime.UNKNOWN) return "";
+
+    long day = EventTime.floorDiv(epochMillis, EventTime.MILLIS_PER_DAY);
+    int slot = (int) (day & (CACHE_SIZE - 1));
+    String text = cachedText[slot];
+    if (text == null || cachedDays[slot] != day) {
+      text = dateFormat.format(new Date(epochMillis));
+      cachedDays[slot] = day;
+      cachedText[slot] = text;
+    }
+    return text;
+  }
+}
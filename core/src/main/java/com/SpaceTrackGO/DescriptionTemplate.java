@@ -0,0 +1,139 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents the descriptions shown for space events, each made from fixed text and at most one
+ * parameter such as a Kp-index or flare class. Space data holds the template and its parameter
+ * rather than the full text, and the text for each parameter is rendered once and shared.
+ */
+enum DescriptionTemplate {
+  /**
+   * The note written for a coronal mass ejection, shown as it is.
+   */
+  NOTE(null) {
+    @Override
+    String render(String parameter) {
+      return parameter;
+    }
+  },
+  /**
+   * The highest Kp-index measured during a geomagnetic storm.
+   */
+  KP_INDEX("The current highest measured Kp-index is %s." + Text.KP_EXPLANATION),
+  /**
+   * A geomagnetic storm with no Kp-index measurements yet. Takes an empty parameter.
+   */
+  NO_KP_INDEX("There are no current measurements of the Kp index available."
+      + Text.KP_EXPLANATION),
+  /**
+   * The size class of a solar flare, such as M2.4.
+   */
+  FLARE_CLASS("Solar flare class: %s. The letter, one of A, B, C, M, or X, represents the"
+      + " solar flare's size class, where A is the smallest and"
+      + " X is the largest. This is appended with a number"
+      + " from 1 to 10 which more precisely represents its size."),
+  // Templates below were added with the remaining DONKI endpoints. Stored space data refers to
+  // templates by ordinal, so new templates are only ever added at the end.
+  /**
+   * A solar energetic particle event. Takes an empty parameter.
+   */
+  SOLAR_ENERGETIC_PARTICLES("A solar energetic particle event was detected. Protons and"
+      + " electrons accelerated by a flare or coronal mass ejection reached near-Earth space,"
+      + " where they can harm astronauts and satellites and disrupt radio at high latitudes."),
+  /**
+   * An interplanetary shock, with the spacecraft or planet it was detected at.
+   */
+  SHOCK_LOCATION("An interplanetary shock was detected at %s." + Text.SHOCK_EXPLANATION),
+  /**
+   * An interplanetary shock with no location given. Takes an empty parameter.
+   */
+  NO_SHOCK_LOCATION("An interplanetary shock was detected." + Text.SHOCK_EXPLANATION),
+  /**
+   * A high speed solar wind stream. Takes an empty parameter.
+   */
+  HIGH_SPEED_STREAM("A high speed stream of solar wind, flowing from a coronal hole, reached"
+      + " near-Earth space. These streams can cause minor to moderate geomagnetic storms."),
+  /**
+   * A radiation belt enhancement. Takes an empty parameter.
+   */
+  RADIATION_BELT_ENHANCEMENT("The number of energetic electrons in Earth's outer radiation belt"
+      + " rose sharply. These electrons can build up charge in satellites and damage them."),
+  /**
+   * A magnetopause crossing. Takes an empty parameter.
+   */
+  MAGNETOPAUSE_CROSSING("The magnetopause, the outer boundary of Earth's magnetic field, was"
+      + " pushed inside geosynchronous orbit, leaving satellites there exposed to the solar"
+      + " wind."),
+  /**
+   * A completed WSA-Enlil model run. Takes an empty parameter.
+   */
+  WSA_ENLIL_SIMULATION("A WSA-Enlil simulation was completed. It models how the solar wind and"
+      + " any coronal mass ejections travel out from the Sun, to forecast when they will arrive"
+      + " at Earth and other spacecraft.");
+
+  // Parameters beyond this many per template are neither shared nor have their text cached
+  private static final int MAX_CACHED = 1024;
+
+  private final String format;
+  private final ConcurrentHashMap<String, String> parameters = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, String> rendered = new ConcurrentHashMap<>();
+
+  DescriptionTemplate(String format) {
+    this.format = format;
+  }
+
+  /**
+   * Renders the description text for a parameter, reusing the text from earlier calls with the
+   * same parameter.
+   * @param parameter the value to fill into the template
+   * @return the description text
+   */
+  String render(@NonNull String parameter) {
+    String text = rendered.get(parameter);
+    if (text == null) {
+      // Only the parameter is substituted, so plain replacement matches String.format
+      int at = format.indexOf("%s");
+      text = at < 0
+          ? format
+          : format.substring(0, at) + parameter + format.substring(at + 2);
+      if (rendered.size() < MAX_CACHED) {
+        String existing = rendered.putIfAbsent(parameter, text);
+        if (existing != null) text = existing;
+      }
+    }
+    return text;
+  }
+
+  /**
+   * Returns a shared instance of a parameter that is equal to the one given, so that the many
+   * events with the same Kp-index or flare class do not each hold a copy of it.
+   * @param parameter the value parsed for an event
+   * @return an equal parameter, shared between events where possible
+   */
+  String share(@NonNull String parameter) {
+    if (format == null) return parameter; // Notes are unique to their event
+    String shared = parameters.get(parameter);
+    if (shared != null) return shared;
+    if (parameters.size() >= MAX_CACHED) return parameter;
+    shared = parameters.putIfAbsent(parameter, parameter);
+    return shared == null ? parameter : shared;
+  }
+
+  /**
+   * Holds text shared by several templates, which enum constants cannot refer to as fields of
+   * their own class.
+   */
+  private static final class Text {
+    static final String KP_EXPLANATION = " The Kp-index measures how"
+        + " much the geomagnetic storm is disturbing"
+        + " the horizontal part of the Earth's magnetic field."
+        + " It ranges from 1, for low solar wind activity,"
+        + " to 5, for a geomagnetic storm, to 9, for an intense one.";
+    static final String SHOCK_EXPLANATION = " Shocks are driven through the solar wind by"
+        + " coronal mass ejections and fast streams, and can set off geomagnetic storms when"
+        + " they reach Earth.";
+  }
+}
@@ -0,0 +1,254 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores space events column by column in primitive arrays, with strings kept once in a shared
+ * pool and referred to by index. Large histories take far less memory this way than as SpaceData
+ * objects, and filters run over the arrays without allocating. Rows are only ever appended, so a
+ * row number stays valid and its values never change; views of the rows can be read from any
+ * thread while more are appended. Descriptions, IDs and active regions can be searched by word
+ * through a search index that each row is added to as it is appended.
+ */
+public final class EventColumns {
+  /**
+   * Stored for events that have no Kp-index or flare class.
+   */
+  public static final short NO_MAGNITUDE = -1;
+
+  private long[] epochMillis;
+  private long[] stableIds;
+  private byte[] types;
+  private short[] magnitudes;
+  private byte[] templates;
+  private int[] idRefs;
+  private int[] timeRefs;
+  private int[] parameterRefs;
+  private int[] linkRefs;
+  private int[] activeRegions;
+  private int size = 0;
+  private final StringPool pool = new StringPool();
+  private final SearchIndex searchIndex = new SearchIndex();
+
+  /**
+   * Constructs empty EventColumns.
+   */
+  public EventColumns() {
+    allocate(64);
+  }
+
+  private void allocate(int capacity) {
+    epochMillis = copyOf(epochMillis, new long[capacity]);
+    stableIds = copyOf(stableIds, new long[capacity]);
+    types = copyOf(types, new byte[capacity]);
+    magnitudes = copyOf(magnitudes, new short[capacity]);
+    templates = copyOf(templates, new byte[capacity]);
+    idRefs = copyOf(idRefs, new int[capacity]);
+    timeRefs = copyOf(timeRefs, new int[capacity]);
+    parameterRefs = copyOf(parameterRefs, new int[capacity]);
+    linkRefs = copyOf(linkRefs, new int[capacity]);
+    activeRegions = copyOf(activeRegions, new int[capacity]);
+  }
+
+  private <T> T copyOf(T from, T to) {
+    if (from != null) System.arraycopy(from, 0, to, 0, size);
+    return to;
+  }
+
+  /**
+   * Builds a view holding every item of a list, in the same order.
+   * @param spaceData the list of space data
+   * @return a view of the items
+   */
+  @NonNull
+  public static EventView viewOf(@NonNull List<SpaceData> spaceData) {
+    EventColumns columns = new EventColumns();
+    return columns.view(columns.appendAll(spaceData));
+  }
+
+  /**
+   * Returns the number of rows stored, including those no view refers to any more.
+   * @return the number of rows
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Appends a space data item as a new row.
+   * @param item the space data to store
+   * @return the row number of the item
+   */
+  public synchronized int append(@NonNull SpaceData item) {
+    return append(item.getEpochMillis(), stableIdOf(item.getId()), item.getDataType(),
+        magnitudeOf(item), item.getDescriptionTemplate(), item.getId(), item.getDateAndTime(),
+        item.getDescriptionParameter(), item.getLink(), item.getActiveRegion());
+  }
+
+  /**
+   * Appends each item of a list as a new row.
+   * @param spaceData the list of space data to store
+   * @return the row numbers of the items, in the same order as the list
+   */
+  @NonNull
+  public synchronized int[] appendAll(@NonNull List<SpaceData> spaceData) {
+    int[] rows = new int[spaceData.size()];
+    for (int i = 0; i < rows.length; i++) rows[i] = append(spaceData.get(i));
+    return rows;
+  }
+
+  /**
+   * Stores a list that replaces an earlier one, such as a refreshed or merged list, reusing the
+   * rows of the items it shares with the earlier list and only appending and indexing the rest.
+   * @param spaceData the list of space data to store
+   * @param heldRows the rows of the items of the earlier list, by item, all of which must be rows
+   *                 of these columns. It is replaced with the rows of the items of this list.
+   * @return the row numbers of the items, in the same order as the list
+   */
+  @NonNull
+  public synchronized int[] appendChanged(@NonNull List<SpaceData> spaceData,
+                                          @NonNull Map<SpaceData, Integer> heldRows) {
+    Map<SpaceData, Integer> rowsByItem = new HashMap<>(spaceData.size() * 2);
+    int[] rows = new int[spaceData.size()];
+    for (int i = 0; i < rows.length; i++) {
+      SpaceData item = spaceData.get(i);
+      Integer row = heldRows.get(item);
+      rows[i] = row != null ? row : append(item);
+      rowsByItem.put(item, rows[i]);
+    }
+    heldRows.clear();
+    heldRows.putAll(rowsByItem);
+    return rows;
+  }
+
+  /**
+   * Appends every event of a view as new rows, for example to move the events still in use into
+   * new columns and let the old ones be collected.
+   * @param view the events to copy
+   * @return the row numbers of the events, in the same order as the view
+   */
+  @NonNull
+  public synchronized int[] appendAll(@NonNull EventView view) {
+    int[] rows = new int[view.size()];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = append(view.epochMillis(i), view.stableId(i), view.dataType(i),
+          view.magnitude(i), view.descriptionTemplate(i), view.id(i), view.dateAndTime(i),
+          view.descriptionParameter(i), view.link(i), view.activeRegion(i));
+    }
+    return rows;
+  }
+
+  private int append(long time, long stableId, SpaceData.DataType dataType, short magnitude,
+                     DescriptionTemplate template, String id, String dateAndTime,
+                     String parameter, String link, int activeRegion) {
+    if (size == epochMillis.length) allocate(size * 2);
+    epochMillis[size] = time;
+    stableIds[size] = stableId;
+    types[size] = (byte) dataType.ordinal();
+    magnitudes[size] = magnitude;
+    templates[size] = (byte) template.ordinal();
+    idRefs[size] = pool.intern(id);
+    timeRefs[size] = pool.intern(dateAndTime);
+    parameterRefs[size] = pool.intern(parameter);
+    linkRefs[size] = pool.intern(link);
+    activeRegions[size] = activeRegion;
+    searchIndex.add(template, parameter, parameterRefs[size], id, activeRegion);
+    return size++;
+  }
+
+  /**
+   * Creates a view of some of the rows, in the order given. The view keeps the arrays as they
+   * are now, so it is unaffected by rows appended later.
+   * @param rows the row numbers to include, which the view takes ownership of
+   * @return the view of the rows
+   */
+  @NonNull
+  public synchronized EventView view(@NonNull int[] rows) {
+    for (int row : rows) {
+      if (row < 0 || row >= size) throw new IndexOutOfBoundsException("No row " + row);
+    }
+    return new EventView(this, rows, epochMillis, stableIds, types, magnitudes, templates, idRefs,
+        timeRefs, parameterRefs, linkRefs, activeRegions, pool.strings());
+  }
+
+  /**
+   * Finds which of some rows match a search query.
+   * @param query the words to search for, where every word must begin a word of a row's
+   *              description or ID
+   * @param rows the rows to check
+   * @param out receives the positions in rows of the matching rows, in order, and must have room
+   *            for every row
+   * @return the number of positions written to out
+   */
+  synchronized int search(@NonNull String query, @NonNull int[] rows, @NonNull int[] out) {
+    return searchIndex.search(query, rows, out);
+  }
+
+  /**
+   * Returns the magnitude stored for a space event, which orders events of the same type by
+   * strength. A Kp-index is stored as tenths, so Kp 7 is 70. A flare class is stored as the class
+   * letter's rank (A, B, C, M, X from 0 to 4) times 1000 plus tenths of its number, so M2.4 is
+   * 3024 and X28 is 4280.
+   * @param item the space data
+   * @return the magnitude, or NO_MAGNITUDE if the event has none
+   */
+  public static short magnitudeOf(@NonNull SpaceData item) {
+    int kpIndex = item.getKpIndex();
+    if (kpIndex >= 0) return kpMagnitude(kpIndex);
+    String flareClass = item.getFlareClass();
+    return flareClass == null ? NO_MAGNITUDE : flareMagnitude(flareClass);
+  }
+
+  /**
+   * Converts a Kp-index to a magnitude, as described for magnitudeOf().
+   * @param kpIndex the Kp-index, which is not negative
+   * @return the magnitude
+   */
+  public static short kpMagnitude(int kpIndex) {
+    return (short) Math.min(kpIndex * 10, Short.MAX_VALUE);
+  }
+
+  /**
+   * Converts a flare class such as "M2.4" to a magnitude, as described for magnitudeOf().
+   * @param flareClass the flare class
+   * @return the magnitude, or NO_MAGNITUDE if the class is not recognised
+   */
+  public static short flareMagnitude(@NonNull String flareClass) {
+    if (flareClass.isEmpty()) return NO_MAGNITUDE;
+    int rank = "ABCMX".indexOf(Character.toUpperCase(flareClass.charAt(0)));
+    if (rank < 0) return NO_MAGNITUDE;
+    int whole = 0;
+    int tenth = 0;
+    int i = 1;
+    for (; i < flareClass.length() && Character.isDigit(flareClass.charAt(i)); i++) {
+      whole = Math.min(whole * 10 + (flareClass.charAt(i) - '0'), 99);
+    }
+    if (i < flareClass.length() && flareClass.charAt(i) == '.') {
+      i++;
+      if (i < flareClass.length() && Character.isDigit(flareClass.charAt(i))) {
+        tenth = flareClass.charAt(i) - '0'; // Only tenths are kept
+      }
+      while (i < flareClass.length() && Character.isDigit(flareClass.charAt(i))) i++;
+    }
+    if (i != flareClass.length()) return NO_MAGNITUDE;
+    int tenths = whole * 10 + tenth;
+    return (short) (rank * 1000 + Math.min(tenths, 999));
+  }
+
+  /**
+   * Returns a 64-bit hash of an API ID, used as the item ID of a list row so it stays the same
+   * wherever the event is stored.
+   */
+  static long stableIdOf(@NonNull String id) {
+    long hash = 0xcbf29ce484222325L; // FNV-1a
+    for (int i = 0; i < id.length(); i++) {
+      hash ^= id.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+}
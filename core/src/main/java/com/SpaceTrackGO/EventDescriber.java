@@ -0,0 +1,131 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Builds the description of an event from the one field of its JSON object that varies between
+ * events of its type, such as the class of a solar flare, or from fixed text if the type has no
+ * such field. Each data type declares its describer in its registry entry, so the parse loop
+ * shared by every type reads the field without knowing which type it is parsing.
+ */
+abstract class EventDescriber {
+  /**
+   * Describes storms by the highest Kp-index among their measurements.
+   */
+  static final EventDescriber KP_INDEX = new EventDescriber("allKpIndex") {
+    @Override
+    String readDetail(@NonNull JsonPullReader reader) throws IOException {
+      if (reader.peek() == JsonPullReader.Token.NULL) {
+        reader.nextNull();
+        return null;
+      }
+      int maxKpIndex = maxKpIndex(reader);
+      return maxKpIndex >= 0 ? String.valueOf(maxKpIndex) : null;
+    }
+
+    @Override
+    DescriptionTemplate templateFor(@Nullable String detail) {
+      return detail == null ? DescriptionTemplate.NO_KP_INDEX : DescriptionTemplate.KP_INDEX;
+    }
+  };
+
+  /**
+   * Name of the field the description is built from, or null if the description is fixed.
+   */
+  @Nullable final String detailField;
+
+  private EventDescriber(@Nullable String detailField) {
+    this.detailField = detailField;
+  }
+
+  /**
+   * Returns a describer that gives every event of a type the same description.
+   * @param template the template of the description, which takes no parameter
+   * @return the describer
+   */
+  static EventDescriber fixed(@NonNull final DescriptionTemplate template) {
+    return new EventDescriber(null) {
+      @Override
+      DescriptionTemplate templateFor(@Nullable String detail) {
+        return template;
+      }
+    };
+  }
+
+  /**
+   * Returns a describer that fills the string value of a field into a template.
+   * @param field name of the field
+   * @param template the template of the description when the field has a value
+   * @param missing the template when the field is missing or null, which takes an empty
+   *                parameter, or null if events without the field are malformed
+   * @return the describer
+   */
+  static EventDescriber fromField(@NonNull final String field,
+                                  @NonNull final DescriptionTemplate template,
+                                  @Nullable final DescriptionTemplate missing) {
+    return new EventDescriber(field) {
+      @Override
+      DescriptionTemplate templateFor(@Nullable String detail) throws IOException {
+        if (detail != null) return template;
+        if (missing == null) {
+          throw new JsonPullReader.MalformedJsonException("Event is missing its " + field);
+        }
+        return missing;
+      }
+    };
+  }
+
+  /**
+   * Reads the value of the detail field, consuming it from the reader.
+   * @param reader JSON reader positioned at the value of the detail field
+   * @return the description parameter held by the field, or null if it has none
+   * @throws IOException if the value is not structured as expected from the API
+   */
+  @Nullable
+  String readDetail(@NonNull JsonPullReader reader) throws IOException {
+    return reader.nextStringOrNull();
+  }
+
+  /**
+   * Chooses the description template for an event.
+   * @param detail the value read from the detail field, or null if it was missing or had none
+   * @return the template, which the detail, or an empty string if there is none, is filled into
+   * @throws IOException if the event cannot be described without the detail
+   */
+  abstract DescriptionTemplate templateFor(@Nullable String detail) throws IOException;
+
+  /**
+   * Finds the maximum Kp-index of all measurements of a geomagnetic storm, consuming the JSON
+   * array of objects with kpIndex values from the reader.
+   * @param reader JSON reader positioned at the start of the allKpIndex array
+   * @return highest Kp-index value in the array or -1 if the array is empty
+   * @throws IOException throws if the array is not structured as expected from API
+   */
+  private static int maxKpIndex(JsonPullReader reader) throws IOException {
+    int maxKpIndex = 0;
+    int measurements = 0;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      Integer currentKpIndex = null;
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if (reader.nextName().equals("kpIndex")) {
+          currentKpIndex = reader.nextInt();
+        } else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
+      if (currentKpIndex == null) {
+        throw new JsonPullReader.MalformedJsonException("Kp-index measurement has no kpIndex");
+      }
+      maxKpIndex = Math.max(maxKpIndex, currentKpIndex);
+      measurements++;
+    }
+    reader.endArray();
+    return measurements > 0 ? maxKpIndex : -1;
+  }
+}
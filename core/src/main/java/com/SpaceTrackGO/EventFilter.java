@@ -0,0 +1,156 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Describes which events to show: those in a time range, and of each type, those at or above a
+ * minimum magnitude such as a Kp-index or flare class. A range relative to the current time, such
+ * as the last 90 days, is kept as an age and only turned into times by at(), so a filter that is
+ * applied again later moves with the clock. Filters never change once created; each method
+ * returns a new filter.
+ */
+public final class EventFilter {
+  /**
+   * The minimum magnitude of a type whose events are all excluded.
+   */
+  static final int EXCLUDED = Integer.MAX_VALUE;
+  private static final int TYPES = SpaceData.DataType.values().length;
+  // Stored as the maximum age of filters that do not limit the age of events
+  private static final long ANY_AGE = -1;
+
+  /**
+   * A filter that matches every event.
+   */
+  public static final EventFilter NONE = new EventFilter(Long.MIN_VALUE, Long.MAX_VALUE,
+      filled(EventColumns.NO_MAGNITUDE), false, ANY_AGE);
+
+  final long fromMillis;
+  final long toMillis;
+  private final int[] minMagnitudes; // Indexed by type ordinal
+  private final boolean restricted;
+  private final long maxAgeMillis;
+
+  private EventFilter(long fromMillis, long toMillis, int[] minMagnitudes, boolean restricted,
+                      long maxAgeMillis) {
+    this.fromMillis = fromMillis;
+    this.toMillis = toMillis;
+    this.minMagnitudes = minMagnitudes;
+    this.restricted = restricted;
+    this.maxAgeMillis = maxAgeMillis;
+  }
+
+  private static int[] filled(int minMagnitude) {
+    int[] minMagnitudes = new int[TYPES];
+    Arrays.fill(minMagnitudes, minMagnitude);
+    return minMagnitudes;
+  }
+
+  /**
+   * Returns a filter that also limits events to a time range.
+   * @param fromMillis earliest event time to include
+   * @param toMillis latest event time to include
+   * @return the new filter
+   */
+  @NonNull
+  public EventFilter between(long fromMillis, long toMillis) {
+    return new EventFilter(fromMillis, toMillis, minMagnitudes, restricted, maxAgeMillis);
+  }
+
+  /**
+   * Returns a filter that also limits events to those no older than an age at the time the filter
+   * is applied. The age only takes effect once the filter is resolved with at().
+   * @param maxAgeMillis the age of the oldest events to include, in milliseconds
+   * @return the new filter
+   */
+  @NonNull
+  public EventFilter withinLast(long maxAgeMillis) {
+    return new EventFilter(fromMillis, toMillis, minMagnitudes, restricted, maxAgeMillis);
+  }
+
+  /**
+   * Resolves the age limit set by withinLast() into a time range, for applying the filter now.
+   * @param nowMillis the current time in milliseconds since the epoch
+   * @return the filter with the age limit applied to its time range, or this filter if it has none
+   */
+  @NonNull
+  public EventFilter at(long nowMillis) {
+    if (maxAgeMillis == ANY_AGE) return this;
+    return new EventFilter(Math.max(fromMillis, nowMillis - maxAgeMillis), toMillis,
+        minMagnitudes, restricted, ANY_AGE);
+  }
+
+  /**
+   * Returns a filter that includes events of a type at or above a magnitude, as described by
+   * EventColumns.magnitudeOf(). The first type restricted this way excludes every type not also
+   * restricted, so restricting to Kp 7 and to X-class flares shows only those storms and flares.
+   * @param dataType the type of the events
+   * @param minMagnitude the smallest magnitude to include
+   * @return the new filter
+   */
+  @NonNull
+  public EventFilter atLeast(@NonNull SpaceData.DataType dataType, int minMagnitude) {
+    int[] newMinimums = restricted ? minMagnitudes.clone() : filled(EXCLUDED);
+    newMinimums[dataType.ordinal()] = minMagnitude;
+    return new EventFilter(fromMillis, toMillis, newMinimums, true, maxAgeMillis);
+  }
+
+  /**
+   * Returns the smallest magnitude included for a type.
+   * @param typeOrdinal ordinal of the data type
+   * @return the minimum magnitude, or EXCLUDED if no events of the type are included
+   */
+  int minMagnitude(int typeOrdinal) {
+    return minMagnitudes[typeOrdinal];
+  }
+
+  /**
+   * Checks whether an event passes the filter.
+   * @param epochMillis time of the event
+   * @param typeOrdinal ordinal of the event's data type
+   * @param magnitude magnitude of the event
+   * @return true if the event is included
+   */
+  boolean matches(long epochMillis, int typeOrdinal, int magnitude) {
+    return epochMillis >= fromMillis && epochMillis <= toMillis
+        && magnitude >= minMagnitudes[typeOrdinal];
+  }
+
+  /**
+   * Checks whether a single event passes the filter, for events that are not in a view, such as
+   * those that have just arrived.
+   * @param item the event
+   * @return true if the event is included
+   */
+  public boolean matches(@NonNull SpaceData item) {
+    return matches(item.getEpochMillis(), item.getDataType().ordinal(),
+        EventColumns.magnitudeOf(item));
+  }
+
+  /**
+   * Returns whether the filter includes every event, so applying it can be skipped.
+   * @return true if nothing is filtered out
+   */
+  public boolean matchesEverything() {
+    return equals(NONE);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof EventFilter)) return false;
+    EventFilter other = (EventFilter) o;
+    return fromMillis == other.fromMillis && toMillis == other.toMillis
+        && maxAgeMillis == other.maxAgeMillis
+        && Arrays.equals(minMagnitudes, other.minMagnitudes);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = (int) (fromMillis ^ (fromMillis >>> 32));
+    hash = 31 * hash + (int) (toMillis ^ (toMillis >>> 32));
+    hash = 31 * hash + (int) (maxAgeMillis ^ (maxAgeMillis >>> 32));
+    return 31 * hash + Arrays.hashCode(minMagnitudes);
+  }
+}
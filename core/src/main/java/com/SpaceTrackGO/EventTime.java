@@ -0,0 +1,128 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Converts the UTC timestamps used by the DONKI APIs, such as 2022-03-01T01:36Z, into
+ * milliseconds since the epoch. Parsing allocates nothing and is safe to use from any thread.
+ */
+public final class EventTime {
+  /**
+   * Value used for event times that are missing or could not be parsed.
+   */
+  public static final long UNKNOWN = Long.MIN_VALUE;
+
+  public static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+  private EventTime() {}
+
+  /**
+   * Parses a timestamp in the form yyyy-MM-ddTHH:mmZ, optionally with seconds and a fraction of a
+   * second, as a UTC time.
+   * @param text timestamp to parse
+   * @return milliseconds since the epoch or UNKNOWN if the timestamp is not in the expected form
+   */
+  public static long parse(@NonNull String text) {
+    int length = text.length();
+    if (length < 17
+        || text.charAt(4) != '-' || text.charAt(7) != '-'
+        || text.charAt(10) != 'T' || text.charAt(13) != ':') {
+      return UNKNOWN;
+    }
+    int year = digits(text, 0, 4);
+    int month = digits(text, 5, 2);
+    int day = digits(text, 8, 2);
+    int hour = digits(text, 11, 2);
+    int minute = digits(text, 14, 2);
+    int second = 0;
+    int millis = 0;
+
+    int i = 16;
+    if (text.charAt(i) == ':') {
+      if (i + 3 > length) return UNKNOWN;
+      second = digits(text, i + 1, 2);
+      i += 3;
+      if (i < length && text.charAt(i) == '.') {
+        i++;
+        int scale = 100;
+        while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+          millis += (text.charAt(i) - '0') * scale;
+          scale /= 10;
+          i++;
+        }
+      }
+    }
+    if (i != length - 1 || text.charAt(i) != 'Z') return UNKNOWN;
+
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+        || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60) {
+      return UNKNOWN;
+    }
+    long days = daysFromCivil(year, month, day);
+    return ((days * 24 + hour) * 60 + minute) * 60_000L + second * 1000L + millis;
+  }
+
+  /**
+   * Formats the UTC date of a time as yyyy-MM-dd, the form used for DONKI query windows.
+   * @param epochMillis time in milliseconds since the epoch
+   * @return the UTC date of the time
+   */
+  @NonNull
+  public static String formatDate(long epochMillis) {
+    long days = floorDiv(epochMillis, MILLIS_PER_DAY);
+    // Inverse of daysFromCivil
+    days += 719468;
+    long era = (days >= 0 ? days : days - 146096) / 146097;
+    int dayOfEra = (int) (days - era * 146097);
+    int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    int monthIndex = (5 * dayOfYear + 2) / 153;
+    int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+    int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+    long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+    char[] date = new char[10];
+    date[0] = (char) ('0' + year / 1000 % 10);
+    date[1] = (char) ('0' + year / 100 % 10);
+    date[2] = (char) ('0' + year / 10 % 10);
+    date[3] = (char) ('0' + year % 10);
+    date[4] = '-';
+    date[5] = (char) ('0' + month / 10);
+    date[6] = (char) ('0' + month % 10);
+    date[7] = '-';
+    date[8] = (char) ('0' + day / 10);
+    date[9] = (char) ('0' + day % 10);
+    return new String(date);
+  }
+
+  /**
+   * Returns the day number since the epoch for a date in the proleptic Gregorian calendar.
+   */
+  static long daysFromCivil(int year, int month, int day) {
+    year -= month <= 2 ? 1 : 0;
+    int era = (year >= 0 ? year : year - 399) / 400;
+    int yearOfEra = year - era * 400;
+    int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097L + dayOfEra - 719468;
+  }
+
+  /**
+   * Divides rounding towards negative infinity, for splitting times before the epoch into days.
+   */
+  static long floorDiv(long x, long y) {
+    long quotient = x / y;
+    if ((x % y != 0) && ((x ^ y) < 0)) quotient--;
+    return quotient;
+  }
+
+  private static int digits(String text, int start, int count) {
+    int value = 0;
+    for (int i = start; i < start + count; i++) {
+      char c = text.charAt(i);
+      if (c < '0' || c > '9') return -1;
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+}
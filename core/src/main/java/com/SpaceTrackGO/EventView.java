@@ -0,0 +1,396 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Presents a sequence of rows of EventColumns as a read-only list of events, reading each field
+ * straight from the columns rather than holding SpaceData objects. A view never changes once
+ * created and can be read from any thread.
+ *
+ * <p>For queries by EventFilter, a view keeps two sorted indexes of its positions, built the first
+ * time a query needs them: one by event time, and one by type and then magnitude. Each entry packs
+ * a sort key above the position in a single long, so the indexes are plain sorted long arrays and
+ * a range of times or magnitudes is found by binary search.
+ */
+public final class EventView {
+  private static final SpaceData.DataType[] DATA_TYPES = SpaceData.DataType.values();
+  private static final DescriptionTemplate[] TEMPLATES = DescriptionTemplate.values();
+  // Index entries hold the position in their low bits and the sort key above it
+  private static final int POSITION_BITS = 22;
+  private static final int MAX_INDEXED = 1 << POSITION_BITS;
+  private static final long MAX_SECONDS = (1L << (63 - POSITION_BITS)) - 1;
+
+  /**
+   * A view holding no events.
+   */
+  public static final EventView EMPTY = new EventColumns().view(new int[0]);
+
+  private final EventColumns columns;
+  private final int[] rows;
+  private final long[] epochMillis;
+  private final long[] stableIds;
+  private final byte[] types;
+  private final short[] magnitudes;
+  private final byte[] templates;
+  private final int[] idRefs;
+  private final int[] timeRefs;
+  private final int[] parameterRefs;
+  private final int[] linkRefs;
+  private final int[] activeRegions;
+  private final String[] strings;
+  private volatile long[] timeIndex;
+  private volatile long[] magnitudeIndex;
+
+  EventView(EventColumns columns, int[] rows, long[] epochMillis, long[] stableIds, byte[] types,
+            short[] magnitudes, byte[] templates, int[] idRefs, int[] timeRefs,
+            int[] parameterRefs, int[] linkRefs, int[] activeRegions, String[] strings) {
+    this.columns = columns;
+    this.rows = rows;
+    this.epochMillis = epochMillis;
+    this.stableIds = stableIds;
+    this.types = types;
+    this.magnitudes = magnitudes;
+    this.templates = templates;
+    this.idRefs = idRefs;
+    this.timeRefs = timeRefs;
+    this.parameterRefs = parameterRefs;
+    this.linkRefs = linkRefs;
+    this.activeRegions = activeRegions;
+    this.strings = strings;
+  }
+
+  /**
+   * Returns the bit that represents a data type in the type masks taken by filter().
+   * @param dataType the data type
+   * @return the mask bit of the type
+   */
+  public static int typeMask(@NonNull SpaceData.DataType dataType) {
+    return 1 << dataType.ordinal();
+  }
+
+  /**
+   * Returns a type mask that matches every data type.
+   * @return the mask of all types
+   */
+  public static int allTypes() {
+    return (1 << DATA_TYPES.length) - 1;
+  }
+
+  public int size() {
+    return rows.length;
+  }
+
+  public boolean isEmpty() {
+    return rows.length == 0;
+  }
+
+  public long epochMillis(int position) {
+    return epochMillis[rows[position]];
+  }
+
+  /**
+   * Returns an ID for the event at a position that is the same wherever the event is stored, for
+   * use as a RecyclerView item ID.
+   * @param position the position of the event in the view
+   * @return the stable ID of the event
+   */
+  public long stableId(int position) {
+    return stableIds[rows[position]];
+  }
+
+  public SpaceData.DataType dataType(int position) {
+    return DATA_TYPES[types[rows[position]]];
+  }
+
+  /**
+   * Returns the magnitude of the event at a position, as described by EventColumns.magnitudeOf().
+   * @param position the position of the event in the view
+   * @return the magnitude, or EventColumns.NO_MAGNITUDE if the event has none
+   */
+  public short magnitude(int position) {
+    return magnitudes[rows[position]];
+  }
+
+  public String id(int position) {
+    return strings[idRefs[rows[position]]];
+  }
+
+  public String dateAndTime(int position) {
+    return strings[timeRefs[rows[position]]];
+  }
+
+  /**
+   * Returns the description of the event at a position, rendered from its template.
+   * @param position the position of the event in the view
+   * @return the description text
+   */
+  public String description(int position) {
+    return descriptionTemplate(position).render(descriptionParameter(position));
+  }
+
+  DescriptionTemplate descriptionTemplate(int position) {
+    return TEMPLATES[templates[rows[position]]];
+  }
+
+  String descriptionParameter(int position) {
+    return strings[parameterRefs[rows[position]]];
+  }
+
+  @Nullable
+  public String link(int position) {
+    int ref = linkRefs[rows[position]];
+    return ref == StringPool.NONE ? null : strings[ref];
+  }
+
+  /**
+   * Returns the active region the event at a position came from.
+   * @param position the position of the event in the view
+   * @return the NOAA region number, or SpaceData.NO_ACTIVE_REGION
+   */
+  public int activeRegion(int position) {
+    return activeRegions[rows[position]];
+  }
+
+  /**
+   * Builds a SpaceData object for the event at a position, for the rare cases that need one such
+   * as sharing an item.
+   * @param position the position of the event in the view
+   * @return a new SpaceData object equal to the one the event was stored from
+   */
+  @NonNull
+  public SpaceData toSpaceData(int position) {
+    return new SpaceData(id(position), dataType(position), dateAndTime(position),
+        epochMillis(position), descriptionTemplate(position), descriptionParameter(position),
+        link(position), activeRegion(position));
+  }
+
+  /**
+   * Checks whether the event at a position shows the same content as an event in another view.
+   * @param position the position of the event in this view
+   * @param other the other view
+   * @param otherPosition the position of the event in the other view
+   * @return true if every field of the two events is equal
+   */
+  public boolean sameContents(int position, @NonNull EventView other, int otherPosition) {
+    if (epochMillis == other.epochMillis && rows[position] == other.rows[otherPosition]) {
+      return true; // Same row of the same columns
+    }
+    return stableId(position) == other.stableId(otherPosition)
+        && epochMillis(position) == other.epochMillis(otherPosition)
+        && dataType(position) == other.dataType(otherPosition)
+        && descriptionTemplate(position) == other.descriptionTemplate(otherPosition)
+        && id(position).equals(other.id(otherPosition))
+        && dateAndTime(position).equals(other.dateAndTime(otherPosition))
+        && descriptionParameter(position).equals(other.descriptionParameter(otherPosition))
+        && equal(link(position), other.link(otherPosition))
+        && activeRegion(position) == other.activeRegion(otherPosition);
+  }
+
+  private static boolean equal(Object a, Object b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  /**
+   * Finds the events that fall in a time range, are of one of the given types and are at least a
+   * given magnitude, scanning the columns without allocating.
+   * @param fromMillis earliest event time to include
+   * @param toMillis latest event time to include
+   * @param typeMask mask of the types to include, built from typeMask() or allTypes()
+   * @param minMagnitude smallest magnitude to include, or EventColumns.NO_MAGNITUDE for any
+   * @param out receives the positions of the matching events in order, and must have room for
+   *            size() positions
+   * @return the number of matching events written to out
+   */
+  public int filter(long fromMillis, long toMillis, int typeMask, int minMagnitude,
+                    @NonNull int[] out) {
+    int count = 0;
+    for (int position = 0; position < rows.length; position++) {
+      int row = rows[position];
+      long time = epochMillis[row];
+      if (time >= fromMillis && time <= toMillis
+          && (typeMask & (1 << types[row])) != 0
+          && magnitudes[row] >= minMagnitude) {
+        out[count++] = position;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Finds the events whose description, ID or active region contains a word beginning with each
+   * word of a query, ignoring case. Words are looked up in the search index of the columns, which
+   * is kept up to date as events are appended, rather than read from each event, so a search takes
+   * about as long as a scan by filter(). An active region is found by its number, such as 13664,
+   * or the number after AR, such as AR13664.
+   * @param query the words to search for, where an empty query matches every event
+   * @param out receives the positions of the matching events in order, and must have room for
+   *            size() positions
+   * @return the number of matching events written to out
+   */
+  public int search(@NonNull String query, @NonNull int[] out) {
+    return columns.search(query, rows, out);
+  }
+
+  /**
+   * Finds the events matching a query as described for search(String, int[]).
+   * @param query the words to search for
+   * @return a view of the matching events
+   */
+  @NonNull
+  public EventView search(@NonNull String query) {
+    int[] positions = new int[rows.length];
+    return select(positions, search(query, positions));
+  }
+
+  /**
+   * Finds the events that pass a filter, using binary searches of the view's sorted indexes to
+   * visit only the events in the filter's time range or only those of its types at or above their
+   * minimum magnitude, whichever are fewer. The first query of a view builds its indexes.
+   * @param filter the filter to apply
+   * @param out receives the positions of the matching events in order, and must have room for
+   *            size() positions
+   * @return the number of matching events written to out
+   */
+  public int query(@NonNull EventFilter filter, @NonNull int[] out) {
+    if (rows.length > MAX_INDEXED) return scan(filter, out);
+    long[] byTime = timeIndex();
+    long[] byMagnitude = magnitudeIndex();
+
+    int timeFrom = lowerBound(byTime, secondsOf(filter.fromMillis));
+    int timeTo = lowerBound(byTime, secondsOf(filter.toMillis) + 1);
+    int magnitudeCandidates = 0;
+    for (int type = 0; type < DATA_TYPES.length; type++) {
+      int minMagnitude = filter.minMagnitude(type);
+      if (minMagnitude == EventFilter.EXCLUDED) continue;
+      magnitudeCandidates += typeEnd(byMagnitude, type)
+          - lowerBound(byMagnitude, magnitudeKey(type, minMagnitude));
+    }
+
+    int count = 0;
+    if (timeTo - timeFrom <= magnitudeCandidates) {
+      count = collect(byTime, timeFrom, timeTo, filter, out, count);
+    } else {
+      for (int type = 0; type < DATA_TYPES.length; type++) {
+        int minMagnitude = filter.minMagnitude(type);
+        if (minMagnitude == EventFilter.EXCLUDED) continue;
+        count = collect(byMagnitude, lowerBound(byMagnitude, magnitudeKey(type, minMagnitude)),
+            typeEnd(byMagnitude, type), filter, out, count);
+      }
+    }
+    Arrays.sort(out, 0, count); // Back into the order of the view
+    return count;
+  }
+
+  /**
+   * Adds the positions of the entries in a range of an index that pass a filter to out.
+   */
+  private int collect(long[] index, int from, int to, EventFilter filter, int[] out, int count) {
+    for (int i = from; i < to; i++) {
+      int position = (int) (index[i] & (MAX_INDEXED - 1));
+      int row = rows[position];
+      if (filter.matches(epochMillis[row], types[row], magnitudes[row])) out[count++] = position;
+    }
+    return count;
+  }
+
+  /**
+   * Applies a filter by checking every event, for views too large to index.
+   */
+  private int scan(EventFilter filter, int[] out) {
+    int count = 0;
+    for (int position = 0; position < rows.length; position++) {
+      int row = rows[position];
+      if (filter.matches(epochMillis[row], types[row], magnitudes[row])) out[count++] = position;
+    }
+    return count;
+  }
+
+  private long[] timeIndex() {
+    long[] index = timeIndex;
+    if (index == null) {
+      index = new long[rows.length];
+      for (int position = 0; position < rows.length; position++) {
+        index[position] =
+            (secondsOf(epochMillis[rows[position]]) << POSITION_BITS) | position;
+      }
+      Arrays.sort(index);
+      timeIndex = index;
+    }
+    return index;
+  }
+
+  private long[] magnitudeIndex() {
+    long[] index = magnitudeIndex;
+    if (index == null) {
+      index = new long[rows.length];
+      for (int position = 0; position < rows.length; position++) {
+        int row = rows[position];
+        index[position] = (magnitudeKey(types[row], magnitudes[row]) << POSITION_BITS) | position;
+      }
+      Arrays.sort(index);
+      magnitudeIndex = index;
+    }
+    return index;
+  }
+
+  /**
+   * Converts an event time to the whole seconds it is sorted by in the time index. Times before
+   * the epoch, including unknown times, sort first. Event times are only given to the minute, so
+   * seconds keep them apart while leaving room for the position.
+   */
+  private static long secondsOf(long epochMillis) {
+    if (epochMillis <= 0) return 0;
+    return Math.min(epochMillis / 1000, MAX_SECONDS);
+  }
+
+  /**
+   * Returns the key an event is sorted by in the magnitude index, ordering by type and then by
+   * magnitude.
+   */
+  private static long magnitudeKey(int typeOrdinal, int magnitude) {
+    int clamped = Math.max(EventColumns.NO_MAGNITUDE, Math.min(magnitude, Short.MAX_VALUE - 1));
+    return ((long) typeOrdinal << 16) | (clamped + 1);
+  }
+
+  /**
+   * Returns the end of the entries of a type in the magnitude index.
+   */
+  private static int typeEnd(long[] byMagnitude, int typeOrdinal) {
+    return lowerBound(byMagnitude, magnitudeKey(typeOrdinal + 1, EventColumns.NO_MAGNITUDE));
+  }
+
+  /**
+   * Returns the first index of an index array whose sort key is at least a key.
+   */
+  private static int lowerBound(long[] index, long key) {
+    int low = 0;
+    int high = index.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if ((index[middle] >>> POSITION_BITS) < key) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Creates a view of some of the events of this view, for example those found by filter().
+   * @param positions positions of the events to include, in order
+   * @param count number of positions to use
+   * @return the new view
+   */
+  @NonNull
+  public EventView select(@NonNull int[] positions, int count) {
+    int[] selected = new int[count];
+    for (int i = 0; i < count; i++) selected[i] = rows[positions[i]];
+    return new EventView(columns, selected, epochMillis, stableIds, types, magnitudes, templates,
+        idRefs, timeRefs, parameterRefs, linkRefs, activeRegions, strings);
+  }
+
+}
@@ -0,0 +1,44 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the views of the successive lists a stream of space data publishes, keeping the columns
+ * and search index between them. Each list only appends and indexes the events that the list
+ * before it did not hold, which after a refresh or a merge is just the new and updated ones. Once
+ * most rows belong to events no longer held, the next list is built into new columns so the old
+ * ones can be collected. Used from one thread at a time.
+ */
+public final class EventViewBuilder {
+  // Start new columns once they hold this many more rows than the latest list uses
+  private static final int COMPACT_SLACK = 512;
+
+  private EventColumns columns = new EventColumns();
+  private final Map<SpaceData, Integer> heldRows = new HashMap<>();
+
+  /**
+   * Builds a view holding every item of a list, in the same order.
+   * @param spaceData the list of space data, which replaces the list of the previous view
+   * @return a view of the items
+   */
+  @NonNull
+  public EventView viewOf(@NonNull List<SpaceData> spaceData) {
+    if (columns.size() > heldRows.size() * 2 + COMPACT_SLACK) {
+      columns = new EventColumns(); // Views already published keep reading the old columns
+      heldRows.clear();
+    }
+    return columns.view(columns.appendChanged(spaceData, heldRows));
+  }
+
+  /**
+   * Returns the number of rows stored in the current columns.
+   * @return the number of rows
+   */
+  int rowsStored() {
+    return columns.size();
+  }
+}
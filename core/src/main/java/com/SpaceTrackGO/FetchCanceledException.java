@@ -0,0 +1,15 @@
+package com.SpaceTrackGO;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request to the API is abandoned because its FetchHandle was cancelled, so nobody
+ * is waiting for the result any more.
+ */
+public class FetchCanceledException extends IOException {
+  private static final long serialVersionUID = 1L;
+
+  public FetchCanceledException() {
+    super("Fetch canceled");
+  }
+}
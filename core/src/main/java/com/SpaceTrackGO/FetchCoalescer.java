@@ -0,0 +1,204 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs fetches on a shared executor while making sure only one fetch per key is in flight at a
+ * time. Callers asking for a key that is already being fetched are attached to the existing fetch
+ * instead of starting another one.
+ *
+ * <p>Each caller gets its own future, and cancelling it detaches only that caller. Once every
+ * caller has detached, the fetch is cancelled through its FetchHandle, aborting its request, and
+ * the next caller for the key starts a new fetch.
+ *
+ * <p>A fetch runs at the priority of the most urgent caller attached to it, so a caller the user
+ * is waiting on raises a background fetch it joins to USER priority through its FetchHandle.
+ * @param <K> type of the keys identifying fetches
+ * @param <V> type of the fetched result
+ */
+public class FetchCoalescer<K, V> {
+  /**
+   * Receives the result of a fetch once it has completed successfully.
+   * @param <V> type of the fetched result
+   */
+  public interface Callback<V> {
+    void onFetched(V result);
+  }
+
+  /**
+   * Performs a fetch, giving up once its handle is cancelled.
+   * @param <V> type of the fetched result
+   */
+  public interface Fetch<V> {
+    V fetch(@NonNull FetchHandle handle) throws Exception;
+  }
+
+  /**
+   * Holds a fetch that is in flight along with the callbacks of every caller attached to it.
+   */
+  private class InFlightFetch extends FutureTask<V> {
+    private final K key;
+    private final FetchHandle handle;
+    private final List<Callback<V>> callbacks = new ArrayList<>(1); // Guarded by inFlight
+    private int attachments = 0; // Guarded by inFlight
+
+    InFlightFetch(K key, FetchHandle handle, Callable<V> fetch) {
+      super(fetch);
+      this.key = key;
+      this.handle = handle;
+    }
+
+    @Override
+    protected void done() {
+      List<Callback<V>> attached;
+      synchronized (inFlight) {
+        if (inFlight.get(key) == this) inFlight.remove(key);
+        attached = new ArrayList<>(callbacks);
+      }
+      if (isCancelled() || attached.isEmpty()) return;
+      V result;
+      try {
+        result = get();
+      } catch (InterruptedException | ExecutionException e) {
+        return; // Failures are reported by the fetch itself
+      }
+      for (Callback<V> callback : attached) callback.onFetched(result);
+    }
+  }
+
+  /**
+   * Attaches one caller to a fetch. Cancelling it detaches the caller, and cancels the fetch if no
+   * other callers are attached.
+   */
+  private class Attachment implements Future<V> {
+    private final InFlightFetch task;
+    private final Callback<V> callback;
+    private boolean detached = false; // Guarded by inFlight
+
+    Attachment(InFlightFetch task, Callback<V> callback) {
+      this.task = task;
+      this.callback = callback;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      synchronized (inFlight) {
+        if (detached || task.isDone()) return false;
+        detached = true;
+        if (callback != null) task.callbacks.remove(callback);
+        if (--task.attachments > 0) return true;
+        if (inFlight.get(task.key) == task) inFlight.remove(task.key);
+      }
+      requestsCanceled.incrementAndGet();
+      task.handle.cancel();
+      task.cancel(false); // Never runs if still queued, and the handle stops it if running
+      return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      synchronized (inFlight) {
+        return detached || task.isCancelled();
+      }
+    }
+
+    @Override
+    public boolean isDone() {
+      return isCancelled() || task.isDone();
+    }
+
+    @Override
+    public V get() throws InterruptedException, ExecutionException {
+      return task.get();
+    }
+
+    @Override
+    public V get(long timeout, @NonNull TimeUnit unit)
+        throws InterruptedException, ExecutionException, TimeoutException {
+      return task.get(timeout, unit);
+    }
+  }
+
+  private final Executor executor;
+  private final Map<K, InFlightFetch> inFlight = new HashMap<>();
+  private final AtomicLong requestsIssued = new AtomicLong();
+  private final AtomicLong requestsCoalesced = new AtomicLong();
+  private final AtomicLong requestsCanceled = new AtomicLong();
+
+  /**
+   * Constructs the FetchCoalescer to run fetches on an executor.
+   * @param executor executor to run the fetches on
+   */
+  public FetchCoalescer(@NonNull Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Starts a fetch for a key, or attaches to the fetch for that key if one is in flight already.
+   * @param key identifies what is being fetched
+   * @param priority whether the user is waiting on the caller or it is background work
+   * @param fetch work to perform the fetch, only called if no fetch for the key is in flight
+   * @param callback called on the fetching thread with the result if the fetch succeeds while the
+   *                 caller is attached, or null
+   * @return future holding the result of the fetch the caller was attached to, which detaches the
+   *         caller when cancelled
+   */
+  public Future<V> fetch(@NonNull K key, @NonNull RateLimitScheduler.Priority priority,
+                         @NonNull Fetch<V> fetch, @Nullable Callback<V> callback) {
+    synchronized (inFlight) {
+      InFlightFetch task = inFlight.get(key);
+      if (task != null) {
+        requestsCoalesced.incrementAndGet();
+        task.handle.raisePriority(priority);
+      } else {
+        FetchHandle handle = new FetchHandle();
+        handle.raisePriority(priority);
+        task = new InFlightFetch(key, handle, () -> fetch.fetch(handle));
+        inFlight.put(key, task);
+        requestsIssued.incrementAndGet();
+        executor.execute(task);
+      }
+      if (callback != null) task.callbacks.add(callback);
+      task.attachments++;
+      return new Attachment(task, callback);
+    }
+  }
+
+  /**
+   * Returns how many fetches have actually been started.
+   * @return count of issued requests
+   */
+  public long getRequestsIssued() {
+    return requestsIssued.get();
+  }
+
+  /**
+   * Returns how many callers were attached to a fetch that was already in flight.
+   * @return count of coalesced requests
+   */
+  public long getRequestsCoalesced() {
+    return requestsCoalesced.get();
+  }
+
+  /**
+   * Returns how many fetches were cancelled because every caller attached to them detached.
+   * @return count of cancelled requests
+   */
+  public long getRequestsCanceled() {
+    return requestsCanceled.get();
+  }
+}
@@ -0,0 +1,143 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lets a fetch be abandoned from another thread. Cancelling the handle aborts the request it is
+ * sending, closing its connection, and the fetch stops at its next check instead of sending a
+ * request or parsing a response. A fetch that sends several requests, such as retries, gives each
+ * one a child handle, which is cancelled along with its parent but can also be cancelled alone.
+ *
+ * <p>The handle also carries the priority of the fetch. A background fetch that the user starts
+ * waiting on, for example because a load joined a prefetch, is raised to USER priority, and the
+ * fetch reads the priority again before each request it sends.
+ */
+public final class FetchHandle {
+  private volatile boolean canceled;
+  private HttpTransport.Call call; // Guarded by this
+  private final List<FetchHandle> children = new ArrayList<>(0); // Guarded by this
+  private volatile RateLimitScheduler.Priority priority = RateLimitScheduler.Priority.BACKGROUND;
+  private volatile long raisedAtNanos = 0;
+
+  /**
+   * Cancels the fetch, aborting its request if one is in flight.
+   */
+  public void cancel() {
+    HttpTransport.Call current;
+    List<FetchHandle> started;
+    synchronized (this) {
+      if (canceled) return;
+      canceled = true;
+      current = call;
+      call = null;
+      started = new ArrayList<>(children);
+      children.clear();
+      notifyAll(); // Wakes sleep()
+    }
+    if (current != null) current.cancel();
+    for (FetchHandle child : started) child.cancel();
+  }
+
+  public boolean isCanceled() {
+    return canceled;
+  }
+
+  /**
+   * Raises the priority of the fetch, along with every request it has started. A handle starts at
+   * BACKGROUND priority, and is never lowered.
+   * @param newPriority the priority of the caller now waiting on the fetch
+   */
+  public void raisePriority(@NonNull RateLimitScheduler.Priority newPriority) {
+    if (newPriority != RateLimitScheduler.Priority.USER) return;
+    List<FetchHandle> started;
+    synchronized (this) {
+      if (priority == RateLimitScheduler.Priority.USER) return;
+      raisedAtNanos = System.nanoTime();
+      priority = RateLimitScheduler.Priority.USER;
+      started = new ArrayList<>(children);
+    }
+    for (FetchHandle child : started) child.raisePriority(newPriority);
+  }
+
+  @NonNull
+  public RateLimitScheduler.Priority getPriority() {
+    return priority;
+  }
+
+  /**
+   * Returns when the fetch was raised to USER priority.
+   * @return the System.nanoTime() of the raise, only meaningful at USER priority
+   */
+  long getRaisedAtNanos() {
+    return raisedAtNanos;
+  }
+
+  /**
+   * Sets the call the fetch is about to execute, so cancelling the handle aborts it. A call
+   * attached after the handle was cancelled is cancelled straight away.
+   * @param newCall the call being made for the fetch
+   */
+  void attach(@NonNull HttpTransport.Call newCall) {
+    synchronized (this) {
+      if (!canceled) {
+        call = newCall;
+        return;
+      }
+    }
+    newCall.cancel();
+  }
+
+  /**
+   * Creates a handle for one request of the fetch, which has its priority and is cancelled and
+   * raised when this handle is.
+   * @return the child handle, already cancelled if this handle is
+   */
+  @NonNull
+  FetchHandle child() {
+    FetchHandle child = new FetchHandle();
+    synchronized (this) {
+      child.priority = priority;
+      child.raisedAtNanos = raisedAtNanos;
+      if (!canceled) {
+        children.add(child);
+        return child;
+      }
+    }
+    child.cancel();
+    return child;
+  }
+
+  /**
+   * Stops the fetch if the handle has been cancelled.
+   * @throws FetchCanceledException if the handle has been cancelled
+   */
+  void throwIfCanceled() throws FetchCanceledException {
+    if (canceled) throw new FetchCanceledException();
+  }
+
+  /**
+   * Waits before the fetch carries on, for example between retries, returning early if the handle
+   * is cancelled.
+   * @param millis how long to wait
+   * @throws FetchCanceledException if the handle is cancelled before or while waiting
+   * @throws InterruptedIOException if the thread is interrupted while waiting
+   */
+  synchronized void sleep(long millis) throws FetchCanceledException, InterruptedIOException {
+    long end = System.nanoTime() + millis * 1_000_000;
+    long remaining = millis;
+    try {
+      while (!canceled && remaining > 0) {
+        wait(remaining);
+        remaining = (end - System.nanoTime()) / 1_000_000;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to retry");
+    }
+    throwIfCanceled();
+  }
+}
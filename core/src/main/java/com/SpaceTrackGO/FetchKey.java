@@ -0,0 +1,69 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Identifies a request for space data by its data type and the date window it covers, so that
+ * identical requests can be recognised while one is already in flight.
+ */
+public final class FetchKey {
+  // Matches the window the DONKI APIs return when no dates are given
+  public static final long DEFAULT_WINDOW = TimeUnit.DAYS.toMillis(30);
+
+  public final SpaceData.DataType dataType;
+  @Nullable public final String startDate;
+  @Nullable public final String endDate;
+
+  /**
+   * Constructs a FetchKey for the API's default date window.
+   * @param dataType type of space data requested
+   */
+  public FetchKey(@NonNull SpaceData.DataType dataType) {
+    this(dataType, null, null);
+  }
+
+  /**
+   * Constructs a FetchKey for a date window.
+   * @param dataType type of space data requested
+   * @param startDate first day of the window in yyyy-MM-dd format, or null for the API default
+   * @param endDate last day of the window in yyyy-MM-dd format, or null for the API default
+   */
+  public FetchKey(@NonNull SpaceData.DataType dataType,
+                  @Nullable String startDate,
+                  @Nullable String endDate) {
+    this.dataType = dataType;
+    this.startDate = startDate;
+    this.endDate = endDate;
+  }
+
+  private static boolean equal(Object a, Object b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof FetchKey)) return false;
+    FetchKey other = (FetchKey) o;
+    return dataType == other.dataType
+        && equal(startDate, other.startDate)
+        && equal(endDate, other.endDate);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = dataType.hashCode();
+    result = 31 * result + (startDate == null ? 0 : startDate.hashCode());
+    result = 31 * result + (endDate == null ? 0 : endDate.hashCode());
+    return result;
+  }
+
+  @NonNull
+  @Override
+  public String toString() {
+    return dataType + "[" + startDate + ", " + endDate + "]";
+  }
+}
@@ -0,0 +1,332 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides how the requests for a fetch are sent, so that a slow or flapping API costs the user a
+ * bounded wait rather than a hung refresh or an immediate error.
+ *
+ * <p>Every fetch has a deadline, after which its requests are aborted. Requests that fail in a way
+ * that may not happen again, such as a dropped connection or a server error, are retried up to
+ * MAX_ATTEMPTS times with jittered exponential backoff, as long as the backoff ends before the
+ * deadline. While the user is waiting, a second, hedged request is sent if the first has not
+ * finished by the HEDGE_PERCENTILE latency of the endpoint's recent requests, and whichever
+ * finishes first is used. Each endpoint has a CircuitBreaker, so once it keeps failing fetches
+ * fail straight away and callers show stored data instead.
+ *
+ * <p>The priority is read from the fetch's FetchHandle, so a background fetch that is raised to
+ * USER priority while it runs is hedged from then on, has the user's deadline counted from the
+ * raise, and sends any further request as a user request.
+ */
+public final class FetchPolicy {
+  static final long DEFAULT_DEADLINE = TimeUnit.SECONDS.toMillis(20);
+  // Background fetches have nobody waiting, so they get longer before giving up
+  static final int BACKGROUND_DEADLINE_FACTOR = 3;
+  static final int MAX_ATTEMPTS = 3;
+  static final long BASE_BACKOFF = 500;
+  static final long MAX_BACKOFF = TimeUnit.SECONDS.toMillis(8);
+  static final double HEDGE_PERCENTILE = 95;
+  // Fewer samples than this say too little about the tail, so DEFAULT_HEDGE_DELAY is used
+  static final int MIN_HEDGE_SAMPLES = 20;
+  static final long DEFAULT_HEDGE_DELAY = TimeUnit.SECONDS.toMillis(3);
+  static final long MIN_HEDGE_DELAY = 250;
+  static final long BREAKER_COOL_DOWN = TimeUnit.MINUTES.toMillis(1);
+  // How often a background request checks whether the user has started waiting on it
+  static final long PRIORITY_CHECK_INTERVAL = 250;
+
+  /**
+   * Sends one request of a fetch.
+   * @param <T> type of the fetched result
+   */
+  public interface Attempt<T> {
+    /**
+     * Sends the request and reads its result.
+     * @param handle cancelled if the request is no longer needed, which must then be aborted
+     * @return the result of the request
+     * @throws IOException if the request failed
+     * @throws JSONException if the response could not be read
+     */
+    T run(@NonNull FetchHandle handle) throws IOException, JSONException;
+  }
+
+  /**
+   * Holds how one request ended.
+   */
+  private static final class Outcome<T> {
+    final T result;
+    final Exception error;
+
+    Outcome(T result, Exception error) {
+      this.result = result;
+      this.error = error;
+    }
+  }
+
+  private final long deadline;
+  private final long baseBackoff;
+  private final Random random;
+  private final Map<SpaceData.DataType, CircuitBreaker> breakers =
+      new EnumMap<>(SpaceData.DataType.class);
+  private final Map<SpaceData.DataType, PerfMetrics.Histogram> latencies =
+      new EnumMap<>(SpaceData.DataType.class);
+  private final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "FetchPolicy-request-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  });
+
+  /**
+   * Constructs the FetchPolicy with the default deadline, backoff and cool-down.
+   */
+  public FetchPolicy() {
+    this(DEFAULT_DEADLINE, BASE_BACKOFF, BREAKER_COOL_DOWN, System::currentTimeMillis,
+        new Random());
+  }
+
+  /**
+   * Constructs the FetchPolicy.
+   * @param deadline milliseconds a fetch the user is waiting on may take
+   * @param baseBackoff milliseconds to wait before the first retry, doubling for each after it
+   * @param coolDown milliseconds an endpoint's circuit breaker first stays open for
+   * @param clock supplies the current time to the circuit breakers
+   * @param random source of jitter for backoffs
+   */
+  FetchPolicy(long deadline, long baseBackoff, long coolDown,
+              @NonNull RateLimitScheduler.Clock clock, @NonNull Random random) {
+    this.deadline = deadline;
+    this.baseBackoff = baseBackoff;
+    this.random = random;
+    for (SpaceData.DataType dataType : SpaceData.DataType.values()) {
+      breakers.put(dataType, new CircuitBreaker(clock, coolDown));
+      latencies.put(dataType, new PerfMetrics.Histogram());
+    }
+  }
+
+  /**
+   * Performs a fetch from an endpoint, retrying and hedging its requests as described for the
+   * class.
+   * @param endpoint the data type whose endpoint is requested
+   * @param priority whether the user is waiting on the fetch or it is background work, which is
+   *                 not hedged so as not to spend quota on it
+   * @param handle cancels the fetch from another thread, or null if it cannot be cancelled
+   * @param attempt sends one request
+   * @param <T> type of the fetched result
+   * @return the result of the first request to succeed
+   * @throws ApiUnavailableException if the endpoint's circuit breaker is open
+   * @throws FetchCanceledException if the handle was cancelled
+   * @throws InterruptedIOException if the deadline passed before a request succeeded
+   * @throws IOException the error of the last request, if none succeeded
+   * @throws JSONException if a response could not be read
+   */
+  public <T> T execute(@NonNull SpaceData.DataType endpoint,
+                       @NonNull RateLimitScheduler.Priority priority,
+                       @Nullable FetchHandle handle,
+                       @NonNull Attempt<T> attempt) throws IOException, JSONException {
+    FetchHandle parent = handle != null ? handle : new FetchHandle();
+    parent.raisePriority(priority);
+    CircuitBreaker breaker = breakers.get(endpoint);
+    long startNanos = System.nanoTime();
+
+    for (int attempts = 1; ; attempts++) {
+      parent.throwIfCanceled();
+      breaker.acquire();
+      boolean sentByUser = parent.getPriority() == RateLimitScheduler.Priority.USER;
+      try {
+        T result = race(endpoint, attempt, parent, startNanos);
+        breaker.onSuccess();
+        return result;
+      } catch (IOException e) {
+        if (parent.isCanceled()) {
+          breaker.onAbandoned();
+          throw new FetchCanceledException();
+        }
+        if (e instanceof RateLimitedException && !sentByUser
+            && parent.getPriority() == RateLimitScheduler.Priority.USER) {
+          // Held back to leave the reserve, but the user is waiting on the fetch now
+          breaker.onAbandoned();
+          continue;
+        }
+        if (!isRetryable(e)) {
+          // The API answered, so the endpoint is up even though the request failed
+          if (e instanceof HttpStatusException) {
+            breaker.onSuccess();
+          } else {
+            breaker.onAbandoned();
+          }
+          throw e;
+        }
+        breaker.onFailure();
+        long backoff = backoff(attempts);
+        long remaining =
+            TimeUnit.NANOSECONDS.toMillis(deadlineAt(parent, startNanos) - System.nanoTime());
+        if (attempts >= MAX_ATTEMPTS || backoff >= remaining || breaker.isOpen()) throw e;
+        PerfMetrics.count(PerfMetrics.Counter.RETRIES, 1);
+        parent.sleep(backoff);
+      } catch (JSONException e) {
+        breaker.onAbandoned();
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Returns when a fetch started at a time must give up. Background fetches get longer, but once
+   * raised to USER priority the user's deadline applies from the raise.
+   */
+  private long deadlineAt(FetchHandle parent, long startNanos) {
+    long backgroundDeadline =
+        startNanos + TimeUnit.MILLISECONDS.toNanos(deadline * BACKGROUND_DEADLINE_FACTOR);
+    if (parent.getPriority() != RateLimitScheduler.Priority.USER) return backgroundDeadline;
+    long userWaitingSince = Math.max(startNanos, parent.getRaisedAtNanos());
+    return Math.min(backgroundDeadline,
+        userWaitingSince + TimeUnit.MILLISECONDS.toNanos(deadline));
+  }
+
+  /**
+   * Returns how long to wait after a number of attempts have failed, doubling each time, with
+   * equal jitter so that devices do not retry together.
+   */
+  private long backoff(int failedAttempts) {
+    long backoff = Math.min(MAX_BACKOFF, baseBackoff << Math.min(failedAttempts - 1, 16));
+    return backoff / 2 + (long) (random.nextDouble() * backoff / 2);
+  }
+
+  /**
+   * Returns whether a request that failed with an error might succeed if sent again.
+   */
+  private static boolean isRetryable(IOException e) {
+    if (e instanceof HttpStatusException) return ((HttpStatusException) e).isRetryable();
+    if (Thread.currentThread().isInterrupted()) return false;
+    return !(e instanceof RateLimitedException || e instanceof FetchCanceledException
+        || e instanceof ApiUnavailableException);
+  }
+
+  /**
+   * Sends a request and, if the user is waiting and it is slow, a second one, returning the result
+   * of whichever succeeds first and aborting the other.
+   */
+  private <T> T race(SpaceData.DataType endpoint, Attempt<T> attempt, FetchHandle parent,
+                     long startNanos) throws IOException, JSONException {
+    BlockingQueue<Outcome<T>> outcomes = new LinkedBlockingQueue<>();
+    List<FetchHandle> started = new ArrayList<>(2);
+    started.add(start(endpoint, attempt, parent, outcomes));
+    long raceStart = System.nanoTime();
+    int running = 1;
+    Exception failure = null;
+    try {
+      while (running > 0) {
+        long now = System.nanoTime();
+        long deadlineAt = deadlineAt(parent, startNanos);
+        boolean userWaiting = parent.getPriority() == RateLimitScheduler.Priority.USER;
+        long waitUntil = deadlineAt;
+        boolean canHedge = false;
+        if (userWaiting) {
+          long hedgeAt = Math.max(raceStart, parent.getRaisedAtNanos())
+              + hedgeDelayNanos(endpoint);
+          canHedge = started.size() == 1 && hedgeAt < deadlineAt;
+          if (canHedge) waitUntil = hedgeAt;
+        } else {
+          // Wake up now and then in case the user starts waiting on the request
+          waitUntil = Math.min(deadlineAt,
+              now + TimeUnit.MILLISECONDS.toNanos(PRIORITY_CHECK_INTERVAL));
+        }
+        Outcome<T> outcome = outcomes.poll(Math.max(0, waitUntil - now), TimeUnit.NANOSECONDS);
+        if (outcome == null) {
+          if (System.nanoTime() >= deadlineAt) {
+            throw new InterruptedIOException("Deadline exceeded");
+          }
+          if (!canHedge) continue;
+          PerfMetrics.count(PerfMetrics.Counter.HEDGES, 1);
+          started.add(start(endpoint, attempt, parent, outcomes));
+          running++;
+          continue;
+        }
+        running--;
+        if (outcome.error == null) return outcome.result;
+        failure = outcome.error; // Wait for the other request, if there is one
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the API");
+    } finally {
+      for (FetchHandle request : started) request.cancel();
+    }
+    if (failure instanceof JSONException) throw (JSONException) failure;
+    if (failure instanceof IOException) throw (IOException) failure;
+    throw new IOException(failure);
+  }
+
+  /**
+   * Sends a request in the background, recording how long it took if it succeeds.
+   */
+  private <T> FetchHandle start(SpaceData.DataType endpoint, Attempt<T> attempt,
+                                FetchHandle parent, BlockingQueue<Outcome<T>> outcomes) {
+    FetchHandle request = parent.child();
+    executor.execute(() -> {
+      long start = System.nanoTime();
+      try {
+        T result = attempt.run(request);
+        latencies.get(endpoint).record(System.nanoTime() - start);
+        outcomes.add(new Outcome<>(result, null));
+      } catch (Exception e) {
+        outcomes.add(new Outcome<>(null, e));
+      }
+    });
+    return request;
+  }
+
+  /**
+   * Returns how long to wait for a request to an endpoint before hedging it.
+   */
+  private long hedgeDelayNanos(SpaceData.DataType endpoint) {
+    PerfMetrics.Histogram latency = latencies.get(endpoint);
+    if (latency.getCount() < MIN_HEDGE_SAMPLES) {
+      return TimeUnit.MILLISECONDS.toNanos(DEFAULT_HEDGE_DELAY);
+    }
+    return Math.max(TimeUnit.MILLISECONDS.toNanos(MIN_HEDGE_DELAY),
+        latency.percentileNanos(HEDGE_PERCENTILE));
+  }
+
+  /**
+   * Returns the recorded latencies of successful requests to an endpoint.
+   * @param endpoint the data type whose endpoint is requested
+   * @return the histogram of request durations
+   */
+  @NonNull
+  PerfMetrics.Histogram latency(@NonNull SpaceData.DataType endpoint) {
+    return latencies.get(endpoint);
+  }
+
+  /**
+   * Returns whether fetches from an endpoint are currently failing straight away because it has
+   * kept failing.
+   * @param endpoint the data type whose endpoint is requested
+   * @return true if the endpoint's circuit breaker is open
+   */
+  public boolean isUnavailable(@NonNull SpaceData.DataType endpoint) {
+    return breakers.get(endpoint).isOpen();
+  }
+}
@@ -0,0 +1,320 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Pages back through the history of a type of space data in month-sized windows as the user
+ * scrolls. Page 0 is the recent list held by the repository, and each page after it covers the
+ * PAGE_DAYS days before the previous one. One page beyond those on screen is loaded ahead in each
+ * direction, and pages further away are dropped, so memory stays flat however far back the user
+ * scrolls. Pages are held as rows of EventColumns rather than as SpaceData objects, and a new
+ * recent list only appends the events that the one before it did not hold.
+ *
+ * <p>A page whose fetch fails is not requested again until a delay has passed, which doubles with
+ * each failure, and is given up on after MAX_PAGE_FAILURES failures, so scrolling past it does not
+ * send a request on every frame.
+ */
+public class HistoryPager {
+  static final int PAGE_DAYS = 30;
+  // Pages more than this many pages away from those on screen are dropped
+  private static final int RETAINED_DISTANCE = 2;
+  // Stop skipping over empty months after this many in a row
+  private static final int MAX_EMPTY_RUN = 12;
+  // Rebuild the columns once they hold this many more rows than the held pages use
+  private static final int COMPACT_SLACK = 512;
+  // Wait this long before requesting a page again after its first failure, doubling each time
+  static final long BASE_RETRY_DELAY = 5_000;
+  // Stop requesting a page once it has failed this many times in a row
+  static final int MAX_PAGE_FAILURES = 4;
+  // DONKI has no records before this day
+  private static final long HISTORY_START = EventTime.parse("2010-01-01T00:00Z");
+
+  /**
+   * Fetches the space data of a date window.
+   */
+  public interface PageLoader {
+    Future<List<SpaceData>> loadWindow(@NonNull FetchKey key,
+                                       @NonNull FetchCoalescer.Callback<List<SpaceData>> callback);
+  }
+
+  /**
+   * Receives the events from every page that is currently held, in order.
+   */
+  public interface Listener {
+    void onPagesChanged(@NonNull EventView events);
+  }
+
+  /**
+   * Counts the fetches of a page that failed in a row, and when it may be requested again.
+   */
+  private static final class PageFailure {
+    int count;
+    long retryAt;
+  }
+
+  private final SpaceData.DataType dataType;
+  private final long anchorDay; // First day of page 0
+  private final PageLoader loader;
+  private final Listener listener;
+  private final RateLimitScheduler.Clock clock;
+
+  private EventColumns columns = new EventColumns();
+  private final TreeMap<Integer, int[]> pages = new TreeMap<>(); // Rows of each held page
+  private final Map<SpaceData, Integer> latestRows = new HashMap<>(); // Rows of page 0, by item
+  private final TreeMap<Integer, Future<List<SpaceData>>> pending = new TreeMap<>();
+  private final TreeMap<Integer, PageFailure> failures = new TreeMap<>();
+  private int newestVisiblePage = 0;
+  private int oldestVisiblePage = 0;
+  private boolean pagesChanged = false;
+  private int publishedFirst = -1;
+  private int publishedLast = -1;
+
+  /**
+   * Constructs the HistoryPager for a data type, with page 0 covering the days up to the recent
+   * window used by the repository.
+   * @param dataType the type of space data to page through
+   * @param now current time in milliseconds since the epoch
+   * @param loader fetches the data of older pages
+   * @param listener receives the events of the held pages whenever they change
+   */
+  public HistoryPager(@NonNull SpaceData.DataType dataType,
+                      long now,
+                      @NonNull PageLoader loader,
+                      @NonNull Listener listener) {
+    this(dataType, now, loader, listener, System::currentTimeMillis);
+  }
+
+  HistoryPager(@NonNull SpaceData.DataType dataType,
+               long now,
+               @NonNull PageLoader loader,
+               @NonNull Listener listener,
+               @NonNull RateLimitScheduler.Clock clock) {
+    this.dataType = dataType;
+    this.anchorDay = EventTime.floorDiv(now - FetchKey.DEFAULT_WINDOW,
+        EventTime.MILLIS_PER_DAY);
+    this.loader = loader;
+    this.listener = listener;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the page that an event time falls into.
+   * @param epochMillis time of an event, or EventTime.UNKNOWN
+   * @return the page index, where 0 is the recent window
+   */
+  int pageOf(long epochMillis) {
+    if (epochMillis == EventTime.UNKNOWN) return 0;
+    long day = EventTime.floorDiv(epochMillis, EventTime.MILLIS_PER_DAY);
+    if (day >= anchorDay) return 0;
+    return (int) ((anchorDay - day - 1) / PAGE_DAYS) + 1;
+  }
+
+  private long pageStartDay(int page) {
+    return anchorDay - (long) page * PAGE_DAYS;
+  }
+
+  /**
+   * Replaces the recent list that forms page 0.
+   * @param latest the recent list of space data in reverse chronological order
+   */
+  public synchronized void setLatest(@NonNull List<SpaceData> latest) {
+    List<SpaceData> recent = new ArrayList<>(latest.size());
+    for (SpaceData item : latest) {
+      if (item.getDataType() == dataType && pageOf(item.getEpochMillis()) == 0) recent.add(item);
+    }
+    pages.put(0, columns.appendChanged(recent, latestRows));
+    pagesChanged = true;
+    update();
+  }
+
+  /**
+   * Tells the pager which events are on screen so that neighbouring pages can be loaded and
+   * distant ones dropped.
+   * @param newestVisibleTime time of the most recent event on screen
+   * @param oldestVisibleTime time of the oldest event on screen
+   */
+  public synchronized void onVisibleRange(long newestVisibleTime, long oldestVisibleTime) {
+    newestVisiblePage = pageOf(newestVisibleTime);
+    oldestVisiblePage = Math.max(newestVisiblePage, pageOf(oldestVisibleTime));
+    update();
+  }
+
+  /**
+   * Loads the page on each side of those visible, drops pages far from them and publishes the
+   * contiguous run of held pages around the visible ones.
+   */
+  private void update() {
+    int newestWanted = Math.max(0, newestVisiblePage - 1);
+    int oldestWanted = oldestVisiblePage + 1;
+    // Empty months hold nothing to scroll through, so look past them
+    int emptyRun = 0;
+    while (emptyRun < MAX_EMPTY_RUN && pages.containsKey(oldestWanted)
+        && pages.get(oldestWanted).length == 0) {
+      oldestWanted++;
+      emptyRun++;
+    }
+
+    for (int page = newestWanted; page <= oldestWanted; page++) {
+      requestPage(page);
+    }
+
+    // Drop pages that are far from the screen, apart from page 0 which the repository holds anyway
+    int newestRetained = Math.max(1, newestWanted - RETAINED_DISTANCE);
+    int oldestRetained = oldestWanted + RETAINED_DISTANCE;
+    int heldPages = pages.size();
+    pages.subMap(1, newestRetained).clear();
+    pages.tailMap(oldestRetained, false).clear();
+    if (pages.size() != heldPages) pagesChanged = true;
+    // Pages the user scrolls away from and back to are tried again
+    failures.subMap(1, newestRetained).clear();
+    failures.tailMap(oldestRetained, false).clear();
+    // Cancelling only detaches the pager, so fetches shared with other callers carry on
+    cancelAll(pending.subMap(1, newestRetained));
+    cancelAll(pending.tailMap(oldestRetained, false));
+
+    compactIfSparse();
+    publish();
+  }
+
+  /**
+   * Stops waiting for every page still loading, for when the pages are no longer shown.
+   */
+  public synchronized void cancel() {
+    cancelAll(pending);
+  }
+
+  private static void cancelAll(Map<Integer, Future<List<SpaceData>>> fetches) {
+    for (Future<List<SpaceData>> fetch : fetches.values()) fetch.cancel(true);
+    fetches.clear();
+  }
+
+  private void requestPage(int page) {
+    if (page == 0 || pages.containsKey(page)) return; // Page 0 comes from the repository
+    Future<List<SpaceData>> inFlight = pending.get(page);
+    if (inFlight != null) {
+      if (!inFlight.isDone() || succeeded(inFlight)) return; // Still loading or being delivered
+      pending.remove(page);
+      onPageFailed(page);
+    }
+    PageFailure failure = failures.get(page);
+    if (failure != null
+        && (failure.count >= MAX_PAGE_FAILURES || clock.currentTimeMillis() < failure.retryAt)) {
+      return;
+    }
+
+    long startDay = pageStartDay(page);
+    long endDay = startDay + PAGE_DAYS - 1;
+    if (endDay * EventTime.MILLIS_PER_DAY < HISTORY_START) return;
+
+    FetchKey key = new FetchKey(dataType,
+        EventTime.formatDate(startDay * EventTime.MILLIS_PER_DAY),
+        EventTime.formatDate(endDay * EventTime.MILLIS_PER_DAY));
+    pending.put(page, loader.loadWindow(key, spaceData -> onPageLoaded(page, spaceData)));
+  }
+
+  private synchronized void onPageLoaded(int page, List<SpaceData> spaceData) {
+    if (!pending.containsKey(page)) return; // Dropped while loading
+    pending.remove(page);
+    failures.remove(page);
+
+    // Windows are requested by day, so keep only events that belong to this page
+    List<SpaceData> pageData = new ArrayList<>(spaceData.size());
+    for (SpaceData item : spaceData) {
+      if (pageOf(item.getEpochMillis()) == page) pageData.add(item);
+    }
+    pages.put(page, columns.appendAll(pageData));
+    pagesChanged = true;
+    update();
+  }
+
+  /**
+   * Records that the fetch of a page failed, as found once it finished without the page being
+   * delivered, and when the page may be requested again.
+   */
+  private void onPageFailed(int page) {
+    PageFailure failure = failures.get(page);
+    if (failure == null) {
+      failure = new PageFailure();
+      failures.put(page, failure);
+    }
+    failure.count++;
+    failure.retryAt = clock.currentTimeMillis() + (BASE_RETRY_DELAY << (failure.count - 1));
+  }
+
+  private static boolean succeeded(Future<List<SpaceData>> fetch) {
+    if (fetch.isCancelled()) return false;
+    try {
+      fetch.get(); // Already done, so does not block
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (ExecutionException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Moves the rows of the held pages into new columns once most rows of the current columns belong
+   * to dropped or replaced pages, so the old columns can be collected. Published views keep
+   * reading the old columns until they are replaced.
+   */
+  private void compactIfSparse() {
+    int heldRows = 0;
+    for (int[] rows : pages.values()) heldRows += rows.length;
+    if (columns.size() <= heldRows * 2 + COMPACT_SLACK) return;
+
+    EventColumns compacted = new EventColumns();
+    for (Map.Entry<Integer, int[]> page : pages.entrySet()) {
+      page.setValue(compacted.appendAll(columns.view(page.getValue())));
+    }
+    columns = compacted;
+    latestRows.clear(); // The next recent list is stored in the new columns again
+    pagesChanged = true;
+  }
+
+  /**
+   * Publishes the held pages if they have changed since they were last published.
+   */
+  private void publish() {
+    if (!pages.containsKey(newestVisiblePage)) {
+      // The visible pages are not held yet, so start from whichever held page is closest
+      Integer closest = pages.ceilingKey(newestVisiblePage);
+      if (closest == null) closest = pages.floorKey(newestVisiblePage);
+      if (closest == null) {
+        if (publishedFirst != -1) listener.onPagesChanged(EventView.EMPTY);
+        publishedFirst = publishedLast = -1;
+        return;
+      }
+      newestVisiblePage = oldestVisiblePage = closest;
+    }
+
+    int first = newestVisiblePage;
+    while (pages.containsKey(first - 1)) first--;
+    int last = newestVisiblePage;
+    while (pages.containsKey(last + 1)) last++;
+    if (!pagesChanged && first == publishedFirst && last == publishedLast) return;
+    pagesChanged = false;
+    publishedFirst = first;
+    publishedLast = last;
+
+    int total = 0;
+    for (int page = first; page <= last; page++) total += pages.get(page).length;
+    int[] rows = new int[total];
+    int offset = 0;
+    for (int page = first; page <= last; page++) {
+      int[] pageRows = pages.get(page);
+      System.arraycopy(pageRows, 0, rows, offset, pageRows.length);
+      offset += pageRows.length;
+    }
+    listener.onPagesChanged(columns.view(rows));
+  }
+}
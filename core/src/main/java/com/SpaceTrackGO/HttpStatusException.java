@@ -0,0 +1,34 @@
+package com.SpaceTrackGO;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the API responds to a request with an unsuccessful HTTP status code.
+ */
+public class HttpStatusException extends IOException {
+  private static final long serialVersionUID = 1L;
+
+  private final int statusCode;
+
+  /**
+   * Constructs the exception for a status code.
+   * @param statusCode the HTTP status code of the response
+   */
+  public HttpStatusException(int statusCode) {
+    super("API responded with HTTP " + statusCode);
+    this.statusCode = statusCode;
+  }
+
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  /**
+   * Returns whether the same request might succeed if sent again, which is the case for server
+   * errors and request timeouts but not for other client errors.
+   * @return true if the request is worth retrying
+   */
+  public boolean isRetryable() {
+    return statusCode >= 500 || statusCode == 408;
+  }
+}
@@ -0,0 +1,128 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends HTTP requests on behalf of SpaceData.getApiData(), so that how connections are made can be
+ * configured or replaced, for example by a local stand-in server in tests.
+ */
+public interface HttpTransport {
+  /**
+   * Prepares a call for a request. Nothing is sent until the call is executed.
+   * @param request the request to send
+   * @return a call that can be executed once
+   */
+  @NonNull
+  Call newCall(@NonNull Request request);
+
+  /**
+   * Represents a single request that can be executed, and cancelled from another thread.
+   */
+  interface Call {
+    /**
+     * Sends the request and waits for the response headers. The body is read from the response.
+     * @return the response, which must be closed
+     * @throws IOException if the request failed, timed out or was cancelled
+     */
+    @NonNull
+    Response execute() throws IOException;
+
+    /**
+     * Aborts the call, closing its connection if it is open.
+     */
+    void cancel();
+
+    boolean isCanceled();
+  }
+
+  /**
+   * Holds the URL and headers of a GET request.
+   */
+  final class Request {
+    public final URL url;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
+    public Request(@NonNull URL url) {
+      this.url = url;
+    }
+
+    /**
+     * Sets a header to send with the request.
+     * @param name name of the header
+     * @param value value of the header
+     * @return this request
+     */
+    public Request header(@NonNull String name, @NonNull String value) {
+      headers.put(name, value);
+      return this;
+    }
+
+    public Map<String, String> headers() {
+      return Collections.unmodifiableMap(headers);
+    }
+  }
+
+  /**
+   * Holds the status, headers and body of a response. Closing it releases its connection for
+   * reuse.
+   */
+  final class Response implements Closeable {
+    public final int code;
+    private final Map<String, List<String>> headers;
+    private final InputStream body;
+
+    public Response(int code, @NonNull Map<String, List<String>> headers,
+                    @NonNull InputStream body) {
+      this.code = code;
+      this.headers = headers;
+      this.body = body;
+    }
+
+    /**
+     * Returns the first value of a response header, ignoring the case of its name.
+     * @param name name of the header
+     * @return the header value or null if the response does not have the header
+     */
+    @Nullable
+    public String header(@NonNull String name) {
+      for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+        if (name.equalsIgnoreCase(entry.getKey()) && !entry.getValue().isEmpty()) {
+          return entry.getValue().get(0);
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Returns whether the status code is in the 2xx range.
+     * @return true if the request succeeded
+     */
+    public boolean isSuccessful() {
+      return code >= 200 && code < 300;
+    }
+
+    /**
+     * Returns the body of the response, already decompressed if it was sent compressed.
+     * @return the response body stream
+     */
+    @NonNull
+    public InputStream body() {
+      return body;
+    }
+
+    @Override
+    public void close() throws IOException {
+      body.close();
+    }
+  }
+}
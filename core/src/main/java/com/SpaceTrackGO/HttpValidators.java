@@ -0,0 +1,69 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Identifies the version of a response that was last received for a request, so the request can
+ * be sent again conditionally. The ETag and Last-Modified values come from the response headers,
+ * and when the API sends neither, a hash of the response body is kept instead. A server answers a
+ * conditional request with HTTP 304 and no body if nothing changed, while an unchanged hash is only
+ * noticed once the body has arrived and been parsed, but still saves storing and publishing the
+ * same list again.
+ */
+public final class HttpValidators {
+  @Nullable public final String etag;
+  @Nullable public final String lastModified;
+  @Nullable public final String contentHash;
+
+  /**
+   * Constructs the HttpValidators.
+   * @param etag value of the ETag header, or null if the response had none
+   * @param lastModified value of the Last-Modified header, or null if the response had none
+   * @param contentHash hex SHA-256 hash of the response body, or null if not kept
+   */
+  public HttpValidators(@Nullable String etag, @Nullable String lastModified,
+                        @Nullable String contentHash) {
+    this.etag = etag;
+    this.lastModified = lastModified;
+    this.contentHash = contentHash;
+  }
+
+  /**
+   * Returns whether the server can tell if the response changed, so a conditional request is
+   * worth sending.
+   * @return true if there is an ETag or Last-Modified value
+   */
+  public boolean hasHeaders() {
+    return etag != null || lastModified != null;
+  }
+
+  /**
+   * Makes a request conditional on the response having changed since these validators were kept.
+   * @param request the request to add If-None-Match and If-Modified-Since headers to
+   */
+  void addTo(@NonNull HttpTransport.Request request) {
+    if (etag != null) request.header("If-None-Match", etag);
+    if (lastModified != null) request.header("If-Modified-Since", lastModified);
+  }
+
+  private static boolean equal(Object a, Object b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof HttpValidators)) return false;
+    HttpValidators other = (HttpValidators) o;
+    return equal(etag, other.etag) && equal(lastModified, other.lastModified)
+        && equal(contentHash, other.contentHash);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = etag == null ? 0 : etag.hashCode();
+    hash = 31 * hash + (lastModified == null ? 0 : lastModified.hashCode());
+    return 31 * hash + (contentHash == null ? 0 : contentHash.hashCode());
+  }
+}
@@ -0,0 +1,413 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads a JSON document one token at a time from a character stream, so that API responses can be
+ * turned into objects without holding the whole body or a full JSON tree in memory. Values that are
+ * not needed can be passed over with skipValue() without being copied into strings.
+ */
+final class JsonPullReader implements Closeable {
+  /**
+   * Represents the kinds of token that can be found next in the JSON stream.
+   */
+  enum Token {
+    BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, NAME, STRING, NUMBER, BOOLEAN, NULL,
+    END_DOCUMENT
+  }
+
+  /**
+   * Thrown when the JSON stream is not structured as the caller expected or is not valid JSON.
+   */
+  static final class MalformedJsonException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    MalformedJsonException(String message) {
+      super(message);
+    }
+  }
+
+  // Nesting scopes, used to know which separators are allowed before the next token
+  private static final int EMPTY_DOCUMENT = 0;
+  private static final int NONEMPTY_DOCUMENT = 1;
+  private static final int EMPTY_ARRAY = 2;
+  private static final int NONEMPTY_ARRAY = 3;
+  private static final int EMPTY_OBJECT = 4;
+  private static final int DANGLING_NAME = 5;
+  private static final int NONEMPTY_OBJECT = 6;
+
+  private final Reader in;
+  private final char[] buffer = new char[8192];
+  private int pos = 0;
+  private int limit = 0;
+  private final StringBuilder builder = new StringBuilder();
+
+  private int[] stack = new int[32];
+  private int stackSize = 1;
+  private Token peeked;
+
+  /**
+   * Constructs the JsonPullReader over a character stream. The stream is buffered internally.
+   * @param in stream containing a JSON document
+   */
+  JsonPullReader(@NonNull Reader in) {
+    this.in = in;
+    stack[0] = EMPTY_DOCUMENT;
+  }
+
+  /**
+   * Returns the type of the next token without consuming it.
+   * @return the next token in the stream
+   * @throws IOException if the stream cannot be read or is not valid JSON
+   */
+  Token peek() throws IOException {
+    if (peeked != null) return peeked;
+
+    int c;
+    switch (stack[stackSize - 1]) {
+      case EMPTY_ARRAY:
+        stack[stackSize - 1] = NONEMPTY_ARRAY;
+        c = nextNonWhitespace();
+        if (c == ']') return peeked = Token.END_ARRAY;
+        if (c == -1) throw syntaxError("Unterminated array");
+        pos--;
+        break;
+      case NONEMPTY_ARRAY:
+        c = nextNonWhitespace();
+        if (c == ']') return peeked = Token.END_ARRAY;
+        if (c != ',') throw syntaxError("Expected ',' or ']'");
+        break;
+      case EMPTY_OBJECT:
+      case NONEMPTY_OBJECT:
+        c = nextNonWhitespace();
+        if (c == '}') return peeked = Token.END_OBJECT;
+        if (stack[stackSize - 1] == NONEMPTY_OBJECT) {
+          if (c != ',') throw syntaxError("Expected ',' or '}'");
+          c = nextNonWhitespace();
+        }
+        if (c != '"') throw syntaxError("Expected name");
+        stack[stackSize - 1] = DANGLING_NAME;
+        return peeked = Token.NAME;
+      case DANGLING_NAME:
+        if (nextNonWhitespace() != ':') throw syntaxError("Expected ':'");
+        stack[stackSize - 1] = NONEMPTY_OBJECT;
+        break;
+      case EMPTY_DOCUMENT:
+        stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+        break;
+      default: // NONEMPTY_DOCUMENT
+        if (nextNonWhitespace() != -1) throw syntaxError("Expected end of document");
+        return peeked = Token.END_DOCUMENT;
+    }
+
+    // A value is expected next
+    c = nextNonWhitespace();
+    switch (c) {
+      case '[':
+        return peeked = Token.BEGIN_ARRAY;
+      case '{':
+        return peeked = Token.BEGIN_OBJECT;
+      case '"':
+        return peeked = Token.STRING;
+      case 't':
+      case 'f':
+        pos--;
+        return peeked = Token.BOOLEAN;
+      case 'n':
+        pos--;
+        return peeked = Token.NULL;
+      case -1:
+        throw syntaxError("Unexpected end of document");
+      default:
+        if (c == '-' || (c >= '0' && c <= '9')) {
+          pos--;
+          return peeked = Token.NUMBER;
+        }
+        throw syntaxError("Unexpected character '" + (char) c + "'");
+    }
+  }
+
+  /**
+   * Returns whether the current array or object has another element.
+   * @return true if another element follows
+   * @throws IOException if the stream cannot be read or is not valid JSON
+   */
+  boolean hasNext() throws IOException {
+    Token token = peek();
+    return token != Token.END_ARRAY && token != Token.END_OBJECT && token != Token.END_DOCUMENT;
+  }
+
+  void beginArray() throws IOException {
+    expect(Token.BEGIN_ARRAY);
+    push(EMPTY_ARRAY);
+  }
+
+  void endArray() throws IOException {
+    expect(Token.END_ARRAY);
+    stackSize--;
+  }
+
+  void beginObject() throws IOException {
+    expect(Token.BEGIN_OBJECT);
+    push(EMPTY_OBJECT);
+  }
+
+  void endObject() throws IOException {
+    expect(Token.END_OBJECT);
+    stackSize--;
+  }
+
+  /**
+   * Consumes the next property name of the current object.
+   * @return the property name
+   * @throws IOException if the next token is not a name or the stream cannot be read
+   */
+  String nextName() throws IOException {
+    expect(Token.NAME);
+    return readQuoted();
+  }
+
+  /**
+   * Consumes the next string value. Numbers are returned in their literal form.
+   * @return the string value
+   * @throws IOException if the next token is not a string or number or the stream cannot be read
+   */
+  String nextString() throws IOException {
+    Token token = peek();
+    if (token == Token.NUMBER) {
+      peeked = null;
+      return readLiteral();
+    }
+    expect(Token.STRING);
+    return readQuoted();
+  }
+
+  /**
+   * Consumes the next string value, or a null value.
+   * @return the string value or null if the JSON value was null
+   * @throws IOException if the next token is not a string, number or null
+   */
+  String nextStringOrNull() throws IOException {
+    if (peek() == Token.NULL) {
+      nextNull();
+      return null;
+    }
+    return nextString();
+  }
+
+  /**
+   * Consumes the next number and truncates it to an int, matching JSONObject.getInt().
+   * @return the integer value
+   * @throws IOException if the next token is not a number or numeric string
+   */
+  int nextInt() throws IOException {
+    String literal = nextString();
+    try {
+      return Integer.parseInt(literal);
+    } catch (NumberFormatException e) {
+      try {
+        return (int) Double.parseDouble(literal);
+      } catch (NumberFormatException e2) {
+        throw syntaxError("Expected a number but was " + literal);
+      }
+    }
+  }
+
+  void nextNull() throws IOException {
+    expect(Token.NULL);
+    if (!"null".equals(readLiteral())) throw syntaxError("Expected null");
+  }
+
+  boolean nextBoolean() throws IOException {
+    expect(Token.BOOLEAN);
+    String literal = readLiteral();
+    if ("true".equals(literal)) return true;
+    if ("false".equals(literal)) return false;
+    throw syntaxError("Expected a boolean but was " + literal);
+  }
+
+  /**
+   * Consumes the next value, including any nested arrays or objects, without building strings.
+   * @throws IOException if the stream cannot be read or is not valid JSON
+   */
+  void skipValue() throws IOException {
+    switch (peek()) {
+      case BEGIN_ARRAY:
+        beginArray();
+        while (hasNext()) skipValue();
+        endArray();
+        break;
+      case BEGIN_OBJECT:
+        beginObject();
+        while (hasNext()) {
+          expect(Token.NAME);
+          skipQuoted();
+          skipValue();
+        }
+        endObject();
+        break;
+      case STRING:
+        peeked = null;
+        skipQuoted();
+        break;
+      case NUMBER:
+      case BOOLEAN:
+      case NULL:
+        peeked = null;
+        skipLiteral();
+        break;
+      default:
+        throw syntaxError("Expected a value but was " + peek());
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private void expect(Token expected) throws IOException {
+    Token token = peek();
+    if (token != expected) throw syntaxError("Expected " + expected + " but was " + token);
+    peeked = null;
+  }
+
+  private void push(int scope) {
+    if (stackSize == stack.length) {
+      int[] newStack = new int[stackSize * 2];
+      System.arraycopy(stack, 0, newStack, 0, stackSize);
+      stack = newStack;
+    }
+    stack[stackSize++] = scope;
+  }
+
+  private boolean fill() throws IOException {
+    if (pos < limit) return true;
+    limit = in.read(buffer, 0, buffer.length);
+    pos = 0;
+    if (limit <= 0) {
+      limit = 0;
+      return false;
+    }
+    return true;
+  }
+
+  private int nextNonWhitespace() throws IOException {
+    while (fill()) {
+      char c = buffer[pos++];
+      if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+    }
+    return -1;
+  }
+
+  /**
+   * Reads a string whose opening quote has already been consumed, resolving escape sequences.
+   */
+  private String readQuoted() throws IOException {
+    builder.setLength(0);
+    while (true) {
+      if (!fill()) throw syntaxError("Unterminated string");
+      int start = pos;
+      while (pos < limit) {
+        char c = buffer[pos++];
+        if (c == '"') {
+          builder.append(buffer, start, pos - start - 1);
+          return builder.toString();
+        } else if (c == '\\') {
+          builder.append(buffer, start, pos - start - 1);
+          builder.append(readEscape());
+          start = pos;
+        }
+      }
+      builder.append(buffer, start, pos - start);
+    }
+  }
+
+  private void skipQuoted() throws IOException {
+    while (fill()) {
+      char c = buffer[pos++];
+      if (c == '"') return;
+      if (c == '\\') readEscape();
+    }
+    throw syntaxError("Unterminated string");
+  }
+
+  private char readEscape() throws IOException {
+    if (!fill()) throw syntaxError("Unterminated escape sequence");
+    char c = buffer[pos++];
+    switch (c) {
+      case 'u':
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+          if (!fill()) throw syntaxError("Unterminated escape sequence");
+          int digit = Character.digit(buffer[pos++], 16);
+          if (digit < 0) throw syntaxError("Invalid unicode escape");
+          value = (value << 4) | digit;
+        }
+        return (char) value;
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case '"':
+      case '\\':
+      case '/':
+        return c;
+      default:
+        throw syntaxError("Invalid escape sequence");
+    }
+  }
+
+  private String readLiteral() throws IOException {
+    builder.setLength(0);
+    while (fill()) {
+      int start = pos;
+      while (pos < limit) {
+        if (isLiteralEnd(buffer[pos])) {
+          builder.append(buffer, start, pos - start);
+          return builder.toString();
+        }
+        pos++;
+      }
+      builder.append(buffer, start, pos - start);
+    }
+    return builder.toString();
+  }
+
+  private void skipLiteral() throws IOException {
+    while (fill()) {
+      if (isLiteralEnd(buffer[pos])) return;
+      pos++;
+    }
+  }
+
+  private static boolean isLiteralEnd(char c) {
+    switch (c) {
+      case ',':
+      case ']':
+      case '}':
+      case ':':
+      case ' ':
+      case '\n':
+      case '\r':
+      case '\t':
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private MalformedJsonException syntaxError(String message) {
+    return new MalformedJsonException(message + " at character " + pos);
+  }
+}
@@ -0,0 +1,245 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records how long each phase between a refresh and items appearing on screen takes, as
+ * histograms, along with counters of the work done. Sections are also passed to a tracer so they
+ * show up in system traces. When disabled, every method returns straight away.
+ */
+public final class PerfMetrics {
+  /**
+   * Receives the start and end of timed sections, for example to forward them to android.os.Trace.
+   * Sections are always ended on the thread that began them.
+   */
+  public interface Tracer {
+    void beginSection(@NonNull String name);
+
+    void endSection();
+  }
+
+  /**
+   * Represents the timed phases of loading and showing space data.
+   */
+  public enum Section {
+    NETWORK("SpaceData.network"),
+    BODY_READ("SpaceData.bodyRead"),
+    PARSE("SpaceData.parse"),
+    DELIVERY("SpaceData.delivery"),
+    BIND("SpaceDataAdapter.bind");
+
+    public final String traceName;
+    final Histogram histogram = new Histogram();
+
+    Section(String traceName) {
+      this.traceName = traceName;
+    }
+  }
+
+  /**
+   * Represents the counted amounts of work.
+   */
+  public enum Counter {
+    REQUESTS,
+    BYTES_READ,
+    EVENTS_PARSED,
+    BINDS,
+    RETRIES,
+    HEDGES,
+    NOT_MODIFIED;
+
+    final AtomicLong value = new AtomicLong();
+  }
+
+  /**
+   * Counts durations in buckets that double in size, from 1 microsecond up to about 30 minutes.
+   */
+  public static final class Histogram {
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Adds a duration to the histogram.
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+      long micros = Math.max(1, nanos / 1000);
+      int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+      buckets.incrementAndGet(bucket);
+      count.incrementAndGet();
+      totalNanos.addAndGet(nanos);
+      long max;
+      while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+        // Retry until the larger value is stored
+      }
+    }
+
+    public long getCount() {
+      return count.get();
+    }
+
+    public long getMaxNanos() {
+      return maxNanos.get();
+    }
+
+    public long getMeanNanos() {
+      long n = count.get();
+      return n == 0 ? 0 : totalNanos.get() / n;
+    }
+
+    /**
+     * Estimates a percentile of the recorded durations, as the upper bound of the bucket that
+     * holds it.
+     * @param percentile the percentile to estimate, from 0 to 100
+     * @return the estimated duration in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long percentileNanos(double percentile) {
+      long n = count.get();
+      if (n == 0) return 0;
+      long rank = (long) Math.ceil(n * percentile / 100.0);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += buckets.get(i);
+        if (seen >= rank) return Math.min(maxNanos.get(), (2L << i) * 1000);
+      }
+      return maxNanos.get();
+    }
+
+    void reset() {
+      for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+      count.set(0);
+      totalNanos.set(0);
+      maxNanos.set(0);
+    }
+  }
+
+  private static volatile boolean enabled = false;
+  private static volatile Tracer tracer;
+  private static final AtomicLong lastPostedNanos = new AtomicLong();
+
+  private PerfMetrics() {}
+
+  /**
+   * Turns recording on or off. Recording is off until this is called.
+   * @param isEnabled true to record timings and counters
+   */
+  public static void setEnabled(boolean isEnabled) {
+    enabled = isEnabled;
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Sets where timed sections are forwarded to, in addition to the histograms.
+   * @param newTracer the tracer to forward sections to, or null for none
+   */
+  public static void setTracer(Tracer newTracer) {
+    tracer = newTracer;
+  }
+
+  /**
+   * Starts timing a section on the current thread.
+   * @param section the section being timed
+   * @return a start time to pass to end(), or 0 if recording is disabled
+   */
+  public static long begin(@NonNull Section section) {
+    if (!enabled) return 0;
+    Tracer currentTracer = tracer;
+    if (currentTracer != null) currentTracer.beginSection(section.traceName);
+    return System.nanoTime();
+  }
+
+  /**
+   * Finishes timing a section that was started on the current thread with begin().
+   * @param section the section being timed
+   * @param start the value returned by begin()
+   */
+  public static void end(@NonNull Section section, long start) {
+    if (start == 0) return;
+    section.histogram.record(System.nanoTime() - start);
+    Tracer currentTracer = tracer;
+    if (currentTracer != null) currentTracer.endSection();
+  }
+
+  /**
+   * Records a duration that was measured separately for a section.
+   * @param section the section the duration belongs to
+   * @param nanos the duration in nanoseconds
+   */
+  public static void record(@NonNull Section section, long nanos) {
+    if (enabled) section.histogram.record(nanos);
+  }
+
+  /**
+   * Adds to a counter.
+   * @param counter the counter to add to
+   * @param delta the amount to add
+   */
+  public static void count(@NonNull Counter counter, long delta) {
+    if (enabled) counter.value.addAndGet(delta);
+  }
+
+  /**
+   * Marks that a list of space data has just been posted to LiveData, so the delay until it is
+   * delivered to an observer can be measured by markDelivered().
+   */
+  public static void markPosted() {
+    if (enabled) lastPostedNanos.set(System.nanoTime());
+  }
+
+  /**
+   * Marks that a list of space data posted after markPosted() has been delivered to an observer.
+   */
+  public static void markDelivered() {
+    if (!enabled) return;
+    long posted = lastPostedNanos.getAndSet(0);
+    if (posted != 0) Section.DELIVERY.histogram.record(System.nanoTime() - posted);
+  }
+
+  public static Histogram histogram(@NonNull Section section) {
+    return section.histogram;
+  }
+
+  public static long counter(@NonNull Counter counter) {
+    return counter.value.get();
+  }
+
+  /**
+   * Clears every histogram and counter.
+   */
+  public static void reset() {
+    for (Section section : Section.values()) section.histogram.reset();
+    for (Counter counter : Counter.values()) counter.value.set(0);
+  }
+
+  /**
+   * Writes a plain text report of every histogram and counter, in the style of a dumpsys dump.
+   * @param prefix text to start each line with
+   * @param writer where to write the report
+   */
+  public static void dump(@NonNull String prefix, @NonNull PrintWriter writer) {
+    writer.println(prefix + "SpaceTrackGO performance" + (enabled ? "" : " (recording disabled)"));
+    for (Section section : Section.values()) {
+      Histogram h = section.histogram;
+      writer.println(String.format(Locale.US,
+          "%s  %-20s count=%d mean=%.2fms p50<=%.2fms p95<=%.2fms max=%.2fms",
+          prefix, section.traceName, h.getCount(), h.getMeanNanos() / 1e6,
+          h.percentileNanos(50) / 1e6, h.percentileNanos(95) / 1e6, h.getMaxNanos() / 1e6));
+    }
+    for (Counter counter : Counter.values()) {
+      writer.println(String.format(Locale.US, "%s  %-20s %d", prefix,
+          counter.name().toLowerCase(Locale.US), counter.value.get()));
+    }
+  }
+}
@@ -0,0 +1,222 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether a request to the API may be sent and with which API key, so that hourly quota,
+ * which is shared with every other device using the same keys, is not spent on requests that are
+ * bound to be refused.
+ *
+ * <p>Each key has a token bucket that refills at its hourly limit. The bucket is corrected from the
+ * X-RateLimit-Limit and X-RateLimit-Remaining headers of every response, since other devices spend
+ * from the same quota. Background requests leave a reserve in each bucket so that refreshes asked
+ * for by the user can still be sent. When the API responds with HTTP 429 the key is not used again
+ * until a backoff has passed, which doubles with each refusal in a row and is jittered so that
+ * devices do not retry together. Requests that cannot be sent fail straight away with a
+ * RateLimitedException rather than waiting.
+ */
+public class RateLimitScheduler {
+  // Hourly quota of the demo key, assumed for each key until a response says otherwise
+  static final int DEFAULT_HOURLY_LIMIT = 30;
+  // Fraction of each key's hourly limit that background requests leave for the user
+  static final double BACKGROUND_RESERVE = 0.25;
+  static final long BASE_BACKOFF = TimeUnit.SECONDS.toMillis(30);
+  static final long MAX_BACKOFF = TimeUnit.HOURS.toMillis(1);
+  private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+  /**
+   * Ranks requests, where requests the user is waiting on are sent ahead of background work.
+   */
+  public enum Priority {
+    USER,
+    BACKGROUND
+  }
+
+  /**
+   * Supplies the current time, so that tests can control it.
+   */
+  public interface Clock {
+    long currentTimeMillis();
+  }
+
+  /**
+   * Holds the rate limit state of one API key. Guarded by the scheduler.
+   */
+  private static final class KeyState {
+    final String apiKey;
+    int limit = DEFAULT_HOURLY_LIMIT;
+    double tokens = DEFAULT_HOURLY_LIMIT;
+    long refilledAt;
+    long blockedUntil;
+    int refusals; // HTTP 429 responses in a row
+
+    KeyState(String apiKey, long now) {
+      this.apiKey = apiKey;
+      refilledAt = now;
+    }
+  }
+
+  /**
+   * Grants one request the use of an API key. The response to the request must be passed back to
+   * onResponse() so the key's quota is kept up to date.
+   */
+  public static final class Permit {
+    public final String apiKey;
+    private final KeyState state;
+
+    private Permit(KeyState state) {
+      this.apiKey = state.apiKey;
+      this.state = state;
+    }
+  }
+
+  private final List<KeyState> keys = new ArrayList<>();
+  private final Clock clock;
+  private final Random random;
+
+  /**
+   * Constructs the RateLimitScheduler to share requests between a pool of API keys.
+   * @param apiKeys the API keys to use, at least one
+   */
+  public RateLimitScheduler(@NonNull List<String> apiKeys) {
+    this(apiKeys, System::currentTimeMillis, new Random());
+  }
+
+  RateLimitScheduler(@NonNull List<String> apiKeys, @NonNull Clock clock, @NonNull Random random) {
+    if (apiKeys.isEmpty()) throw new IllegalArgumentException("No API keys given");
+    this.clock = clock;
+    this.random = random;
+    long now = clock.currentTimeMillis();
+    for (String apiKey : apiKeys) keys.add(new KeyState(apiKey, now));
+  }
+
+  /**
+   * Takes a token for a request from the key with the most quota left.
+   * @param priority the priority of the request
+   * @return a permit holding the key to send the request with
+   * @throws RateLimitedException if no key has quota left for a request of this priority
+   */
+  @NonNull
+  public synchronized Permit acquire(@NonNull Priority priority) throws RateLimitedException {
+    long now = clock.currentTimeMillis();
+    KeyState best = null;
+    long soonest = Long.MAX_VALUE;
+    for (KeyState state : keys) {
+      refill(state, now);
+      double needed = tokensNeeded(state, priority);
+      if (now >= state.blockedUntil && state.tokens >= needed) {
+        if (best == null || state.tokens > best.tokens) best = state;
+      } else {
+        soonest = Math.min(soonest, availableAt(state, needed, now));
+      }
+    }
+    if (best == null) throw new RateLimitedException(soonest - now);
+    best.tokens -= 1;
+    return new Permit(best);
+  }
+
+  /**
+   * Updates the quota of the key a request was sent with from the response.
+   * @param permit the permit the request was sent with
+   * @param response the response to the request
+   */
+  public void onResponse(@NonNull Permit permit, @NonNull HttpTransport.Response response) {
+    onResponse(permit, response.code, response.header("X-RateLimit-Limit"),
+        response.header("X-RateLimit-Remaining"), response.header("Retry-After"));
+  }
+
+  synchronized void onResponse(@NonNull Permit permit, int code, @Nullable String limit,
+                               @Nullable String remaining, @Nullable String retryAfter) {
+    KeyState state = permit.state;
+    long now = clock.currentTimeMillis();
+    refill(state, now);
+
+    int parsedLimit = parseCount(limit);
+    if (parsedLimit > 0) {
+      state.limit = parsedLimit;
+      state.tokens = Math.min(state.tokens, parsedLimit);
+    }
+    // The API counts requests from every device using the key, so its count takes precedence
+    int parsedRemaining = parseCount(remaining);
+    if (parsedRemaining >= 0) state.tokens = parsedRemaining;
+
+    if (code == 429) {
+      state.refusals++;
+      int retryAfterSeconds = parseCount(retryAfter);
+      long delay;
+      if (retryAfterSeconds >= 0) {
+        // Wait as long as asked, spread over a further tenth so devices do not return together
+        delay = TimeUnit.SECONDS.toMillis(retryAfterSeconds);
+        delay += (long) (random.nextDouble() * delay / 10);
+      } else {
+        long backoff = Math.min(MAX_BACKOFF, BASE_BACKOFF << Math.min(state.refusals - 1, 16));
+        delay = backoff / 2 + (long) (random.nextDouble() * backoff / 2);
+      }
+      state.blockedUntil = Math.max(state.blockedUntil, now + delay);
+    } else {
+      state.refusals = 0;
+    }
+  }
+
+  /**
+   * Returns how long until a request of a priority could be sent with any key.
+   * @param priority the priority of the request
+   * @return milliseconds to wait, or 0 if a request could be sent now
+   */
+  public synchronized long getRetryAfterMillis(@NonNull Priority priority) {
+    long now = clock.currentTimeMillis();
+    long soonest = Long.MAX_VALUE;
+    for (KeyState state : keys) {
+      refill(state, now);
+      double needed = tokensNeeded(state, priority);
+      soonest = Math.min(soonest, availableAt(state, needed, now));
+    }
+    return soonest - now;
+  }
+
+  /**
+   * Returns how many tokens a key must hold for a request of a priority to be sent with it.
+   */
+  private static double tokensNeeded(KeyState state, Priority priority) {
+    if (priority == Priority.USER) return 1;
+    return Math.min(state.limit, 1 + state.limit * BACKGROUND_RESERVE);
+  }
+
+  private static void refill(KeyState state, long now) {
+    if (now <= state.refilledAt) return;
+    state.tokens = Math.min(state.limit,
+        state.tokens + (now - state.refilledAt) * (double) state.limit / HOUR);
+    state.refilledAt = now;
+  }
+
+  /**
+   * Returns the time at which a key will have at least the tokens needed and not be backing off.
+   */
+  private static long availableAt(KeyState state, double needed, long now) {
+    long refilled = now;
+    if (state.tokens < needed) {
+      refilled += (long) Math.ceil((needed - state.tokens) * HOUR / state.limit);
+    }
+    return Math.max(refilled, state.blockedUntil);
+  }
+
+  /**
+   * Parses a non-negative whole number from a header value.
+   * @return the number, or -1 if the header is missing or not a number
+   */
+  private static int parseCount(@Nullable String value) {
+    if (value == null) return -1;
+    try {
+      int count = Integer.parseInt(value.trim());
+      return count < 0 ? -1 : count;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.SpaceTrackGO;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thrown instead of sending a request to the API when the request would exceed the rate limit of
+ * every available API key, or when the API itself refused a request for that reason.
+ */
+public class RateLimitedException extends IOException {
+  private static final long serialVersionUID = 1L;
+
+  private final long retryAfterMillis;
+
+  /**
+   * Constructs the exception with how long to wait before the request is expected to succeed.
+   * @param retryAfterMillis milliseconds until a request can be sent again
+   */
+  public RateLimitedException(long retryAfterMillis) {
+    super("API rate limit reached. Try again in "
+        + Math.max(1, TimeUnit.MILLISECONDS.toMinutes(retryAfterMillis + 59_999)) + " minutes");
+    this.retryAfterMillis = retryAfterMillis;
+  }
+
+  /**
+   * Returns how long to wait before the request is expected to succeed.
+   * @return milliseconds until a request can be sent again
+   */
+  public long getRetryAfterMillis() {
+    return retryAfterMillis;
+  }
+}
@@ -0,0 +1,177 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Indexes the words in the descriptions, the IDs and the active regions of the rows of
+ * EventColumns as the rows are appended, so events can be found by the beginnings of their words
+ * without reading their text again.
+ *
+ * <p>Many events share a description, such as every geomagnetic storm with the same Kp-index, so
+ * description words are indexed per distinct description and each row refers to its description
+ * by number. IDs are indexed whole, per row, since they begin with the event's time and can be
+ * searched by date. Active regions are indexed per row as their number, and as the number after
+ * AR as regions are often written. Each word maps to an ascending list of the descriptions or rows
+ * containing it, and the words are kept sorted as they are added, so every word beginning with a
+ * prefix is found without sorting at search time. Rows are added in order and never removed. Not
+ * thread-safe; EventColumns guards it.
+ */
+final class SearchIndex {
+  private final Words descriptionWords = new Words();
+  private final Words ids = new Words();
+  private final Words regions = new Words();
+  // Numbers each distinct description by its template and the pool index of its parameter
+  private final Map<Long, Integer> descriptionNumbers = new HashMap<>();
+  private int[] rowDescriptions = new int[64];
+  private int rows = 0;
+  private final List<String> scratchWords = new ArrayList<>();
+
+  /**
+   * Maps words to the ascending numbers of the descriptions or rows containing them.
+   */
+  private static final class Words {
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+
+    void add(String word, int number) {
+      Postings wordPostings = postings.get(word);
+      if (wordPostings == null) {
+        wordPostings = new Postings();
+        postings.put(word, wordPostings);
+      }
+      wordPostings.add(number);
+    }
+
+    /**
+     * Sets the numbers listed for every word beginning with a prefix.
+     */
+    void matchPrefix(String prefix, BitSet matches) {
+      for (Map.Entry<String, Postings> word : postings.tailMap(prefix).entrySet()) {
+        if (!word.getKey().startsWith(prefix)) break;
+        Postings wordPostings = word.getValue();
+        for (int j = 0; j < wordPostings.size; j++) matches.set(wordPostings.numbers[j]);
+      }
+    }
+  }
+
+  /**
+   * Holds the ascending numbers of the descriptions or rows that contain a word.
+   */
+  private static final class Postings {
+    int[] numbers = new int[2];
+    int size = 0;
+
+    void add(int number) {
+      if (size > 0 && numbers[size - 1] == number) return; // Word repeated in the same text
+      if (size == numbers.length) numbers = Arrays.copyOf(numbers, size * 2);
+      numbers[size++] = number;
+    }
+  }
+
+  /**
+   * Indexes the next row, which must be added in order from zero.
+   * @param template the description template of the row
+   * @param parameter the description parameter of the row
+   * @param parameterRef the pool index of the parameter, which identifies it with the template
+   * @param id the API ID of the row
+   * @param activeRegion the active region of the row, or SpaceData.NO_ACTIVE_REGION
+   */
+  void add(@NonNull DescriptionTemplate template, @NonNull String parameter, int parameterRef,
+           @NonNull String id, int activeRegion) {
+    long key = ((long) template.ordinal() << 32) | (parameterRef & 0xffffffffL);
+    Integer description = descriptionNumbers.get(key);
+    if (description == null) {
+      description = descriptionNumbers.size();
+      descriptionNumbers.put(key, description);
+      tokenize(template.render(parameter), scratchWords);
+      for (String word : scratchWords) descriptionWords.add(word, description);
+    }
+    if (rows == rowDescriptions.length) {
+      rowDescriptions = Arrays.copyOf(rowDescriptions, rows * 2);
+    }
+    rowDescriptions[rows] = description;
+    ids.add(id.toLowerCase(Locale.ROOT), rows);
+    if (activeRegion != SpaceData.NO_ACTIVE_REGION) {
+      String region = String.valueOf(activeRegion);
+      regions.add(region, rows);
+      regions.add("ar" + region, rows);
+    }
+    rows++;
+  }
+
+  /**
+   * Finds the rows that match a query. The query is split into terms at spaces, and a row matches
+   * if each term begins its ID or its active region, or each word of the term begins a word of its
+   * description.
+   * @param query the text to search for
+   * @param candidates the rows to check, all of which must have been indexed
+   * @param out receives the positions in candidates of the matching rows, in order, and must have
+   *            room for every candidate
+   * @return the number of positions written to out
+   */
+  int search(@NonNull String query, @NonNull int[] candidates, @NonNull int[] out) {
+    List<BitSet> descriptionMatches = new ArrayList<>();
+    List<BitSet> idMatches = new ArrayList<>();
+    List<String> termWords = new ArrayList<>();
+    for (String term : query.toLowerCase(Locale.ROOT).split("\\s+")) {
+      tokenize(term, termWords);
+      if (termWords.isEmpty()) continue; // Only punctuation, which is not indexed
+      BitSet descriptions = null;
+      for (String word : termWords) {
+        BitSet matches = new BitSet();
+        descriptionWords.matchPrefix(word, matches);
+        if (descriptions == null) {
+          descriptions = matches;
+        } else {
+          descriptions.and(matches);
+        }
+      }
+      BitSet rowsMatched = new BitSet();
+      ids.matchPrefix(term, rowsMatched);
+      regions.matchPrefix(term, rowsMatched);
+      descriptionMatches.add(descriptions);
+      idMatches.add(rowsMatched);
+    }
+
+    int terms = descriptionMatches.size();
+    int count = 0;
+    for (int position = 0; position < candidates.length; position++) {
+      int row = candidates[position];
+      int description = rowDescriptions[row];
+      boolean matches = true;
+      for (int i = 0; i < terms && matches; i++) {
+        matches = descriptionMatches.get(i).get(description) || idMatches.get(i).get(row);
+      }
+      if (matches) out[count++] = position;
+    }
+    return count;
+  }
+
+  /**
+   * Splits text into lower case words made of letters and digits.
+   * @param text the text to split
+   * @param out cleared, then receives the words in order
+   */
+  static void tokenize(@NonNull String text, @NonNull List<String> out) {
+    out.clear();
+    text = text.toLowerCase(Locale.ROOT);
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        out.add(text.substring(start, i));
+        start = -1;
+      }
+    }
+  }
+}
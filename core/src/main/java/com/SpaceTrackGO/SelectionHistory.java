@@ -0,0 +1,119 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a score for each selection the user has made on the main screen, to predict which one they
+ * will make next. Each selection adds one to its score, and scores halve every week, so the
+ * prediction favours selections made often and recently.
+ */
+public class SelectionHistory {
+  static final long HALF_LIFE = TimeUnit.DAYS.toMillis(7);
+
+  /**
+   * Holds the score of a selection as of the last time it was made.
+   */
+  private static final class Entry {
+    final double score;
+    final long madeAt;
+
+    Entry(double score, long madeAt) {
+      this.score = score;
+      this.madeAt = madeAt;
+    }
+
+    double scoreAt(long now) {
+      if (now <= madeAt) return score;
+      return score * Math.pow(0.5, (now - madeAt) / (double) HALF_LIFE);
+    }
+  }
+
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  /**
+   * Records that a selection was made.
+   * @param selection name of the selection, which must not contain ':' or ';'
+   * @param now the current time in milliseconds since the epoch
+   */
+  public void record(@NonNull String selection, long now) {
+    Entry entry = entries.get(selection);
+    double score = entry == null ? 0 : entry.scoreAt(now);
+    entries.put(selection, new Entry(score + 1, now));
+  }
+
+  /**
+   * Returns the score of a selection, which is how many times it was made with each weighted by
+   * how recently.
+   * @param selection name of the selection
+   * @param now the current time in milliseconds since the epoch
+   * @return the score, or 0 if the selection has never been made
+   */
+  public double scoreOf(@NonNull String selection, long now) {
+    Entry entry = entries.get(selection);
+    return entry == null ? 0 : entry.scoreAt(now);
+  }
+
+  /**
+   * Returns the selection the user is most likely to make next.
+   * @param now the current time in milliseconds since the epoch
+   * @return the selection with the highest score, or null if none have been made
+   */
+  @Nullable
+  public String mostLikely(long now) {
+    String best = null;
+    double bestScore = 0;
+    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+      double score = entry.getValue().scoreAt(now);
+      if (best == null || score > bestScore) {
+        best = entry.getKey();
+        bestScore = score;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Encodes the history as a string to be kept in preferences.
+   * @return the encoded history
+   */
+  @NonNull
+  public String encode() {
+    StringBuilder encoded = new StringBuilder();
+    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+      if (encoded.length() > 0) encoded.append(';');
+      encoded.append(entry.getKey()).append(':')
+          .append(String.format(Locale.US, "%.4f", entry.getValue().score)).append(':')
+          .append(entry.getValue().madeAt);
+    }
+    return encoded.toString();
+  }
+
+  /**
+   * Decodes a history encoded by encode(). Entries that cannot be read are left out.
+   * @param encoded the encoded history, or null for an empty history
+   * @return the decoded history
+   */
+  @NonNull
+  public static SelectionHistory decode(@Nullable String encoded) {
+    SelectionHistory history = new SelectionHistory();
+    if (encoded == null || encoded.isEmpty()) return history;
+    for (String part : encoded.split(";")) {
+      String[] fields = part.split(":");
+      if (fields.length != 3 || fields[0].isEmpty()) continue;
+      try {
+        double score = Double.parseDouble(fields[1]);
+        long madeAt = Long.parseLong(fields[2]);
+        if (score > 0) history.entries.put(fields[0], new Entry(score, madeAt));
+      } catch (NumberFormatException e) {
+        // Leave out the damaged entry
+      }
+    }
+    return history;
+  }
+}
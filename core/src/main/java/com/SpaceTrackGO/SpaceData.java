@@ -0,0 +1,706 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.json.JSONException;
+
+/**
+ * Queries APIs and constructs SpaceData objects with the results. SpaceData objects hold
+ * informational updates on space activity.
+ */
+public class SpaceData {
+  private final String id;
+  private final DataType dataType;
+  private final String dateAndTime;
+  private final long epochMillis;
+  private final DescriptionTemplate descriptionTemplate;
+  private final String descriptionParameter;
+  private final String link;
+  private final int activeRegion;
+  private volatile URL hyperlink; // Built from link when first needed
+
+  /**
+   * Held for events that did not come from a numbered active region.
+   */
+  public static final int NO_ACTIVE_REGION = -1;
+
+  // Replace with own API KEY if deploying large-scale
+  static final String API_KEY = "DEMO_KEY";
+
+  private static volatile HttpTransport transport = new UrlConnectionTransport();
+  private static volatile RateLimitScheduler scheduler =
+      new RateLimitScheduler(Collections.singletonList(API_KEY));
+  private static volatile FetchPolicy fetchPolicy = new FetchPolicy();
+
+  /**
+   * Represents the different types of space data and the APIs they can be obtained from. Each type
+   * is an entry in this registry declaring its DONKI endpoint, the names of its ID and time fields
+   * and how its description is built, so every type is parsed by the same loop and adding a type
+   * needs no other changes to parsing.
+   */
+  public enum DataType {
+    CME("CME", "activityID", "startTime",
+        EventDescriber.fromField("note", DescriptionTemplate.NOTE, DescriptionTemplate.NOTE)),
+    GST("GST", "gstID", "startTime", EventDescriber.KP_INDEX),
+    FLR("FLR", "flrID", "beginTime",
+        EventDescriber.fromField("classType", DescriptionTemplate.FLARE_CLASS, null)),
+    SEP("SEP", "sepID", "eventTime",
+        EventDescriber.fixed(DescriptionTemplate.SOLAR_ENERGETIC_PARTICLES)),
+    IPS("IPS", "activityID", "eventTime", EventDescriber.fromField("location",
+        DescriptionTemplate.SHOCK_LOCATION, DescriptionTemplate.NO_SHOCK_LOCATION)),
+    HSS("HSS", "hssID", "eventTime",
+        EventDescriber.fixed(DescriptionTemplate.HIGH_SPEED_STREAM)),
+    RBE("RBE", "rbeID", "eventTime",
+        EventDescriber.fixed(DescriptionTemplate.RADIATION_BELT_ENHANCEMENT)),
+    MPC("MPC", "mpcID", "eventTime",
+        EventDescriber.fixed(DescriptionTemplate.MAGNETOPAUSE_CROSSING)),
+    WSA_ENLIL("WSAEnlilSimulations", "simulationID", "modelCompletionTime",
+        EventDescriber.fixed(DescriptionTemplate.WSA_ENLIL_SIMULATION));
+
+    public final String hyperlink;
+    final String idField;
+    final String timeField;
+    final EventDescriber describer;
+
+    DataType(String endpoint, String idField, String timeField, EventDescriber describer) {
+      this.hyperlink = "https://api.nasa.gov/DONKI/" + endpoint;
+      this.idField = idField;
+      this.timeField = timeField;
+      this.describer = describer;
+    }
+  }
+
+  /**
+   * Package-private constructor as SpaceData objects are only constructed internally, either from
+   * API responses or when restored from storage.
+   * @param id unique ID of data from API
+   * @param dataType type of space data
+   * @param dateAndTime date and time that will appear on card
+   * @param epochMillis dateAndTime parsed as milliseconds since the epoch
+   * @param descriptionTemplate template of the description of event that will appear on card
+   * @param descriptionParameter value filled into the description template
+   * @param link address of informational page on event, or null if there is none
+   */
+  SpaceData(String id,
+            DataType dataType,
+            String dateAndTime,
+            long epochMillis,
+            DescriptionTemplate descriptionTemplate,
+            String descriptionParameter,
+            String link) {
+    this(id, dataType, dateAndTime, epochMillis, descriptionTemplate, descriptionParameter, link,
+        NO_ACTIVE_REGION);
+  }
+
+  /**
+   * Package-private constructor for space data that came from an active region on the Sun.
+   * @param id unique ID of data from API
+   * @param dataType type of space data
+   * @param dateAndTime date and time that will appear on card
+   * @param epochMillis dateAndTime parsed as milliseconds since the epoch
+   * @param descriptionTemplate template of the description of event that will appear on card
+   * @param descriptionParameter value filled into the description template
+   * @param link address of informational page on event, or null if there is none
+   * @param activeRegion NOAA number of the active region of the event, or NO_ACTIVE_REGION
+   */
+  SpaceData(String id,
+            DataType dataType,
+            String dateAndTime,
+            long epochMillis,
+            DescriptionTemplate descriptionTemplate,
+            String descriptionParameter,
+            String link,
+            int activeRegion) {
+
+    this.id = id;
+    this.dataType = dataType;
+    this.dateAndTime = dateAndTime;
+    this.epochMillis = epochMillis;
+    this.descriptionTemplate = descriptionTemplate;
+    this.descriptionParameter = descriptionParameter;
+    this.link = link;
+    this.activeRegion = activeRegion;
+  }
+
+  /**
+   * Returns the unique identifier of the space data object provided by the API that sent it.
+   * @return the id of the space data
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Returns the type of the space data object, decided by which API endpoint it was taken from.
+   * @return the type of the space data
+   */
+  public DataType getDataType() {
+    return dataType;
+  }
+
+  /**
+   * Returns the date and time that the event the space data object describes occurred.
+   * @return the date and time of the space data in UTC
+   */
+  public String getDateAndTime() {
+    return dateAndTime;
+  }
+
+  /**
+   * Returns the date and time that the event occurred as milliseconds since the epoch. This is
+   * parsed once when the space data object is formed.
+   * @return the time of the event or EventTime.UNKNOWN if it could not be parsed
+   */
+  public long getEpochMillis() {
+    return epochMillis;
+  }
+
+  /**
+   * Returns a description of the space event using information obtained from the API endpoint that
+   * it was taken from. The text is rendered from a template and shared between events that have
+   * the same description.
+   * @return the description of the space event
+   */
+  public String getDescription() {
+    return descriptionTemplate.render(descriptionParameter);
+  }
+
+  /**
+   * Returns the highest Kp-index measured during a geomagnetic storm.
+   * @return the Kp-index, or -1 if the event is not a storm or has no measurements
+   */
+  public int getKpIndex() {
+    return descriptionTemplate == DescriptionTemplate.KP_INDEX
+        ? Integer.parseInt(descriptionParameter)
+        : -1;
+  }
+
+  /**
+   * Returns the size class of a solar flare, such as "M2.4".
+   * @return the flare class, or null if the event is not a solar flare
+   */
+  @Nullable
+  public String getFlareClass() {
+    return descriptionTemplate == DescriptionTemplate.FLARE_CLASS ? descriptionParameter : null;
+  }
+
+  /**
+   * Returns the NOAA number of the active region on the Sun that the event came from, which the
+   * API reports for solar flares and some CMEs.
+   * @return the region number, or NO_ACTIVE_REGION if none was reported
+   */
+  public int getActiveRegion() {
+    return activeRegion;
+  }
+
+  DescriptionTemplate getDescriptionTemplate() {
+    return descriptionTemplate;
+  }
+
+  String getDescriptionParameter() {
+    return descriptionParameter;
+  }
+
+  /**
+   * Returns the address of the official report on the space event as it was received.
+   * @return the report address, or null if there is none
+   */
+  @Nullable
+  public String getLink() {
+    return link;
+  }
+
+  /**
+   * Returns a URL to the official report on the space event described by the space data object.
+   * The URL is only built the first time it is needed, as most items are never opened.
+   * @return the report URL, or null if there is none or it is not a valid URL
+   */
+  @Nullable
+  public URL getHyperlink() {
+    URL url = hyperlink;
+    if (url == null && link != null) {
+      try {
+        url = new URL(link);
+        hyperlink = url;
+      } catch (MalformedURLException e) {
+        return null; // No clickable link if URL is invalid
+      }
+    }
+    return url;
+  }
+
+  /**
+   * Checks whether another object is space data with the same ID, type and displayed content.
+   * @param o object to compare with
+   * @return true if the objects hold the same space data
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof SpaceData)) return false;
+    SpaceData other = (SpaceData) o;
+    return id.equals(other.id)
+        && dataType == other.dataType
+        && dateAndTime.equals(other.dateAndTime)
+        && descriptionTemplate == other.descriptionTemplate
+        && descriptionParameter.equals(other.descriptionParameter)
+        && (link == null ? other.link == null : link.equals(other.link))
+        && activeRegion == other.activeRegion;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = id.hashCode();
+    result = 31 * result + dataType.hashCode();
+    result = 31 * result + dateAndTime.hashCode();
+    return result;
+  }
+
+  /**
+   * Replaces the transport used to send requests to the APIs.
+   * @param newTransport transport to use for all following requests
+   */
+  public static void setTransport(@NonNull HttpTransport newTransport) {
+    transport = newTransport;
+  }
+
+  /**
+   * Replaces the scheduler that decides which API key requests are sent with and whether they are
+   * sent at all, for example to share requests between a pool of keys.
+   * @param newScheduler scheduler to use for all following requests
+   */
+  public static void setRateLimitScheduler(@NonNull RateLimitScheduler newScheduler) {
+    scheduler = newScheduler;
+  }
+
+  /**
+   * Replaces the policy that sets the deadline of requests and how they are retried and hedged,
+   * for example to give tests shorter deadlines.
+   * @param newPolicy policy to use for all following requests
+   */
+  public static void setFetchPolicy(@NonNull FetchPolicy newPolicy) {
+    fetchPolicy = newPolicy;
+  }
+
+  /**
+   * Forms a single space data object from the next JSON object in the reader, reading only the
+   * fields needed for the selected data type and skipping over the rest.
+   * @param selection type of API that data was requested from
+   * @param reader JSON reader positioned at the start of an event object
+   * @return the SpaceData object
+   * @throws IOException throws if the object is not structured as expected from API
+   */
+  private static SpaceData formSpaceDataItem(@NonNull SpaceData.DataType selection,
+                                             @NonNull JsonPullReader reader) throws IOException {
+    String idField = selection.idField;
+    String timeField = selection.timeField;
+    EventDescriber describer = selection.describer;
+    String detailField = describer.detailField;
+
+    String id = null;
+    String dateAndTime = null;
+    String link = null;
+    String detail = null;
+    int activeRegion = NO_ACTIVE_REGION;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if (name.equals(idField)) {
+        id = reader.nextString();
+      } else if (name.equals(timeField)) {
+        dateAndTime = reader.nextString();
+      } else if (name.equals("link")) {
+        link = reader.nextStringOrNull();
+      } else if (name.equals("activeRegionNum")) {
+        if (reader.peek() == JsonPullReader.Token.NULL) {
+          reader.nextNull();
+        } else {
+          activeRegion = reader.nextInt();
+        }
+      } else if (name.equals(detailField)) {
+        detail = describer.readDetail(reader);
+      } else {
+        reader.skipValue(); // Field is not shown so avoid building it
+      }
+    }
+    reader.endObject();
+
+    if (id == null || dateAndTime == null) {
+      throw new JsonPullReader.MalformedJsonException("Event is missing its ID or time");
+    }
+
+    // Only the varying part of the description is kept, the text is rendered when shown
+    DescriptionTemplate descriptionTemplate = describer.templateFor(detail);
+    String descriptionParameter = detail == null ? "" : detail;
+    return new SpaceData(id, selection, dateAndTime, EventTime.parse(dateAndTime),
+        descriptionTemplate, descriptionTemplate.share(descriptionParameter), link, activeRegion);
+  }
+
+  /**
+   * Forms a list of space data objects from a JSON array of events using a selected data type.
+   * The JSON is read as a stream, so neither the whole response nor a JSON tree is held in memory.
+   * @param selection type of API that data was requested from
+   * @param jsonData stream containing the JSON array response data from API
+   * @return ArrayList of SpaceData objects in the order they were received
+   * @throws JSONException throws if jsonData is not structured as expected from API or is empty
+   * @throws IOException throws if jsonData could not be read
+   */
+  public static ArrayList<SpaceData> formSpaceData(@NonNull SpaceData.DataType selection,
+                                                   @NonNull Reader jsonData)
+      throws JSONException, IOException {
+    ArrayList<SpaceData> spaceData = new ArrayList<>();
+    JsonPullReader reader = new JsonPullReader(jsonData);
+    try {
+      reader.beginArray();
+      while (reader.hasNext()) {
+        spaceData.add(formSpaceDataItem(selection, reader));
+      }
+      reader.endArray();
+      if (reader.peek() != JsonPullReader.Token.END_DOCUMENT) {
+        throw new JsonPullReader.MalformedJsonException("Unexpected data after array");
+      }
+    } catch (JsonPullReader.MalformedJsonException e) {
+      throw new JSONException(e.getMessage());
+    }
+    return spaceData;
+  }
+
+  /**
+   * Sends a request and waits for the response headers, recording how long that took.
+   */
+  private static HttpTransport.Response execute(@NonNull HttpTransport.Call call)
+      throws IOException {
+    PerfMetrics.count(PerfMetrics.Counter.REQUESTS, 1);
+    long start = PerfMetrics.begin(PerfMetrics.Section.NETWORK);
+    try {
+      return call.execute();
+    } finally {
+      PerfMetrics.end(PerfMetrics.Section.NETWORK, start);
+    }
+  }
+
+  /**
+   * Parses a response body into SpaceData objects as it arrives. When performance metrics are
+   * enabled, time spent waiting on the body is recorded apart from time spent parsing it.
+   */
+  private static ArrayList<SpaceData> parseBody(@NonNull SpaceData.DataType selection,
+                                                @NonNull InputStream body)
+      throws JSONException, IOException {
+    long parseStart = PerfMetrics.begin(PerfMetrics.Section.PARSE);
+    if (parseStart == 0) {
+      return formSpaceData(selection, new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    TimedInputStream timedBody = new TimedInputStream(body);
+    try {
+      ArrayList<SpaceData> spaceData =
+          formSpaceData(selection, new InputStreamReader(timedBody, StandardCharsets.UTF_8));
+      PerfMetrics.count(PerfMetrics.Counter.EVENTS_PARSED, spaceData.size());
+      return spaceData;
+    } finally {
+      // The parse section covers only the time not spent waiting on the body
+      long readNanos = timedBody.getReadNanos();
+      PerfMetrics.end(PerfMetrics.Section.PARSE, parseStart + readNanos);
+      PerfMetrics.record(PerfMetrics.Section.BODY_READ, readNanos);
+      PerfMetrics.count(PerfMetrics.Counter.BYTES_READ, timedBody.getBytesRead());
+    }
+  }
+
+  /**
+   * Queries a certain API for recent data based on the selection, and produces SpaceData objects
+   * from the returned results.
+   * @param selection name of selected API to query, for example CME for Coronal Mass Ejection,
+   *                  GST for Geomagnetic Storm or FLR for Solar Flare
+   * @return ArrayList of SpaceData objects with data from the selected API in reverse chronological
+   *         order or null if no data was received
+   * @throws JSONException if the data returned by the selected API is not structured as expected or
+   *                       is empty
+   * @throws IOException if a problem occurred when connecting to the selected API over the internet
+   */
+  public static ArrayList<SpaceData> getApiData(@NonNull SpaceData.DataType selection)
+      throws JSONException, IOException {
+    return getApiData(selection, null, null);
+  }
+
+  /**
+   * Queries a certain API for data on events within a date window based on the selection, and
+   * produces SpaceData objects from the returned results. The request is treated as one the user
+   * is waiting on.
+   * @param selection name of selected API to query
+   * @param startDate first UTC day of the window in yyyy-MM-dd format, or null for the API default
+   * @param endDate last UTC day of the window in yyyy-MM-dd format, or null for the API default
+   * @return ArrayList of SpaceData objects with data from the selected API in reverse chronological
+   *         order
+   * @throws JSONException if the data returned by the selected API is not structured as expected or
+   *                       is empty
+   * @throws IOException if a problem occurred when connecting to the selected API over the internet
+   */
+  public static ArrayList<SpaceData> getApiData(@NonNull SpaceData.DataType selection,
+                                                @Nullable String startDate,
+                                                @Nullable String endDate)
+      throws JSONException, IOException {
+    return getApiData(selection, startDate, endDate, RateLimitScheduler.Priority.USER);
+  }
+
+  /**
+   * Queries a certain API for data on events within a date window based on the selection, and
+   * produces SpaceData objects from the returned results. Requests are only sent if the rate limit
+   * scheduler has quota for their priority.
+   * @param selection name of selected API to query
+   * @param startDate first UTC day of the window in yyyy-MM-dd format, or null for the API default
+   * @param endDate last UTC day of the window in yyyy-MM-dd format, or null for the API default
+   * @param priority whether the user is waiting on the request or it is background work
+   * @return ArrayList of SpaceData objects with data from the selected API in reverse chronological
+   *         order
+   * @throws JSONException if the data returned by the selected API is not structured as expected or
+   *                       is empty
+   * @throws RateLimitedException if the request was not sent, or was refused, because of the API's
+   *                              rate limit
+   * @throws IOException if a problem occurred when connecting to the selected API over the internet
+   */
+  public static ArrayList<SpaceData> getApiData(@NonNull SpaceData.DataType selection,
+                                                @Nullable String startDate,
+                                                @Nullable String endDate,
+                                                @NonNull RateLimitScheduler.Priority priority)
+      throws JSONException, IOException {
+    return getApiData(selection, startDate, endDate, priority, null);
+  }
+
+  /**
+   * Queries a certain API for data on events within a date window based on the selection, and
+   * produces SpaceData objects from the returned results, stopping if the fetch is cancelled. A
+   * cancelled fetch sends no request if it has not sent one yet, aborts its request if it has, and
+   * skips parsing a response that has already arrived. Requests are retried, hedged and given a
+   * deadline by the fetch policy.
+   * @param selection name of selected API to query
+   * @param startDate first UTC day of the window in yyyy-MM-dd format, or null for the API default
+   * @param endDate last UTC day of the window in yyyy-MM-dd format, or null for the API default
+   * @param priority whether the user is waiting on the request or it is background work
+   * @param handle cancels the fetch from another thread, or null if it cannot be cancelled
+   * @return ArrayList of SpaceData objects with data from the selected API in reverse chronological
+   *         order
+   * @throws JSONException if the data returned by the selected API is not structured as expected or
+   *                       is empty
+   * @throws RateLimitedException if the request was not sent, or was refused, because of the API's
+   *                              rate limit
+   * @throws ApiUnavailableException if the API has kept failing, so no request was sent
+   * @throws FetchCanceledException if the handle was cancelled
+   * @throws IOException if a problem occurred when connecting to the selected API over the internet
+   */
+  public static ArrayList<SpaceData> getApiData(@NonNull SpaceData.DataType selection,
+                                                @Nullable String startDate,
+                                                @Nullable String endDate,
+                                                @NonNull RateLimitScheduler.Priority priority,
+                                                @Nullable FetchHandle handle)
+      throws JSONException, IOException {
+    //noinspection ConstantConditions Never null as no validators are given
+    return fetchApiData(selection, startDate, endDate, priority, handle, null).spaceData;
+  }
+
+  /**
+   * Queries a certain API for data on events within a date window like getApiData(), but
+   * conditionally on the response having changed since it was last received. If the API says it
+   * has not changed, or its body hashes the same as last time, the result holds no space data, so
+   * the caller can keep the list it already has.
+   * @param selection name of selected API to query
+   * @param startDate first UTC day of the window in yyyy-MM-dd format, or null for the API default
+   * @param endDate last UTC day of the window in yyyy-MM-dd format, or null for the API default
+   * @param priority whether the user is waiting on the request or it is background work
+   * @param handle cancels the fetch from another thread, or null if it cannot be cancelled
+   * @param previous validators of the response last received for the same data type, or null to
+   *                 always receive the response. Validators of a different window just do not
+   *                 match, unless the response is the same
+   * @return the space data in reverse chronological order, or none if unchanged, and the
+   *         validators to send next time
+   * @throws JSONException if the data returned by the selected API is not structured as expected or
+   *                       is empty
+   * @throws RateLimitedException if the request was not sent, or was refused, because of the API's
+   *                              rate limit
+   * @throws ApiUnavailableException if the API has kept failing, so no request was sent
+   * @throws FetchCanceledException if the handle was cancelled
+   * @throws IOException if a problem occurred when connecting to the selected API over the internet
+   */
+  public static ApiResult fetchApiData(@NonNull SpaceData.DataType selection,
+                                       @Nullable String startDate,
+                                       @Nullable String endDate,
+                                       @NonNull RateLimitScheduler.Priority priority,
+                                       @Nullable FetchHandle handle,
+                                       @Nullable HttpValidators previous)
+      throws JSONException, IOException {
+    ApiResult result;
+    try {
+      result = fetchPolicy.execute(selection, priority, handle,
+          request -> requestApiData(selection, startDate, endDate, request, previous));
+    } catch (JSONException e) {
+      e.printStackTrace();
+      String msg =
+          "A problem occurred. Invalid or empty data was received from the API.";
+      throw new JSONException(msg); // No data could be obtained from API
+    } catch (RateLimitedException | ApiUnavailableException | FetchCanceledException e) {
+      throw e; // Already says when to try again, or nobody is waiting for the result
+    } catch (HttpStatusException e) {
+      e.printStackTrace();
+      throw new IOException("A problem occurred. The API responded with an error (HTTP "
+          + e.getStatusCode() + "). Try refreshing later");
+    } catch (InterruptedIOException e) {
+      e.printStackTrace();
+      throw new IOException("A problem occurred. The API took too long to respond."
+          + " Try refreshing later");
+    } catch (IOException e) {
+      e.printStackTrace();
+      String msg = "A problem occurred. Error when trying to connect to API."
+          + " Try turning on WI-FI and refreshing";
+      throw new IOException(msg);
+    }
+
+    // Reverse data order to have most recent first
+    if (result.spaceData != null) Collections.reverse(result.spaceData);
+    return result;
+  }
+
+  /**
+   * Sends one request for the data of a date window and parses the response, in the order the API
+   * returned it, unless it is unchanged since the previous validators were kept. The request is
+   * sent at the priority its handle has now, which is raised if the user joined the fetch.
+   */
+  private static ApiResult requestApiData(@NonNull SpaceData.DataType selection,
+                                          @Nullable String startDate,
+                                          @Nullable String endDate,
+                                          @NonNull FetchHandle handle,
+                                          @Nullable HttpValidators previous)
+      throws JSONException, IOException {
+    handle.throwIfCanceled(); // Before spending any quota
+    RateLimitScheduler rateLimitScheduler = scheduler;
+    RateLimitScheduler.Priority priority = handle.getPriority();
+    // Fails without sending anything if no key has quota left
+    RateLimitScheduler.Permit permit = rateLimitScheduler.acquire(priority);
+    URL builtURL;
+    try {
+      // Build URL with parameters, appended directly as resolving a query-only relative URL
+      // against the endpoint drops its last path segment on some platforms
+      StringBuilder query = new StringBuilder(selection.hyperlink)
+          .append("?api_key=").append(permit.apiKey);
+      if (startDate != null) query.append("&startDate=").append(startDate);
+      if (endDate != null) query.append("&endDate=").append(endDate);
+      builtURL = new URL(query.toString());
+    } catch (MalformedURLException e) {
+      throw new AssertionError(e); // URL in enum shouldn't be malformed
+    }
+
+    // Send request and parse data as it arrives
+    HttpTransport.Request request = new HttpTransport.Request(builtURL);
+    if (previous != null) previous.addTo(request);
+    HttpTransport.Call call = transport.newCall(request);
+    handle.attach(call);
+    try (HttpTransport.Response response = execute(call)) {
+      rateLimitScheduler.onResponse(permit, response);
+      if (response.code == 429) {
+        throw new RateLimitedException(rateLimitScheduler.getRetryAfterMillis(priority));
+      }
+      if (response.code == 304 && previous != null) return ApiResult.notModified(previous);
+      if (!response.isSuccessful()) throw new HttpStatusException(response.code);
+      handle.throwIfCanceled(); // Nobody wants the result
+      // Closing the response returns its connection to the pool
+      return readResponse(selection, response, previous);
+    } catch (IOException e) {
+      // Aborting the call fails it with an ordinary IOException
+      if (handle.isCanceled()) throw new FetchCanceledException();
+      throw e;
+    }
+  }
+
+  /**
+   * Reads the space data from a successful response along with its validators. If the response has
+   * no ETag or Last-Modified header, its body is hashed as it is parsed, so it is never held in
+   * full, and if the hash matches that of the previous response the parsed list is dropped in
+   * favour of the one the caller already has.
+   */
+  private static ApiResult readResponse(@NonNull SpaceData.DataType selection,
+                                        @NonNull HttpTransport.Response response,
+                                        @Nullable HttpValidators previous)
+      throws JSONException, IOException {
+    String etag = response.header("ETag");
+    String lastModified = response.header("Last-Modified");
+    if (etag != null || lastModified != null) {
+      return new ApiResult(parseBody(selection, response.body()),
+          new HttpValidators(etag, lastModified, null));
+    }
+
+    // Parse as the body arrives and hash it on the way
+    MessageDigest digest = sha256();
+    DigestInputStream hashedBody = new DigestInputStream(response.body(), digest);
+    ArrayList<SpaceData> spaceData = parseBody(selection, hashedBody);
+    skipRest(hashedBody); // Anything after the array still counts towards the hash
+    String hash = hex(digest.digest());
+    if (previous != null && hash.equals(previous.contentHash)) {
+      return ApiResult.notModified(previous);
+    }
+    return new ApiResult(spaceData, new HttpValidators(null, null, hash));
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(e); // Every Java platform provides SHA-256
+    }
+  }
+
+  private static void skipRest(InputStream in) throws IOException {
+    byte[] buffer = new byte[512];
+    while (in.read(buffer) != -1) {
+      // Read to the end
+    }
+  }
+
+  private static String hex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return hex.toString();
+  }
+
+  /**
+   * Holds the result of a conditional fetch: either new space data, or none if the response was
+   * unchanged, along with the validators to send with the next request for the same window.
+   */
+  public static final class ApiResult {
+    @Nullable public final ArrayList<SpaceData> spaceData;
+    @NonNull public final HttpValidators validators;
+
+    ApiResult(@Nullable ArrayList<SpaceData> spaceData, @NonNull HttpValidators validators) {
+      this.spaceData = spaceData;
+      this.validators = validators;
+    }
+
+    static ApiResult notModified(@NonNull HttpValidators validators) {
+      PerfMetrics.count(PerfMetrics.Counter.NOT_MODIFIED, 1);
+      return new ApiResult(null, validators);
+    }
+
+    /**
+     * Returns whether the response was unchanged, so the list already held is still current.
+     * @return true if the result holds no space data
+     */
+    public boolean isNotModified() {
+      return spaceData == null;
+    }
+  }
+}
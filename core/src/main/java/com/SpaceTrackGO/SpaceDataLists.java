@@ -0,0 +1,124 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Combines and inspects lists of space data that are kept in reverse chronological order.
+ */
+public final class SpaceDataLists {
+  /**
+   * Orders space data from the most recent event to the oldest, with unknown times last.
+   */
+  public static final Comparator<SpaceData> NEWEST_FIRST = new Comparator<SpaceData>() {
+    @Override
+    public int compare(SpaceData a, SpaceData b) {
+      long timeA = a.getEpochMillis();
+      long timeB = b.getEpochMillis();
+      return timeA < timeB ? 1 : (timeA == timeB ? 0 : -1);
+    }
+  };
+
+  private SpaceDataLists() {}
+
+  /**
+   * Finds the time of the most recent event in a list of space data.
+   * @param spaceData list of space data in any order
+   * @return the most recent event time or EventTime.UNKNOWN if no event has a known time
+   */
+  public static long newestTime(@NonNull List<SpaceData> spaceData) {
+    long newest = EventTime.UNKNOWN;
+    for (int i = 0; i < spaceData.size(); i++) {
+      newest = Math.max(newest, spaceData.get(i).getEpochMillis());
+    }
+    return newest;
+  }
+
+  /**
+   * Finds the space data in a list whose IDs were not in an earlier list, such as the events that
+   * arrived with a refresh. The earlier IDs are put in a hash set, so this is linear in the sizes
+   * of both lists.
+   * @param previous list of space data held before
+   * @param current list of space data held now
+   * @return a new list of the items of current with new IDs, in the order of current
+   */
+  @NonNull
+  public static ArrayList<SpaceData> newSince(@NonNull List<SpaceData> previous,
+                                              @NonNull List<SpaceData> current) {
+    Set<String> previousIds = new HashSet<>(previous.size() * 2);
+    for (int i = 0; i < previous.size(); i++) previousIds.add(previous.get(i).getId());
+
+    ArrayList<SpaceData> added = new ArrayList<>();
+    for (int i = 0; i < current.size(); i++) {
+      SpaceData item = current.get(i);
+      if (!previousIds.contains(item.getId())) added.add(item);
+    }
+    return added;
+  }
+
+  /**
+   * Merges newly fetched space data into an existing list. Fetched items replace existing items
+   * with the same ID, as the API may have updated them, and events older than a cut-off are
+   * dropped so the list does not grow without limit.
+   * @param existing list of space data that is currently held
+   * @param fetched list of space data that was just fetched
+   * @param oldestRetained events before this time in milliseconds since the epoch are dropped
+   * @return a new list of the merged space data in reverse chronological order
+   */
+  @NonNull
+  public static ArrayList<SpaceData> mergeById(@NonNull List<SpaceData> existing,
+                                               @NonNull List<SpaceData> fetched,
+                                               long oldestRetained) {
+    Map<String, SpaceData> byId = new HashMap<>((existing.size() + fetched.size()) * 2);
+    for (SpaceData item : existing) byId.put(item.getId(), item);
+    for (SpaceData item : fetched) byId.put(item.getId(), item);
+
+    ArrayList<SpaceData> merged = new ArrayList<>(byId.size());
+    for (SpaceData item : byId.values()) {
+      long time = item.getEpochMillis();
+      if (time == EventTime.UNKNOWN || time >= oldestRetained) merged.add(item);
+    }
+    Collections.sort(merged, NEWEST_FIRST);
+    return merged;
+  }
+
+  /**
+   * Merges lists of space data that are each already in reverse chronological order into a single
+   * list in that order, by repeatedly taking the most recent head of the lists. Each item is
+   * compared against the other heads only, so this is linear for the handful of event types.
+   * @param lists lists of space data, each in reverse chronological order
+   * @return a new list holding every item from the lists in reverse chronological order
+   */
+  @NonNull
+  public static ArrayList<SpaceData> mergeNewestFirst(@NonNull List<List<SpaceData>> lists) {
+    int total = 0;
+    for (List<SpaceData> list : lists) total += list.size();
+    ArrayList<SpaceData> merged = new ArrayList<>(total);
+
+    int[] heads = new int[lists.size()];
+    while (merged.size() < total) {
+      int newestList = -1;
+      SpaceData newest = null;
+      for (int i = 0; i < heads.length; i++) {
+        List<SpaceData> list = lists.get(i);
+        if (heads[i] == list.size()) continue;
+        SpaceData head = list.get(heads[i]);
+        if (newest == null || NEWEST_FIRST.compare(head, newest) < 0) {
+          newest = head;
+          newestList = i;
+        }
+      }
+      merged.add(newest);
+      heads[newestList]++;
+    }
+    return merged;
+  }
+}
@@ -0,0 +1,332 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists the most recently fetched list of space data for each data type in a compact binary
+ * file, so that lists can be shown straight away when the app is opened again.
+ *
+ * <p>Each file holds a header, a table of strings that repeat between events, and then one record
+ * per event. Description parameters, such as flare classes, and the part of each link before its
+ * report number repeat across many events, so records refer to them by their index in the table
+ * and restoring shares one String between them. Event times are stored already parsed and links
+ * are kept as strings, so nothing needs parsing on the way back in. Files are read through a
+ * memory-mapped buffer, so restoring allocates little beyond the restored objects themselves.
+ * After the records come the HTTP validators of the last response the data came from, so the next
+ * refresh can ask the API whether anything changed.
+ *
+ * <pre>
+ * header:  int magic, int version, long fetchedAt, int eventCount, int tableSize
+ * table:   tableSize strings
+ * record:  long epochMillis, string id, string dateAndTime, byte descriptionTemplate,
+ *          int descriptionParameterIndex, int linkPrefixIndex (-1 if there is no link),
+ *          string linkRemainder, int activeRegion (-1 if there is none)
+ * validators: byte present (0 or 1), then if present: string etag, string lastModified,
+ *          string contentHash (each empty if absent)
+ * string:  int byteLength, UTF-8 bytes
+ * </pre>
+ */
+public class SpaceDataStore {
+  private static final int MAGIC = 0x53544730; // "STG0"
+  private static final int VERSION = 6;
+  private static final int NO_LINK = -1;
+  // Offset of fetchedAt in the header, rewritten in place by touch()
+  private static final int FETCHED_AT_OFFSET = 8;
+  private static final DescriptionTemplate[] TEMPLATES = DescriptionTemplate.values();
+
+  private final File directory;
+
+  /**
+   * Holds a stored list of space data along with the time it was fetched from the API and the
+   * validators of the last response it came from.
+   */
+  public static class Snapshot {
+    public final long fetchedAt;
+    public final List<SpaceData> spaceData;
+    @Nullable public final HttpValidators validators;
+
+    public Snapshot(long fetchedAt, List<SpaceData> spaceData) {
+      this(fetchedAt, spaceData, null);
+    }
+
+    public Snapshot(long fetchedAt, List<SpaceData> spaceData,
+                    @Nullable HttpValidators validators) {
+      this.fetchedAt = fetchedAt;
+      this.spaceData = Collections.unmodifiableList(spaceData);
+      this.validators = validators;
+    }
+  }
+
+  /**
+   * Constructs the SpaceDataStore to keep its files in the given directory.
+   * @param directory directory to store space data files in, created if it does not exist
+   */
+  public SpaceDataStore(@NonNull File directory) {
+    this.directory = directory;
+  }
+
+  private File fileFor(SpaceData.DataType dataType) {
+    return new File(directory, dataType.name().toLowerCase() + ".bin");
+  }
+
+  /**
+   * Reads the stored space data for a data type.
+   * @param dataType the type of space data to read
+   * @return the stored snapshot or null if nothing usable has been stored
+   */
+  @Nullable
+  public Snapshot read(@NonNull SpaceData.DataType dataType) {
+    File file = fileFor(dataType);
+    if (!file.exists()) return null;
+
+    try (FileInputStream in = new FileInputStream(file)) {
+      FileChannel channel = in.getChannel();
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return decode(dataType, buffer);
+    } catch (IOException | BufferUnderflowException e) {
+      e.printStackTrace();
+      //noinspection ResultOfMethodCallIgnored
+      file.delete(); // Corrupt or outdated files are refetched rather than kept
+      return null;
+    }
+  }
+
+  /**
+   * Stores the space data for a data type, replacing what was stored before. The file is written
+   * to a temporary location first so a failed write never leaves a partial file behind.
+   * @param dataType the type of the space data
+   * @param spaceData the list of space data to store
+   * @param fetchedAt time in milliseconds since the epoch that the data was fetched
+   * @return the stored snapshot
+   * @throws IOException if the file could not be written
+   */
+  public Snapshot write(@NonNull SpaceData.DataType dataType,
+                        @NonNull List<SpaceData> spaceData,
+                        long fetchedAt) throws IOException {
+    return write(dataType, spaceData, fetchedAt, null);
+  }
+
+  /**
+   * Stores the space data for a data type along with the validators of the last response it came
+   * from, replacing what was stored before.
+   * @param dataType the type of the space data
+   * @param spaceData the list of space data to store
+   * @param fetchedAt time in milliseconds since the epoch that the data was fetched
+   * @param validators validators of the last response, or null if there are none
+   * @return the stored snapshot
+   * @throws IOException if the file could not be written
+   */
+  public Snapshot write(@NonNull SpaceData.DataType dataType,
+                        @NonNull List<SpaceData> spaceData,
+                        long fetchedAt,
+                        @Nullable HttpValidators validators) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Could not create directory " + directory);
+    }
+    File file = fileFor(dataType);
+    File tempFile = new File(directory, file.getName() + ".tmp");
+
+    // Collect the strings that repeat between events
+    Map<String, Integer> table = new HashMap<>();
+    List<String> tableStrings = new ArrayList<>();
+    int[] parameterIndexes = new int[spaceData.size()];
+    int[] linkPrefixIndexes = new int[spaceData.size()];
+    String[] linkRemainders = new String[spaceData.size()];
+    for (int i = 0; i < spaceData.size(); i++) {
+      SpaceData item = spaceData.get(i);
+      parameterIndexes[i] = indexOf(item.getDescriptionParameter(), table, tableStrings);
+      String link = item.getLink();
+      if (link == null) {
+        linkPrefixIndexes[i] = NO_LINK;
+        linkRemainders[i] = "";
+      } else {
+        int split = linkPrefixLength(link);
+        linkPrefixIndexes[i] = indexOf(link.substring(0, split), table, tableStrings);
+        linkRemainders[i] = link.substring(split);
+      }
+    }
+
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(fetchedAt);
+      out.writeInt(spaceData.size());
+      out.writeInt(tableStrings.size());
+      for (String string : tableStrings) {
+        writeString(out, string);
+      }
+      for (int i = 0; i < spaceData.size(); i++) {
+        SpaceData item = spaceData.get(i);
+        out.writeLong(item.getEpochMillis());
+        writeString(out, item.getId());
+        writeString(out, item.getDateAndTime());
+        out.writeByte(item.getDescriptionTemplate().ordinal());
+        out.writeInt(parameterIndexes[i]);
+        out.writeInt(linkPrefixIndexes[i]);
+        writeString(out, linkRemainders[i]);
+        out.writeInt(item.getActiveRegion());
+      }
+      out.writeBoolean(validators != null);
+      if (validators != null) {
+        writeString(out, orEmpty(validators.etag));
+        writeString(out, orEmpty(validators.lastModified));
+        writeString(out, orEmpty(validators.contentHash));
+      }
+    }
+    if (!tempFile.renameTo(file)) {
+      //noinspection ResultOfMethodCallIgnored
+      tempFile.delete();
+      throw new IOException("Could not replace " + file);
+    }
+    return new Snapshot(fetchedAt, new ArrayList<>(spaceData), validators);
+  }
+
+  /**
+   * Marks the stored space data for a data type as fetched at a later time without rewriting it,
+   * for when the API said it has not changed.
+   * @param dataType the type of the space data
+   * @param fetchedAt time in milliseconds since the epoch that the data was confirmed current
+   * @throws IOException if nothing is stored for the data type or the file could not be written
+   */
+  public void touch(@NonNull SpaceData.DataType dataType, long fetchedAt) throws IOException {
+    File file = fileFor(dataType);
+    if (!file.exists()) throw new IOException("No stored space data for " + dataType);
+    try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+      out.seek(FETCHED_AT_OFFSET);
+      out.writeLong(fetchedAt);
+    }
+  }
+
+  /**
+   * Returns how much of a link is shared with the links of other events, which is everything up to
+   * the report number, for example "https://webtools.ccmc.gsfc.nasa.gov/DONKI/view/FLR/".
+   */
+  private static int linkPrefixLength(String link) {
+    int last = link.lastIndexOf('/');
+    if (last <= 0) return 0;
+    return link.lastIndexOf('/', last - 1) + 1;
+  }
+
+  private static int indexOf(String string, Map<String, Integer> table, List<String> tableStrings) {
+    Integer index = table.get(string);
+    if (index == null) {
+      index = tableStrings.size();
+      table.put(string, index);
+      tableStrings.add(string);
+    }
+    return index;
+  }
+
+  private static String orEmpty(@Nullable String string) {
+    return string == null ? "" : string;
+  }
+
+  @Nullable
+  private static String orNull(String string) {
+    return string.isEmpty() ? null : string;
+  }
+
+  private static void writeString(DataOutputStream out, String string) throws IOException {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Restores a snapshot from the contents of a file written by write().
+   * @throws IOException if the contents are not a snapshot of the current version
+   */
+  private static Snapshot decode(SpaceData.DataType dataType, ByteBuffer buffer)
+      throws IOException {
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+      throw new IOException("Unrecognised space data file");
+    }
+    long fetchedAt = buffer.getLong();
+    int count = buffer.getInt();
+    int tableSize = buffer.getInt();
+    // Every event and table entry takes at least four bytes, which bounds both counts
+    if (count < 0 || tableSize < 0 || count > buffer.remaining() / 4
+        || tableSize > buffer.remaining() / 4) {
+      throw new IOException("Invalid space data counts");
+    }
+
+    StringDecoder decoder = new StringDecoder();
+    String[] table = new String[tableSize];
+    for (int i = 0; i < tableSize; i++) {
+      table[i] = decoder.next(buffer);
+    }
+
+    List<SpaceData> spaceData = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      long epochMillis = buffer.getLong();
+      String id = decoder.next(buffer);
+      String dateAndTime = decoder.next(buffer);
+      int templateIndex = buffer.get();
+      if (templateIndex < 0 || templateIndex >= TEMPLATES.length) {
+        throw new IOException("Invalid description template " + templateIndex);
+      }
+      String descriptionParameter = tableEntry(table, buffer.getInt());
+      int linkPrefixIndex = buffer.getInt();
+      String linkRemainder = decoder.next(buffer);
+      String link = linkPrefixIndex == NO_LINK
+          ? null
+          : tableEntry(table, linkPrefixIndex).concat(linkRemainder);
+      int activeRegion = buffer.getInt();
+      spaceData.add(new SpaceData(id, dataType, dateAndTime, epochMillis,
+          TEMPLATES[templateIndex], descriptionParameter, link, activeRegion));
+    }
+
+    HttpValidators validators = null;
+    byte hasValidators = buffer.get();
+    if (hasValidators == 1) {
+      validators = new HttpValidators(orNull(decoder.next(buffer)), orNull(decoder.next(buffer)),
+          orNull(decoder.next(buffer)));
+    } else if (hasValidators != 0) {
+      throw new IOException("Invalid validator flag " + hasValidators);
+    }
+    if (buffer.hasRemaining()) throw new IOException("Unexpected data after space data");
+    return new Snapshot(fetchedAt, spaceData, validators);
+  }
+
+  private static String tableEntry(String[] table, int index) throws IOException {
+    if (index < 0 || index >= table.length) throw new IOException("Invalid string index " + index);
+    return table[index];
+  }
+
+  /**
+   * Decodes length-prefixed UTF-8 strings from a buffer, copying their bytes through one scratch
+   * array that grows to fit the longest string, so the strings are the only lasting allocations.
+   */
+  private static final class StringDecoder {
+    private byte[] scratch = new byte[256];
+
+    String next(ByteBuffer buffer) throws IOException {
+      int length = buffer.getInt();
+      if (length < 0 || length > buffer.remaining()) {
+        throw new IOException("Invalid string length " + length);
+      }
+      if (length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+      buffer.get(scratch, 0, length);
+      return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+  }
+}
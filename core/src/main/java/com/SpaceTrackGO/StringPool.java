@@ -0,0 +1,49 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds each distinct string once and refers to it by index, so that columns of events can store
+ * strings as ints. Strings are only ever added, so an index stays valid for the life of the pool.
+ */
+final class StringPool {
+  static final int NONE = -1;
+
+  private final Map<String, Integer> indexes = new HashMap<>();
+  private String[] strings = new String[64];
+  private int size = 0;
+
+  /**
+   * Returns the index of a string, adding it to the pool if it is not held yet.
+   * @param string the string to look up
+   * @return the index of the string, or NONE if the string is null
+   */
+  int intern(@Nullable String string) {
+    if (string == null) return NONE;
+    Integer index = indexes.get(string);
+    if (index != null) return index;
+    if (size == strings.length) {
+      String[] grown = new String[size * 2];
+      System.arraycopy(strings, 0, grown, 0, size);
+      strings = grown;
+    }
+    strings[size] = string;
+    indexes.put(string, size);
+    return size++;
+  }
+
+  /**
+   * Returns the array the strings are currently held in. Entries up to the current size never
+   * change, so the array can be read without locking after it is handed out.
+   */
+  String[] strings() {
+    return strings;
+  }
+
+  int size() {
+    return size;
+  }
+}
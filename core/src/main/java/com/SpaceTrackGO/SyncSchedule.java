@@ -0,0 +1,54 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Works out how often the space data of a type should be synced in the background, from how often
+ * events of that type have appeared recently. Types with frequent events are synced often so their
+ * lists open with the newest events already stored, while quiet types are left for longer to save
+ * requests.
+ */
+public final class SyncSchedule {
+  public static final long MIN_INTERVAL = TimeUnit.HOURS.toMillis(1);
+  public static final long MAX_INTERVAL = TimeUnit.HOURS.toMillis(24);
+  // How far back events are counted to estimate how often they appear
+  static final long LOOKBACK = TimeUnit.DAYS.toMillis(14);
+
+  private SyncSchedule() {
+  }
+
+  /**
+   * Returns how long to wait between background syncs of a type, given its stored space data.
+   * Syncs are spaced at half the average gap between recent events, so a new event waits about a
+   * quarter of a gap on average before it is stored.
+   * @param spaceData the stored space data of the type, in any order
+   * @param now the current time in milliseconds since the epoch
+   * @return milliseconds between syncs, from MIN_INTERVAL to MAX_INTERVAL
+   */
+  public static long intervalFor(@NonNull List<SpaceData> spaceData, long now) {
+    long since = now - LOOKBACK;
+    int recent = 0;
+    for (SpaceData item : spaceData) {
+      long epochMillis = item.getEpochMillis();
+      if (epochMillis != EventTime.UNKNOWN && epochMillis >= since && epochMillis <= now) {
+        recent++;
+      }
+    }
+    if (recent == 0) return MAX_INTERVAL;
+    long interval = LOOKBACK / recent / 2;
+    return Math.max(MIN_INTERVAL, Math.min(MAX_INTERVAL, interval));
+  }
+
+  /**
+   * Returns whether stored space data is due to be synced.
+   * @param snapshot the stored space data of the type, or null if there is none
+   * @param now the current time in milliseconds since the epoch
+   * @return true if there is no stored data or it is older than its sync interval
+   */
+  public static boolean isDue(SpaceDataStore.Snapshot snapshot, long now) {
+    return snapshot == null || now - snapshot.fetchedAt >= intervalFor(snapshot.spaceData, now);
+  }
+}
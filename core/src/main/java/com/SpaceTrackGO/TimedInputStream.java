@@ -0,0 +1,46 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Measures the time spent waiting on reads from a stream and the bytes read, so that time spent
+ * receiving a response body can be told apart from time spent parsing it as it arrives.
+ */
+final class TimedInputStream extends FilterInputStream {
+  private long readNanos = 0;
+  private long bytesRead = 0;
+
+  TimedInputStream(@NonNull InputStream in) {
+    super(in);
+  }
+
+  @Override
+  public int read() throws IOException {
+    long start = System.nanoTime();
+    int b = super.read();
+    readNanos += System.nanoTime() - start;
+    if (b != -1) bytesRead++;
+    return b;
+  }
+
+  @Override
+  public int read(@NonNull byte[] b, int off, int len) throws IOException {
+    long start = System.nanoTime();
+    int count = super.read(b, off, len);
+    readNanos += System.nanoTime() - start;
+    if (count > 0) bytesRead += count;
+    return count;
+  }
+
+  long getReadNanos() {
+    return readNanos;
+  }
+
+  long getBytesRead() {
+    return bytesRead;
+  }
+}
@@ -0,0 +1,201 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.HttpURLConnection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Sends requests with HttpURLConnection, using connect and read timeouts so a hung socket cannot
+ * block a thread forever, and asking for gzip compressed responses. Connections are kept alive in
+ * the platform's connection pool, which is shared by the whole process, and response bodies are
+ * read to the end when closed so their connection can be returned to the pool. The pool is sized
+ * by configureConnectionPool(), called once when the app starts, rather than by each transport.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+  static final int DEFAULT_CONNECT_TIMEOUT = 10_000;
+  static final int DEFAULT_READ_TIMEOUT = 15_000;
+  public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+
+  // Bodies larger than this are not worth draining just to reuse the connection
+  private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+  private final int connectTimeout;
+  private final int readTimeout;
+  private final AtomicLong bytesReceived = new AtomicLong();
+
+  /**
+   * Constructs the UrlConnectionTransport with the default timeouts.
+   */
+  public UrlConnectionTransport() {
+    this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
+  }
+
+  /**
+   * Constructs the UrlConnectionTransport.
+   * @param connectTimeout milliseconds to wait for a connection to be established
+   * @param readTimeout milliseconds to wait for data while reading a response
+   */
+  public UrlConnectionTransport(int connectTimeout, int readTimeout) {
+    this.connectTimeout = connectTimeout;
+    this.readTimeout = readTimeout;
+  }
+
+  /**
+   * Turns on keep-alive and sets how many idle connections per host the platform's connection
+   * pool keeps. These are process-wide system properties that the platform reads when it creates
+   * its pool, so this must be called once, before the first connection is opened; a later call
+   * does not resize a pool that already exists.
+   * @param maxIdleConnections how many idle connections per host the pool keeps alive
+   */
+  public static void configureConnectionPool(int maxIdleConnections) {
+    System.setProperty("http.keepAlive", "true");
+    System.setProperty("http.maxConnections", Integer.toString(maxIdleConnections));
+  }
+
+  /**
+   * Returns the number of body bytes received over the network, before decompression.
+   * @return total bytes received by calls made with this transport
+   */
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
+
+  @NonNull
+  @Override
+  public Call newCall(@NonNull Request request) {
+    return new UrlConnectionCall(request);
+  }
+
+  private class UrlConnectionCall implements Call {
+    private final Request request;
+    private volatile HttpURLConnection connection;
+    private volatile boolean canceled;
+
+    UrlConnectionCall(Request request) {
+      this.request = request;
+    }
+
+    @NonNull
+    @Override
+    public Response execute() throws IOException {
+      if (canceled) throw new IOException("Canceled");
+      HttpURLConnection connection = (HttpURLConnection) request.url.openConnection();
+      this.connection = connection;
+      // A cancel() that came before the connection was set could not disconnect it
+      if (canceled) {
+        connection.disconnect();
+        throw new IOException("Canceled");
+      }
+      connection.setConnectTimeout(connectTimeout);
+      connection.setReadTimeout(readTimeout);
+      // Setting this explicitly means decompression is done here on every platform
+      connection.setRequestProperty("Accept-Encoding", "gzip");
+      for (Map.Entry<String, String> header : request.headers().entrySet()) {
+        connection.setRequestProperty(header.getKey(), header.getValue());
+      }
+
+      try {
+        int code = connection.getResponseCode();
+        if (canceled) throw new IOException("Canceled");
+        InputStream raw = code >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (raw == null) raw = new ByteArrayInputStream(new byte[0]);
+        InputStream body = new CountingInputStream(raw);
+        if ("gzip".equalsIgnoreCase(connection.getContentEncoding()) && mayHaveBody(code)) {
+          body = gunzipUnlessEmpty(body);
+        }
+        return new Response(code, connection.getHeaderFields(), new ReusableBody(body));
+      } catch (IOException e) {
+        connection.disconnect();
+        if (canceled) throw new IOException("Canceled", e);
+        throw e;
+      }
+    }
+
+    @Override
+    public void cancel() {
+      canceled = true;
+      HttpURLConnection connection = this.connection;
+      if (connection != null) connection.disconnect();
+    }
+
+    @Override
+    public boolean isCanceled() {
+      return canceled;
+    }
+  }
+
+  /**
+   * Returns whether a response with a status code may carry a body, as 1xx, 204 and 304 responses
+   * never do even when they repeat the Content-Encoding of the resource.
+   */
+  private static boolean mayHaveBody(int code) {
+    return code >= 200 && code != 204 && code != 304;
+  }
+
+  /**
+   * Wraps a gzip encoded body in a decompressing stream, unless the body is empty. The gzip header
+   * is read as soon as the stream is constructed, so an empty body would fail with EOFException.
+   */
+  private static InputStream gunzipUnlessEmpty(InputStream body) throws IOException {
+    PushbackInputStream peekable = new PushbackInputStream(body, 1);
+    int first = peekable.read();
+    if (first == -1) return peekable;
+    peekable.unread(first);
+    return new GZIPInputStream(peekable);
+  }
+
+  /**
+   * Counts the bytes read from the network stream.
+   */
+  private class CountingInputStream extends FilterInputStream {
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) bytesReceived.incrementAndGet();
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int count = super.read(buffer, offset, length);
+      if (count > 0) bytesReceived.addAndGet(count);
+      return count;
+    }
+  }
+
+  /**
+   * Reads any small remainder of the body when closed, as a connection can only be returned to the
+   * pool once its response has been fully read.
+   */
+  private static class ReusableBody extends FilterInputStream {
+    ReusableBody(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        byte[] buffer = new byte[4096];
+        int drained = 0;
+        int count;
+        while (drained < MAX_DRAIN_BYTES && (count = in.read(buffer)) != -1) drained += count;
+      } catch (IOException e) {
+        // The connection is discarded rather than reused
+      } finally {
+        super.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.SpaceTrackGO;
+
+import org.junit.Test;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that formatting the time parsed at ingest with a shared DateDisplayFormatter shows the
+ * same date on each list row as parsing the timestamp string on every bind, as SpaceDataAdapter
+ * used to. The cost of formatting is measured by CacheBenchmark.formatDates().
+ */
+public class DateDisplayFormatterTest {
+  private static final int EVENTS = 2_000;
+  private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+  // West of UTC, so events early in the UTC day fall on the day before in local time
+  private static final TimeZone LOS_ANGELES = TimeZone.getTimeZone("America/Los_Angeles");
+
+  private static String[] timestamps() {
+    String[] timestamps = new String[EVENTS];
+    for (int i = 0; i < EVENTS; i++) {
+      // Spread events over a few months, several per day, like a scrolled event list
+      timestamps[i] = String.format(Locale.US, "2022-%02d-%02dT%02d:%02dZ",
+          1 + (i / 400) % 12, 1 + (i / 16) % 28, i % 24, (i * 7) % 60);
+    }
+    return timestamps;
+  }
+
+  private static DateFormat displayFormat(TimeZone deviceZone) {
+    DateFormat format = DateFormat.getDateInstance(DateFormat.SHORT, Locale.US);
+    format.setTimeZone(deviceZone);
+    return format;
+  }
+
+  /**
+   * Mirrors the bind path before times were parsed at ingest, which read the literal Z as a time
+   * in the device's zone and formatted it in that zone too, so showed the UTC calendar date.
+   */
+  private static String formatPerBind(String timestamp, TimeZone deviceZone)
+      throws ParseException {
+    SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm'Z'", Locale.US);
+    simpleDateFormat.setTimeZone(deviceZone);
+    Date date = simpleDateFormat.parse(timestamp);
+    return displayFormat(deviceZone).format(date);
+  }
+
+  @Test
+  public void cachedFormatter_matchesPerBindFormatting() throws ParseException {
+    DateDisplayFormatter formatter = new DateDisplayFormatter(displayFormat(UTC));
+    for (String timestamp : timestamps()) {
+      assertEquals(formatPerBind(timestamp, UTC), formatter.format(EventTime.parse(timestamp)));
+    }
+    assertEquals("", formatter.format(EventTime.parse("not a time")));
+  }
+
+  @Test
+  public void cachedFormatter_showsUtcDayInDeviceZoneWestOfUtc() throws ParseException {
+    DateDisplayFormatter formatter = new DateDisplayFormatter(displayFormat(LOS_ANGELES));
+    for (String timestamp : timestamps()) {
+      assertEquals(formatPerBind(timestamp, LOS_ANGELES),
+          formatter.format(EventTime.parse(timestamp)));
+    }
+    assertEquals("3/1/22", formatter.format(EventTime.parse("2022-03-01T02:00Z")));
+  }
+}
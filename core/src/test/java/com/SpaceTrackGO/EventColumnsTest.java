@@ -0,0 +1,260 @@
+package com.SpaceTrackGO;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that events read back from EventColumns match the space data they were stored from, and
+ * that filters, searches, indexed queries and magnitudes behave as documented.
+ */
+public class EventColumnsTest {
+  private static List<SpaceData> parse(SpaceData.DataType type, String json) throws Exception {
+    return SpaceData.formSpaceData(type, new StringReader(json));
+  }
+
+  private static List<SpaceData> mixedEvents() throws Exception {
+    List<SpaceData> spaceData = new ArrayList<>();
+    spaceData.addAll(parse(SpaceData.DataType.FLR, "["
+        + "{\"flrID\": \"F1\", \"beginTime\": \"2022-03-04T02:11Z\", \"classType\": \"X1.3\","
+        + " \"activeRegionNum\": 12954,"
+        + " \"link\": \"https://webtools.ccmc.gsfc.nasa.gov/DONKI/view/FLR/19023/-1\"},"
+        + "{\"flrID\": \"F2\", \"beginTime\": \"2022-03-03T10:21Z\", \"classType\": \"M2.4\","
+        + " \"activeRegionNum\": null}]"));
+    spaceData.addAll(parse(SpaceData.DataType.GST, "["
+        + "{\"gstID\": \"G1\", \"startTime\": \"2022-03-02T15:00Z\","
+        + " \"allKpIndex\": [{\"kpIndex\": 5}, {\"kpIndex\": 7}]},"
+        + "{\"gstID\": \"G2\", \"startTime\": \"2022-03-01T09:00Z\", \"allKpIndex\": []}]"));
+    spaceData.addAll(parse(SpaceData.DataType.CME, "["
+        + "{\"activityID\": \"C1\", \"startTime\": \"2022-02-28T01:36Z\", \"note\": \"Halo\"}]"));
+    return spaceData;
+  }
+
+  @Test
+  public void view_readsBackEveryField() throws Exception {
+    List<SpaceData> spaceData = mixedEvents();
+    EventView view = EventColumns.viewOf(spaceData);
+
+    assertEquals(spaceData.size(), view.size());
+    for (int i = 0; i < spaceData.size(); i++) {
+      SpaceData item = spaceData.get(i);
+      assertEquals(item.getId(), view.id(i));
+      assertEquals(item.getDataType(), view.dataType(i));
+      assertEquals(item.getEpochMillis(), view.epochMillis(i));
+      assertEquals(item.getDescription(), view.description(i));
+      assertEquals(item.getLink(), view.link(i));
+      assertEquals(item.getActiveRegion(), view.activeRegion(i));
+      assertEquals(item, view.toSpaceData(i));
+      assertTrue(view.sameContents(i, EventColumns.viewOf(spaceData), i));
+    }
+    assertNotEquals(view.stableId(0), view.stableId(1));
+  }
+
+  @Test
+  public void filter_matchesTimeTypeAndMagnitude() throws Exception {
+    EventView view = EventColumns.viewOf(mixedEvents());
+    int[] positions = new int[view.size()];
+
+    int flares = view.filter(Long.MIN_VALUE, Long.MAX_VALUE,
+        EventView.typeMask(SpaceData.DataType.FLR), EventColumns.NO_MAGNITUDE, positions);
+    assertEquals(2, flares);
+
+    int strong = view.filter(Long.MIN_VALUE, Long.MAX_VALUE, EventView.allTypes(),
+        EventColumns.flareMagnitude("X1.0"), positions);
+    assertEquals(1, strong);
+    assertEquals("F1", view.id(positions[0]));
+
+    int march = view.filter(EventTime.parse("2022-03-01T00:00Z"),
+        EventTime.parse("2022-03-03T00:00Z"), EventView.allTypes(), EventColumns.NO_MAGNITUDE,
+        positions);
+    EventView selected = view.select(positions, march);
+    assertEquals(2, selected.size());
+    assertEquals("G1", selected.id(0));
+    assertEquals("G2", selected.id(1));
+  }
+
+  @Test
+  public void newEvents_areMatchedAgainstAlertFilter() throws Exception {
+    List<SpaceData> current = mixedEvents();
+    List<SpaceData> previous = new ArrayList<>(current);
+    previous.remove(2); // G1, Kp 7
+    previous.remove(0); // F1, X1.3
+
+    List<SpaceData> added = SpaceDataLists.newSince(previous, current);
+    assertEquals(2, added.size());
+    assertEquals("F1", added.get(0).getId());
+    assertEquals("G1", added.get(1).getId());
+    assertTrue(SpaceDataLists.newSince(current, current).isEmpty());
+
+    EventFilter alerts = EventFilter.NONE
+        .atLeast(SpaceData.DataType.FLR, EventColumns.flareMagnitude("X1.0"));
+    assertTrue(alerts.matches(added.get(0)));
+    assertFalse(alerts.matches(added.get(1)));
+    EventFilter kp7 = alerts.atLeast(SpaceData.DataType.GST, EventColumns.kpMagnitude(7));
+    assertTrue(kp7.matches(added.get(1)));
+    EventFilter kp8 = alerts.atLeast(SpaceData.DataType.GST, EventColumns.kpMagnitude(8));
+    assertFalse(kp8.matches(added.get(1)));
+  }
+
+  @Test
+  public void magnitudes_orderByStrength() throws Exception {
+    EventView view = EventColumns.viewOf(mixedEvents());
+    assertEquals(4013, view.magnitude(0));
+    assertEquals(3024, view.magnitude(1));
+    assertEquals(EventColumns.kpMagnitude(7), view.magnitude(2));
+    assertEquals(EventColumns.NO_MAGNITUDE, view.magnitude(3));
+    assertEquals(EventColumns.NO_MAGNITUDE, view.magnitude(4));
+
+    assertTrue(EventColumns.flareMagnitude("A9.9") < EventColumns.flareMagnitude("B1"));
+    assertEquals(4280, EventColumns.flareMagnitude("X28"));
+    assertEquals(EventColumns.NO_MAGNITUDE, EventColumns.flareMagnitude("Q1.0"));
+    assertEquals(EventColumns.NO_MAGNITUDE, EventColumns.flareMagnitude("M1.0x"));
+    assertEquals(70, EventColumns.kpMagnitude(7));
+  }
+
+  @Test
+  public void views_areUnaffectedByLaterAppends() throws Exception {
+    List<SpaceData> spaceData = mixedEvents();
+    EventColumns columns = new EventColumns();
+    int[] firstRows = columns.appendAll(spaceData.subList(0, 1));
+    EventView first = columns.view(firstRows);
+    for (int i = 0; i < 100; i++) columns.appendAll(spaceData); // Forces the arrays to grow
+
+    assertEquals(1, first.size());
+    assertEquals("F1", first.id(0));
+    EventColumns compacted = new EventColumns();
+    EventView copied = compacted.view(compacted.appendAll(first));
+    assertEquals("F1", copied.id(0));
+  }
+
+  @Test
+  public void search_matchesBeginningsOfWords() throws Exception {
+    EventView view = EventColumns.viewOf(mixedEvents());
+
+    EventView halo = view.search("HAL");
+    assertEquals(1, halo.size());
+    assertEquals("C1", halo.id(0));
+    // Every word must match, from either the description or the ID
+    assertEquals(1, view.search("class m2").size());
+    assertEquals("F2", view.search("f2 flare").id(0));
+    assertEquals(2, view.search("kp-index").size());
+    assertEquals(0, view.search("halo kp").size());
+    assertEquals(view.size(), view.search(" ").size());
+  }
+
+  @Test
+  public void search_findsFlaresByActiveRegion() throws Exception {
+    EventView view = EventColumns.viewOf(mixedEvents());
+    assertEquals(12954, view.activeRegion(0));
+    assertEquals(SpaceData.NO_ACTIVE_REGION, view.activeRegion(1));
+
+    assertEquals("F1", view.search("12954").id(0));
+    assertEquals(1, view.search("AR12954").size());
+    assertEquals(1, view.search("flare 1295").size());
+    assertEquals(0, view.search("12955").size());
+    assertEquals(0, view.search("halo 12954").size());
+  }
+
+  @Test
+  public void search_indexesRowsAppendedAfterEarlierSearches() throws Exception {
+    List<SpaceData> spaceData = mixedEvents();
+    EventColumns columns = new EventColumns();
+    EventView first = columns.view(columns.appendAll(spaceData.subList(0, 2)));
+    assertEquals(0, first.search("halo").size());
+
+    EventView all = columns.view(columns.appendAll(spaceData));
+    assertEquals(1, all.search("halo").size());
+    // Positions are within the view searched, not row numbers
+    int[] positions = new int[all.size()];
+    assertEquals(1, all.search("x1", positions));
+    assertEquals(0, positions[0]);
+  }
+
+  @Test
+  public void query_kpAndFlareClassInTimeRange() throws Exception {
+    EventView view = EventColumns.viewOf(mixedEvents());
+    int[] positions = new int[view.size()];
+
+    EventFilter strongStorms =
+        EventFilter.NONE.atLeast(SpaceData.DataType.GST, EventColumns.kpMagnitude(7));
+    assertEquals(1, view.query(strongStorms, positions));
+    assertEquals("G1", view.id(positions[0]));
+
+    // Restricting two types shows both, and nothing of the others
+    EventFilter strong = strongStorms
+        .atLeast(SpaceData.DataType.FLR, EventColumns.flareMagnitude("X1.0"));
+    assertEquals(2, view.query(strong, positions));
+    assertEquals("F1", view.id(positions[0]));
+    assertEquals("G1", view.id(positions[1]));
+
+    EventFilter march = EventFilter.NONE.between(EventTime.parse("2022-03-01T00:00Z"),
+        EventTime.parse("2022-03-03T00:00Z"));
+    assertEquals(2, view.query(march, positions));
+    assertEquals(0, view.query(march.atLeast(SpaceData.DataType.FLR, 0), positions));
+    assertEquals(view.size(), view.query(EventFilter.NONE, positions));
+    assertTrue(EventFilter.NONE.between(Long.MIN_VALUE, Long.MAX_VALUE).matchesEverything());
+  }
+
+  @Test
+  public void withinLast_movesWithTheTimeItIsAppliedAt() throws Exception {
+    EventView view = EventColumns.viewOf(mixedEvents());
+    int[] positions = new int[view.size()];
+    EventFilter lastDay = EventFilter.NONE.withinLast(TimeUnit.DAYS.toMillis(1));
+    assertFalse(lastDay.matchesEverything());
+    assertEquals(lastDay, EventFilter.NONE.withinLast(TimeUnit.DAYS.toMillis(1)));
+
+    assertEquals(3, view.query(lastDay.at(EventTime.parse("2022-03-03T12:00Z")), positions));
+    assertEquals(1, view.query(lastDay.at(EventTime.parse("2022-03-04T12:00Z")), positions));
+    assertEquals("F1", view.id(positions[0]));
+    assertSame(EventFilter.NONE, EventFilter.NONE.at(System.currentTimeMillis()));
+  }
+
+  @Test
+  public void query_matchesScanOfEveryEvent() {
+    Random random = new Random(7);
+    SpaceData.DataType[] dataTypes = SpaceData.DataType.values();
+    long start = EventTime.parse("2020-01-01T00:00Z");
+    List<SpaceData> spaceData = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      SpaceData.DataType dataType = dataTypes[random.nextInt(dataTypes.length)];
+      long time = start + random.nextInt(1000) * TimeUnit.HOURS.toMillis(1);
+      DescriptionTemplate template = dataType == SpaceData.DataType.GST
+          ? DescriptionTemplate.KP_INDEX
+          : dataType == SpaceData.DataType.FLR
+              ? DescriptionTemplate.FLARE_CLASS
+              : DescriptionTemplate.NOTE;
+      String parameter = dataType == SpaceData.DataType.GST
+          ? String.valueOf(random.nextInt(10))
+          : "MX".charAt(random.nextInt(2)) + "1." + random.nextInt(10);
+      spaceData.add(new SpaceData("E" + i, dataType, "", time, template, parameter, null));
+    }
+    EventView view = EventColumns.viewOf(spaceData);
+    int[] positions = new int[view.size()];
+
+    for (int i = 0; i < 200; i++) {
+      long from = start + random.nextInt(1000) * TimeUnit.HOURS.toMillis(1);
+      EventFilter filter = EventFilter.NONE
+          .between(from, from + random.nextInt(500) * TimeUnit.HOURS.toMillis(1));
+      if (random.nextBoolean()) filter = filter.atLeast(SpaceData.DataType.GST, random.nextInt(90));
+      if (random.nextBoolean()) {
+        filter = filter.atLeast(SpaceData.DataType.FLR, 3000 + random.nextInt(2000));
+      }
+
+      int count = view.query(filter, positions);
+      int expected = 0;
+      for (int position = 0; position < view.size(); position++) {
+        if (filter.matches(view.epochMillis(position), view.dataType(position).ordinal(),
+            view.magnitude(position))) {
+          assertEquals(position, positions[expected++]);
+        }
+      }
+      assertEquals(expected, count);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.SpaceTrackGO;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that EventViewBuilder only stores the events a list adds to the one before it, and that
+ * its views read and search the same as views built from scratch.
+ */
+public class EventViewBuilderTest {
+  private static final long NOW = EventTime.parse("2024-06-01T00:00Z");
+
+  private static SpaceData flare(int number, String flareClass) {
+    return new SpaceData("FLR-" + number, SpaceData.DataType.FLR, "",
+        NOW - TimeUnit.HOURS.toMillis(number), DescriptionTemplate.FLARE_CLASS, flareClass, null);
+  }
+
+  private static List<SpaceData> flares(int from, int to) {
+    List<SpaceData> flares = new ArrayList<>();
+    for (int i = from; i < to; i++) flares.add(flare(i, "C1." + i % 10));
+    return flares;
+  }
+
+  private static void assertSameAsFromScratch(List<SpaceData> spaceData, EventView view) {
+    EventView expected = EventColumns.viewOf(spaceData);
+    assertEquals(expected.size(), view.size());
+    for (int i = 0; i < view.size(); i++) assertTrue(view.sameContents(i, expected, i));
+  }
+
+  @Test
+  public void mergedList_onlyStoresNewAndUpdatedEvents() {
+    EventViewBuilder builder = new EventViewBuilder();
+    List<SpaceData> held = flares(10, 110);
+    builder.viewOf(held);
+    assertEquals(100, builder.rowsStored());
+
+    // A refresh merges in two new flares and an update to one that was held
+    List<SpaceData> fetched = new ArrayList<>(flares(0, 2));
+    fetched.add(flare(10, "X2.0"));
+    List<SpaceData> merged = SpaceDataLists.mergeById(held, fetched, 0);
+    EventView view = builder.viewOf(merged);
+    assertEquals(103, builder.rowsStored());
+    assertSameAsFromScratch(merged, view);
+    assertEquals(1, view.search("X2").size());
+
+    // Refetching the same events stores nothing
+    builder.viewOf(new ArrayList<>(merged));
+    assertEquals(103, builder.rowsStored());
+  }
+
+  @Test
+  public void droppedEvents_areLetGoOnceMostRowsAreUnused() {
+    EventViewBuilder builder = new EventViewBuilder();
+    List<SpaceData> latest = Collections.emptyList();
+    for (int start = 0; start < 5_000; start += 100) {
+      latest = flares(start, start + 100);
+      assertSameAsFromScratch(latest, builder.viewOf(latest));
+    }
+    assertTrue(builder.rowsStored() <= latest.size() * 3 + 512);
+  }
+}
@@ -0,0 +1,149 @@
+package com.SpaceTrackGO;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that FetchCoalescer shares a fetch between callers, and only cancels it once every caller
+ * attached to it has detached.
+ */
+public class FetchCoalescerTest {
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final FetchCoalescer<String, String> fetcher = new FetchCoalescer<>(executor);
+  private final List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void detachingOneCaller_leavesSharedFetchRunning() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    FetchHandle[] handle = new FetchHandle[1];
+    Future<String> first = fetcher.fetch("CME", RateLimitScheduler.Priority.USER, fetchHandle -> {
+      handle[0] = fetchHandle;
+      release.await();
+      return "events";
+    }, result -> delivered.add("first " + result));
+    Future<String> second = fetcher.fetch("CME", RateLimitScheduler.Priority.USER,
+        fetchHandle -> "unused", result -> delivered.add("second " + result));
+
+    assertTrue(first.cancel(true));
+    assertTrue(first.isCancelled());
+    release.countDown();
+    assertEquals("events", second.get(5, TimeUnit.SECONDS));
+    assertFalse(handle[0].isCanceled());
+    awaitDelivery(1);
+    assertEquals(Collections.singletonList("second events"), delivered);
+    assertEquals(1, fetcher.getRequestsIssued());
+    assertEquals(0, fetcher.getRequestsCanceled());
+  }
+
+  @Test
+  public void detachingLastCaller_cancelsFetchAndNextCallerStartsAgain() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch stopped = new CountDownLatch(1);
+    Future<String> stale = fetcher.fetch("FLR", RateLimitScheduler.Priority.USER, handle -> {
+      started.countDown();
+      while (!handle.isCanceled()) Thread.sleep(1);
+      stopped.countDown();
+      throw new FetchCanceledException();
+    }, delivered::add);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    assertTrue(stale.cancel(true));
+    assertTrue(stopped.await(5, TimeUnit.SECONDS));
+    assertEquals(1, fetcher.getRequestsCanceled());
+
+    Future<String> fresh = fetcher.fetch("FLR", RateLimitScheduler.Priority.USER,
+        handle -> "events", delivered::add);
+    assertEquals("events", fresh.get(5, TimeUnit.SECONDS));
+    assertFalse(fresh.cancel(true)); // Already done
+    awaitDelivery(1);
+    assertEquals(Collections.singletonList("events"), delivered);
+    assertEquals(2, fetcher.getRequestsIssued());
+  }
+
+  @Test
+  public void userJoiningBackgroundFetch_raisesItsPriority() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    FetchHandle[] handle = new FetchHandle[2];
+    Future<String> prefetch = fetcher.fetch("GST", RateLimitScheduler.Priority.BACKGROUND,
+        fetchHandle -> {
+          handle[0] = fetchHandle;
+          handle[1] = fetchHandle.child(); // A request already in flight
+          started.countDown();
+          release.await();
+          return fetchHandle.getPriority().name();
+        }, null);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    assertEquals(RateLimitScheduler.Priority.BACKGROUND, handle[0].getPriority());
+
+    Future<String> load = fetcher.fetch("GST", RateLimitScheduler.Priority.USER,
+        fetchHandle -> "unused", null);
+    assertEquals(RateLimitScheduler.Priority.USER, handle[0].getPriority());
+    assertEquals(RateLimitScheduler.Priority.USER, handle[1].getPriority());
+    release.countDown();
+    assertEquals("USER", load.get(5, TimeUnit.SECONDS));
+    assertEquals("USER", prefetch.get(5, TimeUnit.SECONDS));
+    assertEquals(1, fetcher.getRequestsIssued());
+    assertEquals(1, fetcher.getRequestsCoalesced());
+  }
+
+  @Test
+  public void backgroundCaller_doesNotLowerUserFetch() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    Future<String> load = fetcher.fetch("FLR", RateLimitScheduler.Priority.USER, fetchHandle -> {
+      release.await();
+      return fetchHandle.getPriority().name();
+    }, null);
+    fetcher.fetch("FLR", RateLimitScheduler.Priority.BACKGROUND, fetchHandle -> "unused", null);
+    release.countDown();
+    assertEquals("USER", load.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void userJoiningBackgroundFetch_isNotRefusedByBackgroundReserve() throws Exception {
+    RateLimitScheduler scheduler = new RateLimitScheduler(Collections.singletonList("key"),
+        System::currentTimeMillis, new Random(1));
+    // Only the quota kept in reserve for the user is left
+    scheduler.onResponse(scheduler.acquire(RateLimitScheduler.Priority.USER), 200, "30", "5",
+        null);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<String> prefetch = fetcher.fetch("GST", RateLimitScheduler.Priority.BACKGROUND,
+        fetchHandle -> {
+          started.countDown();
+          release.await();
+          // The request is sent at the priority the fetch has by then, as SpaceData does
+          return scheduler.acquire(fetchHandle.getPriority()).apiKey;
+        }, null);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    // The button is touched while the prefetch is still waiting to send its request
+    Future<String> touchDown = fetcher.fetch("GST", RateLimitScheduler.Priority.USER,
+        fetchHandle -> "unused", null);
+    release.countDown();
+    assertEquals("key", touchDown.get(5, TimeUnit.SECONDS));
+    assertEquals("key", prefetch.get(5, TimeUnit.SECONDS));
+  }
+
+  private void awaitDelivery(int count) throws InterruptedException {
+    // Callbacks run on the fetching thread just after the result is set
+    for (int i = 0; i < 500 && delivered.size() < count; i++) Thread.sleep(10);
+  }
+}
@@ -0,0 +1,182 @@
+package com.SpaceTrackGO;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that FetchPolicy retries only errors that may not happen again, hedges slow requests,
+ * keeps to its deadline and stops sending requests to an endpoint that keeps failing.
+ */
+public class FetchPolicyTest {
+  private static final SpaceData.DataType ENDPOINT = SpaceData.DataType.FLR;
+
+  private long now = 1_000_000L;
+  private final AtomicInteger requests = new AtomicInteger();
+
+  private FetchPolicy policy(long deadline) {
+    return new FetchPolicy(deadline, 10, 60_000, () -> now, new Random(1));
+  }
+
+  @Test
+  public void serverErrors_areRetriedUntilSuccess() throws Exception {
+    String result = policy(5_000).execute(ENDPOINT, RateLimitScheduler.Priority.USER, null,
+        handle -> {
+          if (requests.incrementAndGet() < FetchPolicy.MAX_ATTEMPTS) {
+            throw new HttpStatusException(503);
+          }
+          return "events";
+        });
+    assertEquals("events", result);
+    assertEquals(FetchPolicy.MAX_ATTEMPTS, requests.get());
+  }
+
+  @Test
+  public void clientErrors_areNotRetried() throws Exception {
+    try {
+      policy(5_000).execute(ENDPOINT, RateLimitScheduler.Priority.USER, null, handle -> {
+        requests.incrementAndGet();
+        throw new HttpStatusException(404);
+      });
+      fail("Expected the error");
+    } catch (HttpStatusException e) {
+      assertEquals(404, e.getStatusCode());
+    }
+    assertEquals(1, requests.get());
+  }
+
+  @Test
+  public void slowRequest_isHedgedAndAborted() throws Exception {
+    FetchPolicy policy = policy(5_000);
+    for (int i = 0; i < FetchPolicy.MIN_HEDGE_SAMPLES; i++) {
+      policy.latency(ENDPOINT).record(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+    FetchHandle[] first = new FetchHandle[1];
+
+    long start = System.nanoTime();
+    String result = policy.execute(ENDPOINT, RateLimitScheduler.Priority.USER, null, handle -> {
+      if (requests.incrementAndGet() == 1) {
+        first[0] = handle;
+        awaitCancel(handle);
+        throw new FetchCanceledException();
+      }
+      return "hedged";
+    });
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    assertEquals("hedged", result);
+    assertEquals(2, requests.get());
+    assertTrue(first[0].isCanceled());
+    assertTrue("Took " + elapsedMillis + "ms", elapsedMillis < 2_000);
+  }
+
+  @Test
+  public void backgroundRequests_areNotHedged() throws Exception {
+    String result = policy(5_000).execute(ENDPOINT, RateLimitScheduler.Priority.BACKGROUND, null,
+        handle -> {
+          requests.incrementAndGet();
+          sleep(FetchPolicy.DEFAULT_HEDGE_DELAY + 200);
+          return "events";
+        });
+    assertEquals("events", result);
+    assertEquals(1, requests.get());
+  }
+
+  @Test
+  public void backgroundRequest_isHedgedOnceRaisedToUser() throws Exception {
+    FetchPolicy policy = policy(5_000);
+    for (int i = 0; i < FetchPolicy.MIN_HEDGE_SAMPLES; i++) {
+      policy.latency(ENDPOINT).record(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+    FetchHandle fetch = new FetchHandle();
+    RateLimitScheduler.Priority[] hedgedAt = new RateLimitScheduler.Priority[1];
+
+    String result = policy.execute(ENDPOINT, RateLimitScheduler.Priority.BACKGROUND, fetch,
+        handle -> {
+          if (requests.incrementAndGet() == 1) {
+            sleep(FetchPolicy.MIN_HEDGE_DELAY);
+            fetch.raisePriority(RateLimitScheduler.Priority.USER); // A load joined the fetch
+            awaitCancel(handle);
+            throw new FetchCanceledException();
+          }
+          hedgedAt[0] = handle.getPriority();
+          return "hedged";
+        });
+    assertEquals("hedged", result);
+    assertEquals(2, requests.get());
+    assertEquals(RateLimitScheduler.Priority.USER, hedgedAt[0]);
+  }
+
+  @Test
+  public void hungRequest_failsAtDeadline() throws Exception {
+    FetchHandle[] request = new FetchHandle[1];
+    long start = System.nanoTime();
+    try {
+      policy(300).execute(ENDPOINT, RateLimitScheduler.Priority.USER, null, handle -> {
+        request[0] = handle;
+        awaitCancel(handle);
+        throw new FetchCanceledException();
+      });
+      fail("Expected the deadline to pass");
+    } catch (InterruptedIOException e) {
+      long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+      assertTrue("Took " + elapsedMillis + "ms", elapsedMillis < 1_000);
+    }
+    assertTrue(request[0].isCanceled());
+  }
+
+  @Test
+  public void failingEndpoint_failsFastUntilCoolDownPasses() throws Exception {
+    FetchPolicy policy = policy(5_000);
+    int failures = 0;
+    while (!policy.isUnavailable(ENDPOINT)) {
+      try {
+        policy.execute(ENDPOINT, RateLimitScheduler.Priority.USER, null, handle -> {
+          requests.incrementAndGet();
+          throw new IOException("Connection reset");
+        });
+      } catch (IOException e) {
+        failures++;
+      }
+      assertTrue(failures < CircuitBreaker.FAILURE_THRESHOLD);
+    }
+    assertEquals(CircuitBreaker.FAILURE_THRESHOLD, requests.get());
+
+    try {
+      policy.execute(ENDPOINT, RateLimitScheduler.Priority.USER, null, handle -> "sent");
+      fail("Expected the breaker to be open");
+    } catch (ApiUnavailableException e) {
+      assertEquals(60_000, e.getRetryAfterMillis());
+    }
+    // Other endpoints are unaffected
+    assertEquals("sent", policy.execute(SpaceData.DataType.CME,
+        RateLimitScheduler.Priority.USER, null, handle -> "sent"));
+
+    now += 60_000;
+    assertEquals("sent",
+        policy.execute(ENDPOINT, RateLimitScheduler.Priority.USER, null, handle -> "sent"));
+    assertFalse(policy.isUnavailable(ENDPOINT));
+  }
+
+  private static void awaitCancel(FetchHandle handle) throws IOException {
+    try {
+      handle.sleep(10_000);
+    } catch (FetchCanceledException e) {
+      // Expected
+    }
+  }
+
+  private static void sleep(long millis) throws IOException {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new InterruptedIOException();
+    }
+  }
+}
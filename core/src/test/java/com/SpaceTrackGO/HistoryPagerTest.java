@@ -0,0 +1,85 @@
+package com.SpaceTrackGO;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that HistoryPager backs off from a page whose fetch fails instead of requesting it again
+ * on every scroll, and gives up on it after repeated failures.
+ */
+public class HistoryPagerTest {
+  private static final long NOW = EventTime.parse("2024-06-01T00:00Z");
+  private static final long NEWEST = NOW - TimeUnit.DAYS.toMillis(1);
+
+  private long now = NOW;
+  private int requests = 0;
+  private boolean failing = true;
+  private EventView published = EventView.EMPTY;
+  // An event in the month before the recent window, which is page 1
+  private final List<SpaceData> olderPage = Collections.singletonList(
+      new SpaceData("FLR-1", SpaceData.DataType.FLR, "", NOW - TimeUnit.DAYS.toMillis(45),
+          DescriptionTemplate.FLARE_CLASS, "M1.0", null));
+  private FetchCoalescer.Callback<List<SpaceData>> undelivered;
+
+  private final HistoryPager pager = new HistoryPager(SpaceData.DataType.FLR, NOW,
+      (key, callback) -> {
+        requests++;
+        FutureTask<List<SpaceData>> fetch = new FutureTask<>(() -> {
+          if (failing) throw new IOException("Connection reset");
+          return olderPage;
+        });
+        fetch.run();
+        if (!failing) undelivered = callback; // Delivered after returning, as FetchCoalescer does
+        return fetch;
+      }, events -> published = events, () -> now);
+
+  private void scroll(int frames) {
+    for (int i = 0; i < frames; i++) pager.onVisibleRange(NEWEST, NEWEST);
+  }
+
+  @Test
+  public void failedPage_isRetriedWithGrowingDelayThenGivenUp() {
+    pager.setLatest(Collections.<SpaceData>emptyList()); // Requests the page before the recent one
+    assertEquals(1, requests);
+    scroll(100);
+    assertEquals(1, requests);
+
+    long delay = HistoryPager.BASE_RETRY_DELAY;
+    for (int failures = 1; failures < HistoryPager.MAX_PAGE_FAILURES; failures++) {
+      now += delay - 1;
+      scroll(10);
+      assertEquals(failures, requests);
+      now += 1;
+      scroll(10);
+      assertEquals(failures + 1, requests);
+      delay *= 2;
+    }
+
+    now += TimeUnit.DAYS.toMillis(1);
+    scroll(100);
+    assertEquals(HistoryPager.MAX_PAGE_FAILURES, requests);
+  }
+
+  @Test
+  public void pageLoadedAfterFailure_isNotRequestedAgain() {
+    pager.setLatest(Collections.<SpaceData>emptyList());
+    scroll(1);
+    failing = false;
+    now += HistoryPager.BASE_RETRY_DELAY;
+    scroll(10);
+    assertEquals(2, requests);
+    scroll(10); // Finished but not yet delivered
+    assertEquals(2, requests);
+    undelivered.onFetched(olderPage);
+    assertEquals(1, published.size());
+    scroll(100);
+    assertEquals(2, requests);
+  }
+}
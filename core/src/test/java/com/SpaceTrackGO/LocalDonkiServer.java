@@ -0,0 +1,178 @@
+package com.SpaceTrackGO;
+
+import androidx.annotation.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An in-process HTTP/1.1 server that stands in for the DONKI APIs, so that transports and parsing
+ * can be tested offline. It serves canned JSON by path, compresses it when gzip is accepted, keeps
+ * connections alive, can delay responses and counts connections, requests and body bytes sent.
+ */
+class LocalDonkiServer implements Closeable {
+  private final ServerSocket serverSocket;
+  private final Map<String, byte[]> payloads = new ConcurrentHashMap<>();
+  private volatile long latencyMillis = 0;
+  private volatile int statusCode = 200;
+  private final Map<String, String> extraHeaders = new ConcurrentHashMap<>();
+  final AtomicInteger connectionsAccepted = new AtomicInteger();
+  // Counted as requests are read and before bytes are written, so a client that has read a
+  // response always sees it counted
+  final AtomicInteger requestsReceived = new AtomicInteger();
+  final AtomicLong bytesSent = new AtomicLong();
+  final Map<String, String> lastRequestHeaders = new ConcurrentHashMap<>();
+  volatile String lastRequestTarget;
+
+  LocalDonkiServer() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    Thread acceptThread = new Thread(this::acceptLoop, "LocalDonkiServer");
+    acceptThread.setDaemon(true);
+    acceptThread.start();
+  }
+
+  void setPayload(@NonNull String path, @NonNull String json) {
+    payloads.put(path, json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  void setLatency(long millis) {
+    latencyMillis = millis;
+  }
+
+  void setStatusCode(int code) {
+    statusCode = code;
+  }
+
+  void setHeader(@NonNull String name, @NonNull String value) {
+    extraHeaders.put(name, value);
+  }
+
+  URL url(@NonNull String pathAndQuery) throws MalformedURLException {
+    return new URL("http", "127.0.0.1", serverSocket.getLocalPort(), pathAndQuery);
+  }
+
+  /**
+   * Wraps a transport so that every request is sent to this server instead, keeping its path and
+   * query.
+   */
+  HttpTransport redirecting(@NonNull HttpTransport delegate) {
+    return request -> {
+      URL original = request.url;
+      String pathAndQuery = original.getFile();
+      HttpTransport.Request redirected;
+      try {
+        redirected = new HttpTransport.Request(url(pathAndQuery));
+      } catch (MalformedURLException e) {
+        throw new AssertionError(e);
+      }
+      for (Map.Entry<String, String> header : request.headers().entrySet()) {
+        redirected.header(header.getKey(), header.getValue());
+      }
+      return delegate.newCall(redirected);
+    };
+  }
+
+  private void acceptLoop() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        connectionsAccepted.incrementAndGet();
+        Thread connectionThread = new Thread(() -> serve(socket), "LocalDonkiServer-connection");
+        connectionThread.setDaemon(true);
+        connectionThread.start();
+      } catch (IOException e) {
+        return; // Server closed
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (Socket s = socket;
+         InputStream in = s.getInputStream();
+         OutputStream out = s.getOutputStream()) {
+      while (true) {
+        String requestLine = readLine(in);
+        if (requestLine == null || requestLine.isEmpty()) return;
+        lastRequestHeaders.clear();
+        boolean acceptsGzip = false;
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+          int colon = line.indexOf(':');
+          if (colon < 0) continue;
+          String name = line.substring(0, colon).trim();
+          String value = line.substring(colon + 1).trim();
+          lastRequestHeaders.put(name.toLowerCase(), value);
+          if (name.equalsIgnoreCase("Accept-Encoding") && value.contains("gzip")) {
+            acceptsGzip = true;
+          }
+        }
+
+        requestsReceived.incrementAndGet();
+        String target = requestLine.split(" ")[1];
+        lastRequestTarget = target;
+        int queryStart = target.indexOf('?');
+        String path = queryStart < 0 ? target : target.substring(0, queryStart);
+        byte[] payload = payloads.get(path);
+        int code = payload == null ? 404 : statusCode;
+        byte[] body = payload == null || code == 304 ? new byte[0] : payload;
+        if (acceptsGzip && body.length > 0) body = gzip(body);
+
+        if (latencyMillis > 0) Thread.sleep(latencyMillis);
+
+        StringBuilder head = new StringBuilder()
+            .append("HTTP/1.1 ").append(code).append(code == 304 ? " Not Modified" : " OK")
+            .append("\r\nContent-Type: application/json")
+            .append("\r\nContent-Length: ").append(body.length)
+            .append("\r\nConnection: keep-alive");
+        if (acceptsGzip && body.length > 0) head.append("\r\nContent-Encoding: gzip");
+        for (Map.Entry<String, String> header : extraHeaders.entrySet()) {
+          head.append("\r\n").append(header.getKey()).append(": ").append(header.getValue());
+        }
+        head.append("\r\n\r\n");
+        bytesSent.addAndGet(body.length);
+        out.write(head.toString().getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.flush();
+      }
+    } catch (IOException | InterruptedException e) {
+      // Connection closed by the client
+    }
+  }
+
+  private static String readLine(InputStream in) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int b;
+    while ((b = in.read()) != -1) {
+      if (b == '\n') return line.toString("US-ASCII").trim();
+      line.write(b);
+    }
+    return line.size() == 0 ? null : line.toString("US-ASCII");
+  }
+
+  private static byte[] gzip(byte[] data) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+      out.write(data);
+    }
+    return compressed.toByteArray();
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+  }
+}
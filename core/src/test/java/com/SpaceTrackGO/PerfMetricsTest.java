@@ -0,0 +1,94 @@
+package com.SpaceTrackGO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that PerfMetrics records nothing while disabled, and that sections reach the tracer in
+ * order and the histograms when enabled.
+ */
+public class PerfMetricsTest {
+  private final List<String> traced = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    PerfMetrics.reset();
+    PerfMetrics.setTracer(new PerfMetrics.Tracer() {
+      @Override
+      public void beginSection(String name) {
+        traced.add("begin " + name);
+      }
+
+      @Override
+      public void endSection() {
+        traced.add("end");
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    PerfMetrics.setEnabled(false);
+    PerfMetrics.setTracer(null);
+    PerfMetrics.reset();
+  }
+
+  @Test
+  public void disabled_recordsNothing() {
+    PerfMetrics.setEnabled(false);
+    long start = PerfMetrics.begin(PerfMetrics.Section.PARSE);
+    PerfMetrics.end(PerfMetrics.Section.PARSE, start);
+    PerfMetrics.count(PerfMetrics.Counter.BINDS, 1);
+    PerfMetrics.markPosted();
+    PerfMetrics.markDelivered();
+
+    assertEquals(0, start);
+    assertTrue(traced.isEmpty());
+    assertEquals(0, PerfMetrics.histogram(PerfMetrics.Section.PARSE).getCount());
+    assertEquals(0, PerfMetrics.histogram(PerfMetrics.Section.DELIVERY).getCount());
+    assertEquals(0, PerfMetrics.counter(PerfMetrics.Counter.BINDS));
+  }
+
+  @Test
+  public void enabled_recordsSectionsAndCounters() {
+    PerfMetrics.setEnabled(true);
+    long start = PerfMetrics.begin(PerfMetrics.Section.BIND);
+    PerfMetrics.end(PerfMetrics.Section.BIND, start);
+    PerfMetrics.count(PerfMetrics.Counter.BINDS, 3);
+    PerfMetrics.markPosted();
+    PerfMetrics.markDelivered();
+    PerfMetrics.markDelivered(); // Nothing new was posted
+
+    assertEquals(2, traced.size());
+    assertEquals("begin " + PerfMetrics.Section.BIND.traceName, traced.get(0));
+    assertEquals(1, PerfMetrics.histogram(PerfMetrics.Section.BIND).getCount());
+    assertEquals(1, PerfMetrics.histogram(PerfMetrics.Section.DELIVERY).getCount());
+    assertEquals(3, PerfMetrics.counter(PerfMetrics.Counter.BINDS));
+
+    StringWriter report = new StringWriter();
+    PerfMetrics.dump("", new PrintWriter(report, true));
+    assertTrue(report.toString().contains(PerfMetrics.Section.BIND.traceName));
+  }
+
+  @Test
+  public void histogram_percentilesFallInTheRightBuckets() {
+    PerfMetrics.Histogram histogram = new PerfMetrics.Histogram();
+    for (int i = 0; i < 90; i++) histogram.record(1_000_000); // 1ms
+    for (int i = 0; i < 10; i++) histogram.record(100_000_000); // 100ms
+
+    assertEquals(100, histogram.getCount());
+    assertEquals(100_000_000, histogram.getMaxNanos());
+    long p50 = histogram.percentileNanos(50);
+    assertTrue(p50 >= 1_000_000 && p50 <= 2_048_000);
+    long p95 = histogram.percentileNanos(95);
+    assertTrue(p95 >= 64_000_000 && p95 <= 100_000_000);
+  }
+}
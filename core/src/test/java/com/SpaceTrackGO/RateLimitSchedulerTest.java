@@ -0,0 +1,102 @@
+package com.SpaceTrackGO;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that RateLimitScheduler keeps a reserve for user requests, follows the quota reported by
+ * the API, backs off after refusals and spreads requests over its pool of keys.
+ */
+public class RateLimitSchedulerTest {
+  private long now = 1_000_000L;
+  private final RateLimitScheduler.Clock clock = () -> now;
+
+  private RateLimitScheduler scheduler(String... apiKeys) {
+    return new RateLimitScheduler(Arrays.asList(apiKeys), clock, new Random(1));
+  }
+
+  @Test
+  public void background_leavesReserveForUser() throws RateLimitedException {
+    RateLimitScheduler scheduler = scheduler("key");
+    RateLimitScheduler.Permit permit = scheduler.acquire(RateLimitScheduler.Priority.USER);
+    scheduler.onResponse(permit, 200, "30", "5", null);
+
+    try {
+      scheduler.acquire(RateLimitScheduler.Priority.BACKGROUND);
+      fail("Background request used the user's reserve");
+    } catch (RateLimitedException e) {
+      assertTrue(e.getRetryAfterMillis() > 0);
+    }
+    for (int i = 0; i < 5; i++) scheduler.acquire(RateLimitScheduler.Priority.USER);
+    try {
+      scheduler.acquire(RateLimitScheduler.Priority.USER);
+      fail("Request sent with no quota left");
+    } catch (RateLimitedException e) {
+      // One token refills in two minutes at 30 an hour
+      assertEquals(TimeUnit.MINUTES.toMillis(2), e.getRetryAfterMillis());
+    }
+
+    now += TimeUnit.MINUTES.toMillis(2);
+    assertEquals("key", scheduler.acquire(RateLimitScheduler.Priority.USER).apiKey);
+  }
+
+  @Test
+  public void refusal_backsOffWithJitterAndGrows() throws RateLimitedException {
+    RateLimitScheduler scheduler = scheduler("key");
+    scheduler.onResponse(scheduler.acquire(RateLimitScheduler.Priority.USER), 429, null, null,
+        null);
+    long first = scheduler.getRetryAfterMillis(RateLimitScheduler.Priority.USER);
+    assertTrue(first >= RateLimitScheduler.BASE_BACKOFF / 2);
+    assertTrue(first <= RateLimitScheduler.BASE_BACKOFF);
+
+    now += first;
+    scheduler.onResponse(scheduler.acquire(RateLimitScheduler.Priority.USER), 429, null, null,
+        null);
+    long second = scheduler.getRetryAfterMillis(RateLimitScheduler.Priority.USER);
+    assertTrue(second >= RateLimitScheduler.BASE_BACKOFF);
+    assertTrue(second <= RateLimitScheduler.BASE_BACKOFF * 2);
+  }
+
+  @Test
+  public void refusal_waitsForRetryAfter() throws RateLimitedException {
+    RateLimitScheduler scheduler = scheduler("key");
+    scheduler.onResponse(scheduler.acquire(RateLimitScheduler.Priority.USER), 429, null, "0",
+        "600");
+    long wait = scheduler.getRetryAfterMillis(RateLimitScheduler.Priority.USER);
+    assertTrue(wait >= TimeUnit.SECONDS.toMillis(600));
+    assertTrue(wait <= TimeUnit.SECONDS.toMillis(660));
+  }
+
+  @Test
+  public void pool_usesKeyWithMostQuota() throws RateLimitedException {
+    RateLimitScheduler scheduler = scheduler("first", "second");
+    scheduler.onResponse(scheduler.acquire(RateLimitScheduler.Priority.USER), 200, "1000", "3",
+        null);
+    scheduler.onResponse(scheduler.acquire(RateLimitScheduler.Priority.USER), 429, null, null,
+        null);
+
+    // One key is nearly spent and the other is backing off, so only user requests go out
+    RateLimitScheduler.Permit permit = scheduler.acquire(RateLimitScheduler.Priority.USER);
+    try {
+      scheduler.acquire(RateLimitScheduler.Priority.BACKGROUND);
+      fail("Background request sent with no spare quota");
+    } catch (RateLimitedException expected) {
+      // Expected
+    }
+    assertEquals(permit.apiKey, scheduler.acquire(RateLimitScheduler.Priority.USER).apiKey);
+  }
+
+  @Test
+  public void unrecognisedHeaders_areIgnored() throws RateLimitedException {
+    RateLimitScheduler scheduler = new RateLimitScheduler(Collections.singletonList("key"));
+    RateLimitScheduler.Permit permit = scheduler.acquire(RateLimitScheduler.Priority.BACKGROUND);
+    scheduler.onResponse(permit, 200, "lots", "-4", null);
+    assertEquals(0, scheduler.getRetryAfterMillis(RateLimitScheduler.Priority.BACKGROUND));
+  }
+}
@@ -0,0 +1,61 @@
+package com.SpaceTrackGO;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that SelectionHistory weighs selections by how often and how recently they were made, and
+ * survives being encoded for preferences.
+ */
+public class SelectionHistoryTest {
+  private static final long DAY = TimeUnit.DAYS.toMillis(1);
+  private static final long NOW = 19000 * DAY;
+
+  @Test
+  public void empty_predictsNothing() {
+    assertNull(new SelectionHistory().mostLikely(NOW));
+    assertNull(SelectionHistory.decode(null).mostLikely(NOW));
+  }
+
+  @Test
+  public void frequentSelection_isMostLikely() {
+    SelectionHistory history = new SelectionHistory();
+    history.record("GST", NOW - 3 * DAY);
+    history.record("GST", NOW - 2 * DAY);
+    history.record("FLR", NOW - DAY);
+    assertEquals("GST", history.mostLikely(NOW));
+  }
+
+  @Test
+  public void recentSelection_outweighsOldHabit() {
+    SelectionHistory history = new SelectionHistory();
+    for (int i = 0; i < 4; i++) history.record("CME", NOW - 30 * DAY + i);
+    history.record("FLR", NOW - DAY);
+    assertEquals("FLR", history.mostLikely(NOW));
+    assertEquals(0.5, history.scoreOf("FLR", NOW + SelectionHistory.HALF_LIFE - DAY), 1e-9);
+  }
+
+  @Test
+  public void encode_thenDecode_keepsScores() {
+    SelectionHistory history = new SelectionHistory();
+    history.record("ALL", NOW - DAY);
+    history.record("ALL", NOW);
+    history.record("CME", NOW - 10 * DAY);
+
+    SelectionHistory decoded = SelectionHistory.decode(history.encode());
+    assertEquals(history.scoreOf("ALL", NOW), decoded.scoreOf("ALL", NOW), 1e-3);
+    assertEquals(history.scoreOf("CME", NOW), decoded.scoreOf("CME", NOW), 1e-3);
+    assertEquals("ALL", decoded.mostLikely(NOW));
+  }
+
+  @Test
+  public void decode_skipsDamagedEntries() {
+    SelectionHistory history = SelectionHistory.decode("GST:2.0:100;bad;FLR:x:1;:1:1");
+    assertEquals(2.0, history.scoreOf("GST", 100), 1e-9);
+    assertEquals(0, history.scoreOf("FLR", 100), 0);
+    assertEquals("GST", history.mostLikely(100));
+  }
+}
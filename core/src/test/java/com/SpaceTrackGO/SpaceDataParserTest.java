@@ -0,0 +1,209 @@
+package com.SpaceTrackGO;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the streaming parser produces exactly the same space data as the previous approach
+ * of building a full JSONArray from the response and reading each object from it.
+ */
+public class SpaceDataParserTest {
+  private static final String CME_PAYLOAD = "[\n"
+      + "  {\"activityID\": \"2022-03-01T01:36:00-CME-001\", \"catalog\": \"M2M_CATALOG\","
+      + " \"startTime\": \"2022-03-01T01:36Z\", \"sourceLocation\": \"\","
+      + " \"activeRegionNum\": null, \"link\": \"https://webtools.ccmc.gsfc.nasa.gov/DONKI/"
+      + "view/CME/19003/-1\", \"note\": \"Faint halo CME, \\\"partial\\\" in C2\\u00e9.\","
+      + " \"instruments\": [{\"displayName\": \"SOHO: LASCO/C2\"}],"
+      + " \"cmeAnalyses\": [{\"time21_5\": \"2022-03-01T05:26Z\", \"latitude\": -12.0,"
+      + " \"speed\": 412.0, \"isMostAccurate\": true, \"enlilList\": null}],"
+      + " \"linkedEvents\": null},\n"
+      + "  {\"activityID\": \"2022-03-02T12:00:00-CME-001\", \"startTime\": \"2022-03-02T12:00Z\","
+      + " \"link\": \"not a url\", \"note\": \"\", \"cmeAnalyses\": null}\n"
+      + "]";
+
+  private static final String GST_PAYLOAD = "[\n"
+      + "  {\"gstID\": \"2022-02-03T15:00:00-GST-001\", \"startTime\": \"2022-02-03T15:00Z\","
+      + " \"allKpIndex\": [{\"observedTime\": \"2022-02-03T18:00Z\", \"kpIndex\": 5.67,"
+      + " \"source\": \"NOAA\"}, {\"observedTime\": \"2022-02-03T21:00Z\", \"kpIndex\": 7,"
+      + " \"source\": \"NOAA\"}, {\"kpIndex\": 6.33, \"source\": \"NOAA\"}],"
+      + " \"linkedEvents\": [{\"activityID\": \"2022-01-29T23:36:00-CME-001\"}],"
+      + " \"link\": \"https://webtools.ccmc.gsfc.nasa.gov/DONKI/view/GST/18910/-1\"},\n"
+      + "  {\"gstID\": \"2022-03-13T09:00:00-GST-001\", \"startTime\": \"2022-03-13T09:00Z\","
+      + " \"allKpIndex\": [],"
+      + " \"link\": \"https://webtools.ccmc.gsfc.nasa.gov/DONKI/view/GST/19150/-1\"}\n"
+      + "]";
+
+  private static final String FLR_PAYLOAD = "[\n"
+      + "  {\"flrID\": \"2022-03-03T10:21:00-FLR-001\", \"instruments\": [{\"displayName\":"
+      + " \"GOES-P: EXIS 1.0-8.0\"}], \"beginTime\": \"2022-03-03T10:21Z\","
+      + " \"peakTime\": \"2022-03-03T10:36Z\", \"endTime\": null, \"classType\": \"M2.0\","
+      + " \"sourceLocation\": \"N17E26\", \"activeRegionNum\": 12958, \"linkedEvents\": null,"
+      + " \"link\": \"https://webtools.ccmc.gsfc.nasa.gov/DONKI/view/FLR/19017/-1\"},\n"
+      + "  {\"flrID\": \"2022-03-04T02:11:00-FLR-001\", \"beginTime\": \"2022-03-04T02:11Z\","
+      + " \"classType\": \"X1.3\", \"activeRegionNum\": null,"
+      + " \"link\": \"https://webtools.ccmc.gsfc.nasa.gov/DONKI/view/FLR/19023/-1\"}\n"
+      + "]";
+
+  @Test
+  public void streamingParser_matchesJsonArrayParser_forCme() throws Exception {
+    assertMatchesLegacy(SpaceData.DataType.CME, CME_PAYLOAD);
+  }
+
+  @Test
+  public void streamingParser_matchesJsonArrayParser_forGst() throws Exception {
+    assertMatchesLegacy(SpaceData.DataType.GST, GST_PAYLOAD);
+  }
+
+  @Test
+  public void streamingParser_matchesJsonArrayParser_forFlr() throws Exception {
+    assertMatchesLegacy(SpaceData.DataType.FLR, FLR_PAYLOAD);
+  }
+
+  @Test
+  public void streamingParser_readsActiveRegionOfFlares() throws Exception {
+    List<SpaceData> flares = SpaceData.formSpaceData(SpaceData.DataType.FLR,
+        new StringReader(FLR_PAYLOAD));
+    assertEquals(12958, flares.get(0).getActiveRegion());
+    assertEquals(SpaceData.NO_ACTIVE_REGION, flares.get(1).getActiveRegion());
+  }
+
+  @Test
+  public void streamingParser_handlesEmptyArray() throws Exception {
+    assertTrue(SpaceData.formSpaceData(SpaceData.DataType.CME, new StringReader(" [ ] ")).isEmpty());
+  }
+
+  @Test(expected = JSONException.class)
+  public void streamingParser_rejectsEmptyBody() throws Exception {
+    SpaceData.formSpaceData(SpaceData.DataType.FLR, new StringReader(""));
+  }
+
+  @Test(expected = JSONException.class)
+  public void streamingParser_rejectsTruncatedBody() throws Exception {
+    SpaceData.formSpaceData(SpaceData.DataType.FLR,
+        new StringReader(FLR_PAYLOAD.substring(0, FLR_PAYLOAD.length() / 2)));
+  }
+
+  @Test
+  public void registry_parsesRemainingEndpointsWithTheSharedLoop() throws Exception {
+    List<SpaceData> shocks = SpaceData.formSpaceData(SpaceData.DataType.IPS, new StringReader("["
+        + "{\"catalog\": \"M2M_CATALOG\", \"activityID\": \"2022-03-13T22:11:00-IPS-001\","
+        + " \"location\": \"STEREO A\", \"eventTime\": \"2022-03-13T22:11Z\","
+        + " \"link\": \"https://webtools.ccmc.gsfc.nasa.gov/DONKI/view/IPS/19219/-1\","
+        + " \"instruments\": [{\"displayName\": \"STEREO A: IMPACT\"}]},"
+        + "{\"activityID\": \"2022-03-14T01:00:00-IPS-001\", \"eventTime\": \"2022-03-14T01:00Z\","
+        + " \"location\": null}]"));
+    assertEquals(2, shocks.size());
+    assertEquals("2022-03-13T22:11:00-IPS-001", shocks.get(0).getId());
+    assertTrue(shocks.get(0).getDescription().startsWith(
+        "An interplanetary shock was detected at STEREO A."));
+    assertTrue(shocks.get(1).getDescription().startsWith(
+        "An interplanetary shock was detected. "));
+    assertNull(shocks.get(1).getLink());
+
+    List<SpaceData> simulations = SpaceData.formSpaceData(SpaceData.DataType.WSA_ENLIL,
+        new StringReader("[{\"simulationID\": \"WSA-ENLIL/19216/1\","
+            + " \"modelCompletionTime\": \"2022-03-13T03:47Z\", \"au\": 2.0,"
+            + " \"cmeInputs\": [{\"cmeStartTime\": \"2022-03-12T17:36Z\", \"speed\": 611.0}],"
+            + " \"estimatedShockArrivalTime\": null, \"impactList\": null,"
+            + " \"link\": \"https://webtools.ccmc.gsfc.nasa.gov/DONKI/view/WSA-ENLIL/19216/-1\""
+            + "}]"));
+    SpaceData simulation = simulations.get(0);
+    assertEquals("WSA-ENLIL/19216/1", simulation.getId());
+    assertEquals(EventTime.parse("2022-03-13T03:47Z"), simulation.getEpochMillis());
+    assertEquals(DescriptionTemplate.WSA_ENLIL_SIMULATION.render(""), simulation.getDescription());
+    assertTrue(SpaceData.DataType.WSA_ENLIL.hyperlink.endsWith("/DONKI/WSAEnlilSimulations"));
+  }
+
+  @Test(expected = JSONException.class)
+  public void registry_rejectsFlareWithoutClass() throws Exception {
+    SpaceData.formSpaceData(SpaceData.DataType.FLR, new StringReader(
+        "[{\"flrID\": \"2022-03-14T01:00:00-FLR-001\", \"beginTime\": \"2022-03-14T01:00Z\"}]"));
+  }
+
+  private static void assertMatchesLegacy(SpaceData.DataType type, String payload)
+      throws JSONException, IOException {
+    List<String[]> expected = legacyParse(type, new JSONArray(payload));
+    List<SpaceData> actual = SpaceData.formSpaceData(type, new StringReader(payload));
+
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      SpaceData item = actual.get(i);
+      String[] fields = expected.get(i);
+      assertEquals(fields[0], item.getId());
+      assertEquals(type, item.getDataType());
+      assertEquals(fields[1], item.getDateAndTime());
+      assertEquals(fields[2], item.getDescription());
+      assertEquals(fields[3], item.getHyperlink() == null ? null : item.getHyperlink().toString());
+    }
+  }
+
+  /**
+   * Mirrors the tree-based parsing that SpaceData used before streaming was introduced.
+   * @return id, date and time, description and link of each event
+   */
+  private static List<String[]> legacyParse(SpaceData.DataType type, JSONArray jsonData)
+      throws JSONException {
+    String kpExplanation = " The Kp-index measures how"
+        + " much the geomagnetic storm is disturbing"
+        + " the horizontal part of the Earth's magnetic field."
+        + " It ranges from 1, for low solar wind activity,"
+        + " to 5, for a geomagnetic storm, to 9, for an intense one.";
+    List<String[]> result = new ArrayList<>();
+    for (int i = 0; i < jsonData.length(); i++) {
+      JSONObject dataObject = jsonData.getJSONObject(i);
+      String id;
+      String dateAndTime;
+      String description;
+      switch (type) {
+        case CME:
+          id = dataObject.getString("activityID");
+          dateAndTime = dataObject.getString("startTime");
+          description = dataObject.getString("note");
+          break;
+        case GST:
+          id = dataObject.getString("gstID");
+          dateAndTime = dataObject.getString("startTime");
+          JSONArray allKpIndex = dataObject.getJSONArray("allKpIndex");
+          if (allKpIndex.length() > 0) {
+            int maxKpIndex = 0;
+            for (int j = 0; j < allKpIndex.length(); j++) {
+              maxKpIndex = Math.max(maxKpIndex, allKpIndex.getJSONObject(j).getInt("kpIndex"));
+            }
+            description = "The current highest measured Kp-index is " + maxKpIndex + "."
+                + kpExplanation;
+          } else {
+            description = "There are no current measurements of the Kp index available."
+                + kpExplanation;
+          }
+          break;
+        default:
+          id = dataObject.getString("flrID");
+          dateAndTime = dataObject.getString("beginTime");
+          description = "Solar flare class: " + dataObject.getString("classType")
+              + ". The letter, one of A, B, C, M, or X, represents the"
+              + " solar flare's size class, where A is the smallest and"
+              + " X is the largest. This is appended with a number"
+              + " from 1 to 10 which more precisely represents its size.";
+      }
+      String link;
+      try {
+        link = new URL(dataObject.getString("link")).toString();
+      } catch (MalformedURLException e) {
+        link = null;
+      }
+      result.add(new String[] {id, dateAndTime, description, link});
+    }
+    return result;
+  }
+}
@@ -0,0 +1,159 @@
+package com.SpaceTrackGO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that space data and HTTP validators survive a round trip through the binary snapshot
+ * format, that damaged files are discarded, and prints how long restoring a large list takes.
+ */
+public class SpaceDataStoreTest {
+  private static final String[] FLARE_CLASSES = {"C1.2", "M2.4", "X1.3"};
+
+  private File directory;
+  private SpaceDataStore store;
+
+  private static List<SpaceData> flares(int count) throws Exception {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < count; i++) {
+      if (i > 0) json.append(',');
+      String time = String.format(Locale.US, "2022-%02d-%02dT%02d:%02d", 1 + (i / 672) % 12,
+          1 + (i / 24) % 28, i % 24, (i * 7) % 60);
+      json.append("{\"flrID\": \"").append(time).append(":00-FLR-").append(i)
+          .append("\", \"beginTime\": \"").append(time).append("Z\", \"classType\": \"")
+          .append(FLARE_CLASSES[i % FLARE_CLASSES.length]).append('"');
+      if (i % 3 != 0) json.append(", \"activeRegionNum\": ").append(12900 + i % 40);
+      // Some events have no link, as the API sometimes omits it
+      if (i % 50 != 0) {
+        json.append(", \"link\": \"https://webtools.ccmc.gsfc.nasa.gov/DONKI/view/FLR/")
+            .append(19000 + i).append("/-1\"");
+      }
+      json.append('}');
+    }
+    return SpaceData.formSpaceData(SpaceData.DataType.FLR, new StringReader(json.append(']')
+        .toString()));
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("space-data-store").toFile();
+    store = new SpaceDataStore(directory);
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+      }
+    }
+    //noinspection ResultOfMethodCallIgnored
+    directory.delete();
+  }
+
+  @Test
+  public void write_thenRead_restoresEqualSpaceData() throws Exception {
+    List<SpaceData> spaceData = flares(200);
+    store.write(SpaceData.DataType.FLR, spaceData, 1234L);
+
+    SpaceDataStore.Snapshot snapshot = store.read(SpaceData.DataType.FLR);
+
+    assertNotNull(snapshot);
+    assertEquals(1234L, snapshot.fetchedAt);
+    assertEquals(spaceData, snapshot.spaceData);
+    for (int i = 0; i < spaceData.size(); i++) {
+      assertEquals(spaceData.get(i).getEpochMillis(), snapshot.spaceData.get(i).getEpochMillis());
+    }
+    assertNull(snapshot.spaceData.get(0).getHyperlink());
+    // Repeated descriptions are rendered once and shared
+    assertSame(snapshot.spaceData.get(1).getDescription(),
+        snapshot.spaceData.get(1 + FLARE_CLASSES.length).getDescription());
+  }
+
+  @Test
+  public void validators_surviveRoundTripAndTouch() throws Exception {
+    HttpValidators validators =
+        new HttpValidators("\"v1\"", "Mon, 14 Mar 2022 10:00:00 GMT", null);
+    store.write(SpaceData.DataType.FLR, flares(20), 1L, validators);
+    store.write(SpaceData.DataType.GST, new ArrayList<SpaceData>(), 1L,
+        new HttpValidators(null, null, "hash"));
+
+    store.touch(SpaceData.DataType.FLR, 5678L);
+    SpaceDataStore.Snapshot snapshot = store.read(SpaceData.DataType.FLR);
+
+    assertNotNull(snapshot);
+    assertEquals(5678L, snapshot.fetchedAt);
+    assertEquals(20, snapshot.spaceData.size());
+    assertEquals(validators, snapshot.validators);
+    //noinspection ConstantConditions
+    assertEquals("hash", store.read(SpaceData.DataType.GST).validators.contentHash);
+    store.write(SpaceData.DataType.GST, new ArrayList<SpaceData>(), 1L);
+    //noinspection ConstantConditions
+    assertNull(store.read(SpaceData.DataType.GST).validators);
+  }
+
+  @Test
+  public void read_returnsNullWhenNothingStored() {
+    assertNull(store.read(SpaceData.DataType.CME));
+  }
+
+  @Test
+  public void read_discardsTruncatedFile() throws Exception {
+    store.write(SpaceData.DataType.FLR, flares(20), 1L);
+    File file = new File(directory, "flr.bin");
+    try (RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+      truncated.setLength(truncated.length() / 2);
+    }
+
+    assertNull(store.read(SpaceData.DataType.FLR));
+    assertFalse(file.exists());
+  }
+
+  @Test
+  public void read_discardsUnrecognisedFile() throws Exception {
+    File file = new File(directory, "flr.bin");
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(new byte[] {0x53, 0x54, 0x47, 0x30, 0, 0, 0, 1, 0, 0, 0, 0});
+    }
+
+    assertNull(store.read(SpaceData.DataType.FLR));
+    assertFalse(file.exists());
+  }
+
+  @Test
+  public void benchmarkRestore() throws Exception {
+    List<SpaceData> spaceData = flares(10_000);
+    store.write(SpaceData.DataType.FLR, spaceData, 1L);
+
+    long first = 0;
+    long best = Long.MAX_VALUE;
+    int restored = 0;
+    for (int round = 0; round < 200; round++) {
+      long start = System.nanoTime();
+      restored += store.read(SpaceData.DataType.FLR).spaceData.size();
+      long elapsed = System.nanoTime() - start;
+      if (round == 0) first = elapsed;
+      best = Math.min(best, elapsed);
+    }
+
+    System.out.printf(Locale.US, "Restored %d events: first read %.2f ms, warmed %.2f ms"
+            + " (%d bytes on disk)%n",
+        spaceData.size(), first / 1e6, best / 1e6, new File(directory, "flr.bin").length());
+    assertEquals(200 * spaceData.size(), restored);
+  }
+}
@@ -0,0 +1,55 @@
+package com.SpaceTrackGO;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that background syncs are spaced by how often events have recently appeared.
+ */
+public class SyncScheduleTest {
+  private static final long NOW = TimeUnit.DAYS.toMillis(19000);
+
+  private static List<SpaceData> eventsEvery(long gap, int count) {
+    List<SpaceData> spaceData = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      spaceData.add(new SpaceData("event-" + i, SpaceData.DataType.FLR, "", NOW - i * gap,
+          DescriptionTemplate.FLARE_CLASS, "C1.0", null));
+    }
+    return spaceData;
+  }
+
+  @Test
+  public void frequentEvents_syncOften() {
+    // Two events a day gives a gap of twelve hours, so syncs are six hours apart
+    assertEquals(TimeUnit.HOURS.toMillis(6),
+        SyncSchedule.intervalFor(eventsEvery(TimeUnit.HOURS.toMillis(12), 28), NOW));
+    assertEquals(SyncSchedule.MIN_INTERVAL,
+        SyncSchedule.intervalFor(eventsEvery(TimeUnit.MINUTES.toMillis(10), 1000), NOW));
+  }
+
+  @Test
+  public void quietTypes_syncRarely() {
+    assertEquals(SyncSchedule.MAX_INTERVAL,
+        SyncSchedule.intervalFor(Collections.<SpaceData>emptyList(), NOW));
+    // Only events within the lookback are counted
+    List<SpaceData> old = eventsEvery(TimeUnit.HOURS.toMillis(1), 10);
+    assertEquals(SyncSchedule.MAX_INTERVAL,
+        SyncSchedule.intervalFor(old, NOW + SyncSchedule.LOOKBACK + TimeUnit.DAYS.toMillis(1)));
+  }
+
+  @Test
+  public void isDue_comparesAgeWithInterval() {
+    List<SpaceData> spaceData = eventsEvery(TimeUnit.HOURS.toMillis(12), 100);
+    assertTrue(SyncSchedule.isDue(null, NOW));
+    assertFalse(SyncSchedule.isDue(
+        new SpaceDataStore.Snapshot(NOW - TimeUnit.HOURS.toMillis(5), spaceData), NOW));
+    assertTrue(SyncSchedule.isDue(
+        new SpaceDataStore.Snapshot(NOW - TimeUnit.HOURS.toMillis(6), spaceData), NOW));
+  }
+}
@@ -0,0 +1,217 @@
+package com.SpaceTrackGO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks timeouts, gzip negotiation, conditional requests and connection reuse of
+ * UrlConnectionTransport against a local stand-in for the DONKI APIs.
+ */
+public class UrlConnectionTransportTest {
+  private LocalDonkiServer server;
+
+  private static String flares(int count) {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < count; i++) {
+      if (i > 0) json.append(',');
+      json.append("{\"flrID\": \"2022-03-").append(10 + i % 18).append("T10:").append(10 + i % 50)
+          .append(":00-FLR-00").append(i).append("\", \"beginTime\": \"2022-03-")
+          .append(10 + i % 18).append("T10:").append(10 + i % 50)
+          .append("Z\", \"classType\": \"M1.").append(i % 10).append("\", \"link\":")
+          .append(" \"https://webtools.ccmc.gsfc.nasa.gov/DONKI/view/FLR/").append(19000 + i)
+          .append("/-1\"}");
+    }
+    return json.append(']').toString();
+  }
+
+  private static void drain(InputStream in) throws IOException {
+    byte[] buffer = new byte[4096];
+    while (in.read(buffer) != -1) {
+      // Read to the end
+    }
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    server = new LocalDonkiServer();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    SpaceData.setTransport(new UrlConnectionTransport());
+    server.close();
+  }
+
+  @Test
+  public void getApiData_parsesResponseFromLocalServer() throws Exception {
+    server.setPayload("/DONKI/FLR", flares(3));
+    SpaceData.setTransport(server.redirecting(new UrlConnectionTransport()));
+
+    List<SpaceData> spaceData = SpaceData.getApiData(SpaceData.DataType.FLR, "2022-03-01",
+        "2022-03-31");
+
+    assertEquals(3, spaceData.size());
+    assertEquals("2022-03-12T10:12:00-FLR-002", spaceData.get(0).getId());
+    assertTrue(server.lastRequestTarget.contains("startDate=2022-03-01"));
+    assertTrue(server.lastRequestTarget.contains("endDate=2022-03-31"));
+  }
+
+  @Test
+  public void etag_isSentBackAndNotModifiedSkipsTheBody() throws Exception {
+    server.setPayload("/DONKI/FLR", flares(3));
+    server.setHeader("ETag", "\"v1\"");
+    SpaceData.setTransport(server.redirecting(new UrlConnectionTransport()));
+
+    SpaceData.ApiResult first = SpaceData.fetchApiData(SpaceData.DataType.FLR, "2022-03-01",
+        "2022-03-31", RateLimitScheduler.Priority.USER, null, null);
+    assertEquals(3, first.spaceData.size());
+    assertEquals("\"v1\"", first.validators.etag);
+    assertNull(first.validators.contentHash);
+
+    server.setStatusCode(304);
+    SpaceData.ApiResult second = SpaceData.fetchApiData(SpaceData.DataType.FLR, "2022-03-01",
+        "2022-03-31", RateLimitScheduler.Priority.USER, null, first.validators);
+    assertTrue(second.isNotModified());
+    assertEquals(first.validators, second.validators);
+    assertEquals("\"v1\"", server.lastRequestHeaders.get("if-none-match"));
+  }
+
+  @Test
+  public void contentHash_reportsUnchangedBodiesAsNotModified() throws Exception {
+    server.setPayload("/DONKI/FLR", flares(3));
+    SpaceData.setTransport(server.redirecting(new UrlConnectionTransport()));
+
+    SpaceData.ApiResult first = SpaceData.fetchApiData(SpaceData.DataType.FLR, null, null,
+        RateLimitScheduler.Priority.USER, null, null);
+    assertEquals(3, first.spaceData.size());
+    assertNotNull(first.validators.contentHash);
+    assertFalse(first.validators.hasHeaders());
+
+    SpaceData.ApiResult unchanged = SpaceData.fetchApiData(SpaceData.DataType.FLR, null, null,
+        RateLimitScheduler.Priority.USER, null, first.validators);
+    assertTrue(unchanged.isNotModified());
+    assertNull(server.lastRequestHeaders.get("if-none-match"));
+
+    server.setPayload("/DONKI/FLR", flares(4));
+    SpaceData.ApiResult changed = SpaceData.fetchApiData(SpaceData.DataType.FLR, null, null,
+        RateLimitScheduler.Priority.USER, null, first.validators);
+    assertEquals(4, changed.spaceData.size());
+    assertNotEquals(first.validators.contentHash, changed.validators.contentHash);
+  }
+
+  @Test
+  public void gzip_isNegotiatedAndDecompressed() throws Exception {
+    String json = flares(500);
+    server.setPayload("/DONKI/FLR", json);
+    UrlConnectionTransport transport = new UrlConnectionTransport();
+
+    try (HttpTransport.Response response =
+             transport.newCall(new HttpTransport.Request(server.url("/DONKI/FLR"))).execute()) {
+      byte[] buffer = new byte[json.length() * 2];
+      int total = 0;
+      int count;
+      while ((count = response.body().read(buffer, total, buffer.length - total)) != -1) {
+        total += count;
+      }
+      assertEquals(json.length(), total);
+    }
+
+    assertEquals("gzip", server.lastRequestHeaders.get("accept-encoding"));
+    assertEquals(server.bytesSent.get(), transport.getBytesReceived());
+    assertTrue(transport.getBytesReceived() * 4 < json.length());
+  }
+
+  @Test
+  public void gzip_emptyBodiesAreNotDecompressed() throws Exception {
+    server.setPayload("/DONKI/FLR", "");
+    server.setHeader("Content-Encoding", "gzip");
+    UrlConnectionTransport transport = new UrlConnectionTransport();
+
+    for (int code : new int[] {200, 204, 304}) {
+      server.setStatusCode(code);
+      try (HttpTransport.Response response =
+               transport.newCall(new HttpTransport.Request(server.url("/DONKI/FLR"))).execute()) {
+        assertEquals(code, response.code);
+        assertEquals(-1, response.body().read());
+      }
+    }
+  }
+
+  @Test
+  public void readTimeout_failsInsteadOfHanging() throws Exception {
+    server.setPayload("/DONKI/FLR", flares(1));
+    server.setLatency(2_000);
+    UrlConnectionTransport transport = new UrlConnectionTransport(1_000, 200);
+
+    long start = System.nanoTime();
+    try {
+      transport.newCall(new HttpTransport.Request(server.url("/DONKI/FLR"))).execute().close();
+      fail("Expected a timeout");
+    } catch (IOException e) {
+      long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+      assertTrue("Took " + elapsedMillis + "ms", elapsedMillis < 1_500);
+    }
+  }
+
+  @Test
+  public void cancelingHandle_abortsRequestInFlight() throws Exception {
+    server.setPayload("/DONKI/FLR", flares(1));
+    server.setLatency(2_000);
+    SpaceData.setTransport(server.redirecting(new UrlConnectionTransport()));
+    FetchHandle handle = new FetchHandle();
+    Thread canceler = new Thread(() -> {
+      try {
+        Thread.sleep(200);
+      } catch (InterruptedException e) {
+        return;
+      }
+      handle.cancel();
+    });
+    canceler.start();
+
+    long start = System.nanoTime();
+    try {
+      SpaceData.getApiData(SpaceData.DataType.FLR, "2022-03-01", "2022-03-31",
+          RateLimitScheduler.Priority.USER, handle);
+      fail("Expected the fetch to be canceled");
+    } catch (FetchCanceledException e) {
+      long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+      assertTrue("Took " + elapsedMillis + "ms", elapsedMillis < 1_500);
+    }
+    canceler.join();
+
+    // A handle canceled before the fetch sends nothing
+    int received = server.requestsReceived.get();
+    try {
+      SpaceData.getApiData(SpaceData.DataType.FLR, null, null, RateLimitScheduler.Priority.USER,
+          handle);
+      fail("Expected the fetch to be canceled");
+    } catch (FetchCanceledException e) {
+      assertEquals(received, server.requestsReceived.get());
+    }
+  }
+
+  @Test
+  public void connections_areReusedAcrossRequests() throws Exception {
+    server.setPayload("/DONKI/FLR", flares(20));
+    UrlConnectionTransport transport = new UrlConnectionTransport();
+
+    for (int i = 0; i < 3; i++) {
+      try (HttpTransport.Response response =
+               transport.newCall(new HttpTransport.Request(server.url("/DONKI/FLR"))).execute()) {
+        assertEquals(200, response.code);
+        drain(response.body());
+      }
+    }
+
+    assertEquals(3, server.requestsReceived.get());
+    assertEquals(1, server.connectionsAccepted.get());
+  }
+}